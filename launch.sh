@@ -0,0 +1,26 @@
+#!/bin/sh
+# Launches the bot with an application class data sharing (AppCDS) archive to cut the startup time.
+# The archive belongs to one build of the jar. If it does not exist yet, a training run starts the bot once,
+# records the loaded classes and exits as soon as the bot is ready. The archive is then dumped from that list.
+# Set CDS=false to launch without an archive.
+
+JAR="${JAR:-IB.ai.jar}"
+CDS_DIR="${CDS_DIR:-/IB.ai/cds}"
+
+if [ "${CDS}" = "false" ]; then
+    exec java -jar "${JAR}" "$@"
+fi
+
+BUILD="$(md5sum "${JAR}" | cut -c 1-12)"
+LIST="${CDS_DIR}/${BUILD}.lst"
+ARCHIVE="${CDS_DIR}/${BUILD}.jsa"
+
+if [ ! -f "${ARCHIVE}" ]; then
+    mkdir -p "${CDS_DIR}"
+    echo "No class data archive for build ${BUILD}, training."
+    STARTUP_TRAINING=true java -Xshare:off -XX:+UseAppCDS -XX:DumpLoadedClassList="${LIST}" -jar "${JAR}"
+    java -Xshare:dump -XX:+UseAppCDS -XX:SharedClassListFile="${LIST}" -XX:SharedArchiveFile="${ARCHIVE}" \
+        -cp "${JAR}" || rm -f "${ARCHIVE}"
+fi
+
+exec java -Xshare:auto -XX:+UseAppCDS -XX:SharedArchiveFile="${ARCHIVE}" -jar "${JAR}" "$@"
@@ -27,19 +27,23 @@ import com.ibdiscord.i18n.LocaleException;
 import com.ibdiscord.i18n.LocaliserHandler;
 import com.ibdiscord.listeners.FilterListener;
 import com.ibdiscord.listeners.GuildListener;
+import com.ibdiscord.listeners.IndexListener;
 import com.ibdiscord.listeners.MessageListener;
 import com.ibdiscord.listeners.MonitorListener;
+import com.ibdiscord.listeners.PartitionedEventManager;
 import com.ibdiscord.listeners.ReactionListener;
 import com.ibdiscord.listeners.ReadyListener;
+import com.ibdiscord.punish.PunishmentExpiry;
+import com.ibdiscord.utils.UCache;
 import com.ibdiscord.utils.UFormatter;
 import com.ibdiscord.utils.UJavaVersion;
+import com.ibdiscord.utils.objects.PhaseTimer;
+import com.ibdiscord.vote.VoteCache;
 import lombok.Getter;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.JDABuilder;
 import net.dv8tion.jda.api.OnlineStatus;
 import net.dv8tion.jda.api.entities.Activity;
-import net.dv8tion.jda.api.requests.GatewayIntent;
-import net.dv8tion.jda.api.utils.MemberCachePolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -57,6 +61,7 @@ public enum IBai {
     @Getter private LocalConfig config;
     @Getter private CommandRegistry commandRegistry;
     @Getter private Logger logger = LoggerFactory.getLogger(getClass());
+    @Getter private PartitionedEventManager eventManager;
     @Getter private JDA jda;
 
     /**
@@ -77,42 +82,79 @@ public enum IBai {
 
     /**
      * Initializes the bot.
+     * Every phase of the startup is timed and the breakdown is logged once the bot is ready.
+     * In training mode, the bot exits right after, so that the loaded classes can be archived. It does not listen to
+     * any events in the meantime, so it neither handles commands nor recovers scheduled state.
      */
     private void init() {
+        PhaseTimer timer = new PhaseTimer();
         config = new LocalConfig();
+        timer.mark("config");
         DataContainer.INSTANCE.connect();
+        timer.mark("database");
         try {
             LocaliserHandler.INSTANCE.initialize(new File(config.getLangBase()));
         } catch(IOException | LocaleException exception) {
             exception.printStackTrace();
             return;
         }
+        timer.mark("languages");
         commandRegistry = new CommandRegistry();
         for(CommandRegistrar registrar : CommandRegistrar.KNOWN) {
             registrar.register(commandRegistry);
         }
+        timer.mark("commands");
+        LocaliserHandler.INSTANCE.watch();
+        PunishmentExpiry.INSTANCE.register();
+        eventManager = new PartitionedEventManager(config.getEventPartitions(), config.getEventQueueLimit());
+        Object[] listeners = {new FilterListener(),
+                new GuildListener(),
+                new IndexListener(),
+                new MessageListener(),
+                new MonitorListener(),
+                new ReactionListener(),
+                new ReadyListener()
+        };
+        if(config.isStartupTraining()) {
+            listeners = new Object[0]; // Their classes are loaded, but the training run must not act on any event.
+        }
+        timer.mark("services");
         try {
-            jda = JDABuilder.createDefault(config.getBotToken())
-                    .enableIntents(GatewayIntent.GUILD_MEMBERS, GatewayIntent.GUILD_PRESENCES)
-                    .setMemberCachePolicy(MemberCachePolicy.ALL)
+            jda = JDABuilder.create(config.getBotToken(), UCache.getIntents(config))
+                    .disableCache(UCache.getDisabledFlags(config))
+                    .setMemberCachePolicy(UCache.getMemberCachePolicy(config))
+                    .setChunkingFilter(UCache.getChunkingFilter(config))
                     .setStatus(OnlineStatus.DO_NOT_DISTURB)
                     .setActivity(Activity.playing(String.format("v%s | %shelp",
                             config.getBotVersion(),
                             config.getStaticPrefix()))
                     )
-                    .addEventListeners(new FilterListener(),
-                            new GuildListener(),
-                            new MessageListener(),
-                            new MonitorListener(),
-                            new ReactionListener(),
-                            new ReadyListener()
-                    )
+                    .setEventManager(eventManager)
+                    .addEventListeners(listeners)
                     .build();
+            timer.mark("login");
             jda.setAutoReconnect(true);
             jda.awaitReady();
+            timer.mark("ready");
         } catch (LoginException | InterruptedException ex) {
             ex.printStackTrace();
         }
+        logger.info("Started in {}ms: {}.", timer.getTotal(), timer);
+        if(jda != null) {
+            logger.info("Presences {}, member cache {}, estimated {}KB of heap saved.",
+                    config.isFeaturePresences() ? "enabled" : "disabled",
+                    config.isFeatureMemberCache() ? "enabled" : "disabled",
+                    UCache.estimateSaved(jda, config) / 1024
+            );
+        }
+        if(config.isStartupTraining()) {
+            logger.info("Training run complete, shutting down.");
+            if(jda != null) {
+                jda.shutdownNow();
+            }
+            System.exit(0);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(VoteCache.INSTANCE::flush, "Vote-Flush"));
         UFormatter.makeASplash();
     }
 
@@ -0,0 +1,47 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.command;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * An action that composes REST actions instead of blocking on them.
+ * Failures of the returned stage are reported the same way as exceptions thrown by synchronous actions.
+ */
+@FunctionalInterface
+public interface AsyncCommandAction extends CommandAction {
+
+    /**
+     * Executes the action without blocking.
+     * @param context The command context.
+     * @return A stage that completes once the action is done.
+     */
+    @Override
+    CompletionStage<?> execute(CommandContext context);
+
+    /**
+     * Executes the action, ignoring its completion.
+     * @param context The command context.
+     */
+    @Override
+    default void accept(CommandContext context) {
+        execute(context);
+    }
+
+}
@@ -20,24 +20,38 @@ package com.ibdiscord.command;
 
 import com.ibdiscord.IBai;
 import com.ibdiscord.command.permission.CommandPermission;
+import com.ibdiscord.i18n.LocaliserHandler;
 import com.ibdiscord.utils.UCommand;
-import lombok.RequiredArgsConstructor;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.GuildChannel;
 import org.apache.commons.lang3.ArrayUtils;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.function.Consumer;
 
-@RequiredArgsConstructor
 public final class Command {
 
     private final String name;
-    private final Set<String> aliases;
+    private final String aliasKey;
+    private volatile Set<String> aliases;
     private CommandPermission permission = CommandPermission.discord(Permission.MESSAGE_WRITE);
     private Set<Command> subCommands = new HashSet<>();
-    private Consumer<CommandContext> action;
+    private CommandAction action;
+
+    /**
+     * Creates a new command.
+     * @param name The name of the command.
+     * @param aliasKey The key for all the aliases, or null if the command has none.
+     */
+    public Command(String name, String aliasKey) {
+        this.name = name;
+        this.aliasKey = aliasKey;
+        reloadAliases();
+    }
 
     /**
      * Restricts a command by setting its permission.
@@ -65,6 +79,18 @@ public final class Command {
      * @return The current command.
      */
     public Command on(Consumer<CommandContext> action) {
+        this.action = action instanceof CommandAction
+                ? (CommandAction) action
+                : action::accept;
+        return this;
+    }
+
+    /**
+     * Sets an asynchronous command action.
+     * @param action The action, returning a stage that completes once it is done.
+     * @return The current command.
+     */
+    public Command onAsync(AsyncCommandAction action) {
         this.action = action;
         return this;
     }
@@ -73,11 +99,12 @@ public final class Command {
      * Process the command and finally execute it. This takes care of any common checks such as permission and handles
      * recursive sub-commands before finally executing the deepest subcommand.
      * @param context The command context.
+     * @return A stage that completes once the command is done, including any failure reporting.
      */
-    public void processAndExecute(CommandContext context) {
+    public CompletionStage<?> processAndExecute(CommandContext context) {
         if(!permission.hasPermission(context.getMember(), (GuildChannel) context.getChannel())) {
             context.replyI18n("error.permission");
-            return;
+            return CompletableFuture.completedFuture(null);
         }
         IBai.INSTANCE.getLogger().info("{} executed the command {} in {}",
                 context.getMember().getUser().getId(),
@@ -87,21 +114,53 @@ public final class Command {
         String[] args = context.getArguments();
         if(args.length == 0 || subCommands.size() == 0) {
             if(action == null) {
-                return;
+                return CompletableFuture.completedFuture(null);
             }
+            CompletionStage<?> stage;
             try {
-                action.accept(context);
+                stage = action.execute(context);
             } catch(RuntimeException exception) {
                 context.replyRaw(exception.getMessage());
+                return CompletableFuture.completedFuture(null);
             }
-            return;
+            return stage.handle((ignored, throwable) -> {
+                if(throwable != null) {
+                    fail(context, throwable);
+                }
+                return null;
+            });
         }
         Command subCommand = UCommand.query(subCommands, args[0]);
         if(subCommand == null) {
             context.replyI18n("error.unknown_sub", args[0]);
-        } else {
-            subCommand.processAndExecute(context.clone(ArrayUtils.remove(context.getArguments(), 0)));
+            return CompletableFuture.completedFuture(null);
+        }
+        return subCommand.processAndExecute(context.clone(ArrayUtils.remove(context.getArguments(), 0)));
+    }
+
+    /**
+     * Looks up the aliases from the currently loaded languages again, for this command and all sub-commands.
+     */
+    public void reloadAliases() {
+        aliases = aliasKey == null
+                ? new HashSet<>()
+                : LocaliserHandler.INSTANCE.getCommandAliases(aliasKey);
+        subCommands.forEach(Command::reloadAliases);
+    }
+
+    /**
+     * Reports an asynchronous failure, the same way synchronous exceptions are reported.
+     * @param context The command context.
+     * @param throwable The failure.
+     */
+    private void fail(CommandContext context, Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause()
+                : throwable;
+        if(cause.getClass() != RuntimeException.class) { // Plain runtime exceptions are failed assertions.
+            IBai.INSTANCE.getLogger().error("Command {} failed", name, cause);
         }
+        context.replyRaw(String.valueOf(cause.getMessage()));
     }
 
     /**
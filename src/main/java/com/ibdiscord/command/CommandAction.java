@@ -18,8 +18,21 @@
 
 package com.ibdiscord.command;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.function.Consumer;
 
 public interface CommandAction extends Consumer<CommandContext> {
-    // Aliasing for simplicity.
+
+    /**
+     * Executes the action.
+     * Synchronous actions are done once this returns, asynchronous actions complete the stage when they are done.
+     * @param context The command context.
+     * @return A stage that completes (exceptionally, if need be) once the action is done.
+     */
+    default CompletionStage<?> execute(CommandContext context) {
+        accept(context);
+        return CompletableFuture.completedFuture(null);
+    }
+
 }
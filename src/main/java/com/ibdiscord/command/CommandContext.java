@@ -19,6 +19,7 @@
 package com.ibdiscord.command;
 
 import com.ibdiscord.i18n.LocaleShorthand;
+import com.ibdiscord.i18n.LocaliserHandler;
 import com.ibdiscord.utils.UInput;
 import com.ibdiscord.utils.UString;
 import com.ibdiscord.utils.UTime;
@@ -42,14 +43,16 @@ public final class CommandContext implements LocaleShorthand {
     @Getter private final Member member;
     @Getter private final String[] arguments;
     @Getter private final Set<Option> options;
+    private volatile String language;
 
     /**
      * Creates a new command context. Which is essentially metadata regarding command execution.
      * @param message The message.
      * @param arguments The arguments.
      * @param options Any options of the command.
+     * @param language The member's language, or null if it has not been resolved yet.
      */
-    private CommandContext(Message message, String[] arguments, Set<Option> options) {
+    private CommandContext(Message message, String[] arguments, Set<Option> options, String language) {
         this.jda = message.getJDA();
         this.message = message;
         this.guild = message.getGuild();
@@ -57,6 +60,7 @@ public final class CommandContext implements LocaleShorthand {
         this.member = message.getMember();
         this.arguments = arguments;
         this.options = options;
+        this.language = language;
     }
 
     /**
@@ -99,7 +103,7 @@ public final class CommandContext implements LocaleShorthand {
             args = ArrayUtils.remove(args, i - decrementer);
             decrementer++;
         }
-        return new CommandContext(message, args, options);
+        return new CommandContext(message, args, options, null);
     }
 
     /**
@@ -108,7 +112,21 @@ public final class CommandContext implements LocaleShorthand {
      * @return A new command context.
      */
     CommandContext clone(String[] arguments) {
-        return new CommandContext(message, arguments, options);
+        return new CommandContext(message, arguments, options, language);
+    }
+
+    /**
+     * Gets the language of the member executing the command.
+     * This is looked up once and then reused for every translation within this context (and its clones).
+     * @return The language code, never null.
+     */
+    public String getLanguage() {
+        String resolved = language;
+        if(resolved == null) {
+            resolved = LocaliserHandler.INSTANCE.getUserLanguage(member.getUser());
+            language = resolved;
+        }
+        return resolved;
     }
 
     /**
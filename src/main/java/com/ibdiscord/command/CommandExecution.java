@@ -0,0 +1,105 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.command;
+
+import lombok.Getter;
+
+final class CommandExecution {
+
+    @Getter private final long guild;
+    @Getter private final Command command;
+    @Getter private final CommandContext context;
+    private final long enqueued;
+    private long started;
+    private Thread thread;
+    private boolean finished;
+
+    /**
+     * Creates a new pending execution.
+     * @param command The command.
+     * @param context The command context.
+     */
+    CommandExecution(Command command, CommandContext context) {
+        this.guild = context.getGuild().getIdLong();
+        this.command = command;
+        this.context = context;
+        this.enqueued = System.nanoTime();
+    }
+
+    /**
+     * Marks the start of the synchronous part of the execution on the current thread.
+     */
+    synchronized void enter() {
+        started = System.nanoTime();
+        thread = Thread.currentThread();
+    }
+
+    /**
+     * Marks the end of the synchronous part of the execution.
+     * Clears any interrupt that was meant for this execution, the thread will be reused.
+     */
+    synchronized void leave() {
+        thread = null;
+        Thread.interrupted();
+    }
+
+    /**
+     * Marks the execution as finished.
+     * @return True if it was not finished or abandoned before.
+     */
+    synchronized boolean finish() {
+        if(finished) {
+            return false;
+        }
+        finished = true;
+        return true;
+    }
+
+    /**
+     * Abandons the execution, interrupting it if it is still running synchronously.
+     * @return True if it was not finished or abandoned before.
+     */
+    synchronized boolean abandon() {
+        if(finished) {
+            return false;
+        }
+        finished = true;
+        if(thread != null) {
+            thread.interrupt();
+        }
+        return true;
+    }
+
+    /**
+     * Gets how long the execution waited to be started.
+     * @return The time in nanoseconds.
+     */
+    synchronized long getWaited() {
+        return started - enqueued;
+    }
+
+    /**
+     * Gets how long the execution has been running for.
+     * @return The time in nanoseconds.
+     */
+    synchronized long getRunning() {
+        return System.nanoTime() - started;
+    }
+
+}
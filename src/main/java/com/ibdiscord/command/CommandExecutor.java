@@ -0,0 +1,220 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.command;
+
+import com.ibdiscord.IBai;
+import com.ibdiscord.data.LocalConfig;
+import com.ibdiscord.utils.objects.NamedThreadFactory;
+import com.ibdiscord.utils.scheduler.ScheduledJob;
+import com.ibdiscord.utils.scheduler.Scheduler;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executes commands off the gateway event thread.
+ * Every guild has its own queue, and only a few commands of a single guild run at once, so one busy guild cannot
+ * occupy every worker. Commands that exceed their time budget are abandoned and interrupted.
+ */
+public enum CommandExecutor {
+
+    /**
+     * The singleton instance.
+     */
+    INSTANCE;
+
+    private static final int GUILD_CONCURRENCY = 2;
+
+    private final ExecutorService workers = createWorkers();
+    private final Map<Long, Deque<CommandExecution>> pending = new HashMap<>();
+    private final Map<Long, Integer> running = new HashMap<>();
+    private final Map<String, CommandStatistics> statistics = new ConcurrentHashMap<>();
+    private final AtomicLong rejected = new AtomicLong();
+    private final int queueLimit = IBai.INSTANCE.getConfig().getCommandQueueLimit();
+    private final long budget = IBai.INSTANCE.getConfig().getCommandBudget();
+    private int queued;
+
+    /**
+     * Queues a command for execution.
+     * @param command The command.
+     * @param context The command context.
+     * @return False if there are too many commands waiting and the command was rejected, true otherwise.
+     */
+    public boolean submit(Command command, CommandContext context) {
+        CommandExecution execution = new CommandExecution(command, context);
+        synchronized(this) {
+            if(queued >= queueLimit) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            queued++;
+            pending.computeIfAbsent(execution.getGuild(), key -> new ArrayDeque<>()).add(execution);
+        }
+        drain(execution.getGuild());
+        return true;
+    }
+
+    /**
+     * Gets the statistics of every command executed so far.
+     * @return A map of command name to statistics.
+     */
+    public Map<String, CommandStatistics> getStatistics() {
+        return Collections.unmodifiableMap(statistics);
+    }
+
+    /**
+     * Gets the number of commands waiting to be executed.
+     * @return The count.
+     */
+    public synchronized int getQueued() {
+        return queued;
+    }
+
+    /**
+     * Gets the number of commands that were rejected because too many were waiting.
+     * @return The count.
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Hands as many queued commands of a guild to the workers as the guild is allowed to run.
+     * @param guild The guild ID.
+     */
+    private void drain(long guild) {
+        List<CommandExecution> toStart = new ArrayList<>();
+        synchronized(this) {
+            Deque<CommandExecution> queue = pending.get(guild);
+            int active = running.getOrDefault(guild, 0);
+            while(queue != null
+                    && !queue.isEmpty()
+                    && active < GUILD_CONCURRENCY) {
+                toStart.add(queue.poll());
+                active++;
+            }
+            if(queue != null && queue.isEmpty()) {
+                pending.remove(guild);
+            }
+            if(active == 0) {
+                running.remove(guild);
+            } else {
+                running.put(guild, active);
+            }
+        }
+        toStart.forEach(execution -> workers.execute(() -> run(execution)));
+    }
+
+    /**
+     * Frees up a slot of a guild and starts the next command, if any.
+     * @param guild The guild ID.
+     */
+    private void release(long guild) {
+        synchronized(this) {
+            running.computeIfPresent(guild, (key, active) -> active <= 1 ? null : active - 1);
+        }
+        drain(guild);
+    }
+
+    /**
+     * Runs a command on the current worker.
+     * @param execution The execution.
+     */
+    private void run(CommandExecution execution) {
+        synchronized(this) {
+            queued--;
+        }
+        execution.enter();
+        ScheduledJob timeout = Scheduler.INSTANCE.schedule(budget, TimeUnit.SECONDS, () -> abandon(execution));
+        CompletionStage<?> stage;
+        try {
+            stage = execution.getCommand().processAndExecute(execution.getContext());
+        } catch(RuntimeException exception) {
+            IBai.INSTANCE.getLogger().error("Command {} failed", execution.getCommand().getName(), exception);
+            stage = CompletableFuture.completedFuture(null);
+        } finally {
+            execution.leave();
+        }
+        stage.whenComplete((ignored, throwable) -> {
+            if(!execution.finish()) {
+                return; // Abandoned, which already freed the slot.
+            }
+            timeout.cancel();
+            release(execution.getGuild());
+            long waited = execution.getWaited();
+            long ran = execution.getRunning();
+            statisticsOf(execution.getCommand()).record(waited, ran);
+            IBai.INSTANCE.getLogger().debug("Command {} waited {}ms and ran {}ms",
+                    execution.getCommand().getName(),
+                    TimeUnit.NANOSECONDS.toMillis(waited),
+                    TimeUnit.NANOSECONDS.toMillis(ran)
+            );
+        });
+    }
+
+    /**
+     * Abandons a command that has exceeded its time budget.
+     * Its slot is freed right away, so that a command that never finishes does not hold it forever, and its late
+     * completion is ignored.
+     * @param execution The execution.
+     */
+    private void abandon(CommandExecution execution) {
+        if(!execution.abandon()) {
+            return;
+        }
+        release(execution.getGuild());
+        statisticsOf(execution.getCommand()).timeout();
+        IBai.INSTANCE.getLogger().warn("Command {} in {} exceeded its budget of {}s",
+                execution.getCommand().getName(),
+                execution.getGuild(),
+                budget
+        );
+        execution.getContext().replyI18n("error.command_timeout");
+    }
+
+    /**
+     * Gets the statistics of a command.
+     * @param command The command.
+     * @return The statistics, never null.
+     */
+    private CommandStatistics statisticsOf(Command command) {
+        return statistics.computeIfAbsent(command.getName(), key -> new CommandStatistics());
+    }
+
+    /**
+     * Creates the worker executor.
+     * Virtual threads are used when the runtime provides them, otherwise a fixed pool of threads.
+     * @return The executor.
+     */
+    private static ExecutorService createWorkers() {
+        try {
+            ExecutorService virtual = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+            IBai.INSTANCE.getLogger().info("Executing commands on virtual threads");
+            return virtual;
+        } catch(ReflectiveOperationException | RuntimeException exception) {
+            LocalConfig config = IBai.INSTANCE.getConfig();
+            IBai.INSTANCE.getLogger().info("Executing commands on {} threads", config.getCommandWorkers());
+            return Executors.newFixedThreadPool(config.getCommandWorkers(), new NamedThreadFactory("Command-Worker"));
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.command;
+
+import java.util.concurrent.TimeUnit;
+
+public final class CommandStatistics {
+
+    private long executions;
+    private long waitNanos;
+    private long runNanos;
+    private long maxRunNanos;
+    private long timeouts;
+
+    /**
+     * Records a finished execution.
+     * @param waited How long the command waited in the queue, in nanoseconds.
+     * @param ran How long the command ran for, in nanoseconds.
+     */
+    synchronized void record(long waited, long ran) {
+        executions++;
+        waitNanos += waited;
+        runNanos += ran;
+        maxRunNanos = Math.max(maxRunNanos, ran);
+    }
+
+    /**
+     * Records an execution that exceeded its time budget.
+     */
+    synchronized void timeout() {
+        timeouts++;
+    }
+
+    /**
+     * Gets the number of finished executions.
+     * @return The count.
+     */
+    public synchronized long getExecutions() {
+        return executions;
+    }
+
+    /**
+     * Gets the average time spent waiting in the queue.
+     * @return The time in milliseconds.
+     */
+    public synchronized long getAverageWait() {
+        return executions == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(waitNanos / executions);
+    }
+
+    /**
+     * Gets the average time spent running.
+     * @return The time in milliseconds.
+     */
+    public synchronized long getAverageRun() {
+        return executions == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(runNanos / executions);
+    }
+
+    /**
+     * Gets the longest time spent running.
+     * @return The time in milliseconds.
+     */
+    public synchronized long getMaxRun() {
+        return TimeUnit.NANOSECONDS.toMillis(maxRunNanos);
+    }
+
+    /**
+     * Gets the number of executions that exceeded their time budget.
+     * @return The count.
+     */
+    public synchronized long getTimeouts() {
+        return timeouts;
+    }
+
+}
@@ -49,6 +49,14 @@ public abstract class PaginatedCommand<T> implements CommandAction, LocaleShorth
      */
     protected abstract void tweak(CommandContext context, EmbedBuilder embedBuilder);
 
+    /**
+     * Gets the index of the argument that holds the page number.
+     * @return The index, 0 unless the command takes arguments before the page.
+     */
+    protected int getPageArgument() {
+        return 0;
+    }
+
     /**
      * Paginates a command.
      * @param context The command context.
@@ -56,9 +64,9 @@ public abstract class PaginatedCommand<T> implements CommandAction, LocaleShorth
     @Override
     public void accept(CommandContext context) {
         int page = 1;
-        if(context.getArguments().length != 0) {
+        if(context.getArguments().length > getPageArgument()) {
             try {
-                page = Integer.valueOf(context.getArguments()[0]);
+                page = Integer.valueOf(context.getArguments()[getPageArgument()]);
             } catch(NumberFormatException ignored) {
                 // Ignored, I forgot you needed this for bloody checkstyle to work.
             }
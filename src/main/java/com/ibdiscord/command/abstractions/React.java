@@ -18,10 +18,11 @@
 
 package com.ibdiscord.command.abstractions;
 
-import com.ibdiscord.command.CommandAction;
+import com.ibdiscord.command.AsyncCommandAction;
 import com.ibdiscord.command.CommandContext;
 import com.ibdiscord.data.db.DataContainer;
 import com.ibdiscord.data.db.entries.react.ReactionData;
+import com.ibdiscord.react.ReactionRoleHandler;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.Role;
 import net.dv8tion.jda.api.entities.TextChannel;
@@ -29,8 +30,10 @@ import net.dv8tion.jda.api.entities.TextChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
-public abstract class React implements CommandAction {
+public abstract class React implements AsyncCommandAction {
 
     /**
      * Modifies the data.
@@ -50,9 +53,10 @@ public abstract class React implements CommandAction {
     /**
      * Handles the command.
      * @param context The command context.
+     * @return A stage that completes once the message has been retrieved and updated.
      */
     @Override
-    public final void accept(CommandContext context) {
+    public final CompletionStage<?> execute(CommandContext context) {
         context.assertArguments(1, "error.missing_channelid");
         context.assertArguments(2, "error.missing_messageid");
         context.assertArguments(3, "error.missing_emojiid");
@@ -67,21 +71,31 @@ public abstract class React implements CommandAction {
             roleArgs = new ArrayList<>(Arrays.asList(context.getArguments()).subList(3, context.getArguments().length));
         } catch(NumberFormatException exception) {
             context.replyI18n("error.reaction_invalidid");
-            return;
+            return CompletableFuture.completedFuture(null);
         }
         TextChannel channel = context.getGuild().getTextChannelById(channelId);
         if(channel == null) {
             context.replyI18n("error.reaction_channel");
-            return;
-        }
-        Message message;
-        try {
-            message = channel.retrieveMessageById(messageId).complete();
-        } catch(IllegalArgumentException exception) {
-            context.replyI18n("error.reaction_message");
-            return;
+            return CompletableFuture.completedFuture(null);
         }
+        return channel.retrieveMessageById(messageId).submit().handle((message, error) -> {
+            if(error != null) {
+                context.replyI18n("error.reaction_message");
+            } else {
+                apply(context, message, messageId, roleArgs);
+            }
+            return null;
+        });
+    }
 
+    /**
+     * Updates the reaction data and the message once it has been retrieved.
+     * @param context The command context.
+     * @param message The message.
+     * @param messageId The message ID.
+     * @param roleArgs The role arguments.
+     */
+    private void apply(CommandContext context, Message message, long messageId, List<String> roleArgs) {
         // Checking that all roleIDs are valid
         ArrayList<String> roleIDData = new ArrayList<>(roleArgs);
         ArrayList<Role> roles = new ArrayList<>();
@@ -101,6 +115,7 @@ public abstract class React implements CommandAction {
         modifyMessage(message,
                 context.getMessage().getEmotes().isEmpty() ? emoteRaw : context.getMessage().getEmotes().get(0));
         DataContainer.INSTANCE.getGravity().save(data);
+        ReactionRoleHandler.INSTANCE.update(context.getGuild().getIdLong(), messageId, data);
         context.replyI18n("success.done");
     }
 
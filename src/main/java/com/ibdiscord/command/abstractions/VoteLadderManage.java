@@ -23,6 +23,7 @@ import com.ibdiscord.command.CommandContext;
 import com.ibdiscord.data.db.DataContainer;
 import com.ibdiscord.data.db.entries.voting.VoteLadderData;
 import com.ibdiscord.data.db.entries.voting.VoteLaddersData;
+import com.ibdiscord.vote.VoteCache;
 import de.arraying.gravity.Gravity;
 
 public abstract class VoteLadderManage implements CommandAction {
@@ -51,6 +52,7 @@ public abstract class VoteLadderManage implements CommandAction {
         VoteLadderData ladderData = gravity.load(new VoteLadderData(context.getGuild().getId(), ladder));
         handle(context, ladderData);
         gravity.save(ladderData);
+        VoteCache.INSTANCE.reloadLadder(context.getGuild().getId(), ladder);
     }
 
 }
@@ -0,0 +1,125 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.command.actions;
+
+import com.ibdiscord.IBai;
+import com.ibdiscord.command.AsyncCommandAction;
+import com.ibdiscord.command.CommandContext;
+import com.ibdiscord.export.CaseExporter;
+import com.ibdiscord.export.ExportFormat;
+import com.ibdiscord.i18n.LocaleShorthand;
+import com.ibdiscord.utils.objects.NamedThreadFactory;
+import net.dv8tion.jda.api.entities.Message;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public final class CaseExport implements AsyncCommandAction, LocaleShorthand {
+
+    private static final long PROGRESS_INTERVAL = 5000;
+
+    // One export at a time, so that exports of big guilds never pile up on disk or on the connection.
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(
+            new NamedThreadFactory("Case-Export")
+    );
+
+    /**
+     * Exports the cases of the guild and uploads them as an attachment.
+     * NDJSON is the default, the csv option switches to CSV and the notes option includes notes.
+     * The export can take longer than the command budget, so the command is done once the export is handed to
+     * the export thread. The progress message reports how it goes from there.
+     * @param context The command context.
+     * @return A stage that completes once the export has been queued.
+     */
+    @Override
+    public CompletionStage<?> execute(CommandContext context) {
+        ExportFormat format = hasOption(context, "csv") ? ExportFormat.CSV : ExportFormat.NDJSON;
+        CaseExporter exporter = new CaseExporter(context.getGuild().getId(), format, hasOption(context, "notes"));
+        return context.getChannel().sendMessage(__(context, "info.case_export_progress", 0)).submit()
+                .thenAccept(progress -> CompletableFuture.supplyAsync(() -> export(context, exporter, progress),
+                        EXECUTOR)
+                        .thenCompose(file -> upload(context, progress, format, file))
+                        .exceptionally(throwable -> {
+                            IBai.INSTANCE.getLogger().error("Could not export cases of {}",
+                                    context.getGuild().getId(),
+                                    throwable);
+                            progress.editMessage(__(context, "error.case_export")).queue();
+                            return null;
+                        })
+                );
+    }
+
+    /**
+     * Runs the export, editing the progress message every few seconds.
+     * @param context The command context.
+     * @param exporter The exporter.
+     * @param progress The progress message.
+     * @return The exported file.
+     */
+    private File export(CommandContext context, CaseExporter exporter, Message progress) {
+        long[] lastUpdate = {System.currentTimeMillis()};
+        try {
+            return exporter.export(written -> {
+                long now = System.currentTimeMillis();
+                if(now - lastUpdate[0] >= PROGRESS_INTERVAL) {
+                    lastUpdate[0] = now;
+                    progress.editMessage(__(context, "info.case_export_progress", written)).queue();
+                }
+            });
+        } catch(IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Uploads the exported file and deletes it afterwards.
+     * @param context The command context.
+     * @param progress The progress message.
+     * @param format The format.
+     * @param file The file.
+     * @return A stage that completes once the file has been uploaded, or it was too big.
+     */
+    private CompletionStage<?> upload(CommandContext context, Message progress, ExportFormat format, File file) {
+        if(file.length() > context.getGuild().getMaxFileSize()) {
+            file.delete();
+            progress.editMessage(__(context, "error.case_export_size")).queue();
+            return CompletableFuture.completedFuture(null);
+        }
+        String name = "cases_" + context.getGuild().getId() + format.getExtension();
+        return context.getChannel().sendFile(file, name).submit()
+                .whenComplete((message, error) -> file.delete())
+                .thenRun(() -> progress.editMessage(__(context, "success.case_export")).queue());
+    }
+
+    /**
+     * Checks whether an option was provided.
+     * @param context The command context.
+     * @param name The option name.
+     * @return True if it was, false otherwise.
+     */
+    private boolean hasOption(CommandContext context, String name) {
+        return context.getOptions().stream().anyMatch(it -> it.getName().equalsIgnoreCase(name));
+    }
+
+}
@@ -24,6 +24,7 @@ import com.ibdiscord.data.db.DataContainer;
 import com.ibdiscord.data.db.entries.cassowary.CassowariesData;
 import com.ibdiscord.data.db.entries.cassowary.CassowaryData;
 import com.ibdiscord.data.db.entries.cassowary.CassowaryPenguinData;
+import com.ibdiscord.react.ReactionRoleHandler;
 import com.ibdiscord.utils.UString;
 
 import java.util.ArrayList;
@@ -78,6 +79,7 @@ public final class CassowaryCreate implements CommandAction {
         roleIDs.forEach(cassowaryData::add);
         DataContainer.INSTANCE.getGravity().save(cassowaryData);
 
+        ReactionRoleHandler.INSTANCE.invalidateCassowaries(context.getGuild().getIdLong());
         context.replyI18n("success.done");
     }
 
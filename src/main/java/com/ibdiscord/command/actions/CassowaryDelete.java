@@ -24,6 +24,7 @@ import com.ibdiscord.data.db.DataContainer;
 import com.ibdiscord.data.db.entries.cassowary.CassowariesData;
 import com.ibdiscord.data.db.entries.cassowary.CassowaryData;
 import com.ibdiscord.data.db.entries.cassowary.CassowaryPenguinData;
+import com.ibdiscord.react.ReactionRoleHandler;
 import com.ibdiscord.utils.UString;
 
 public final class CassowaryDelete implements CommandAction {
@@ -54,6 +55,7 @@ public final class CassowaryDelete implements CommandAction {
         cassowaryData.delete();
         DataContainer.INSTANCE.getGravity().save(cassowaryData);
 
+        ReactionRoleHandler.INSTANCE.invalidateCassowaries(context.getGuild().getIdLong());
         context.replyI18n("success.done");
     }
 
@@ -24,6 +24,7 @@ import com.ibdiscord.data.db.DataContainer;
 import com.ibdiscord.data.db.entries.helper.HelperInactiveData;
 import com.ibdiscord.pagination.Pagination;
 import com.ibdiscord.utils.UInput;
+import com.ibdiscord.utils.UMember;
 import com.ibdiscord.utils.UString;
 import de.arraying.gravity.Gravity;
 import de.arraying.gravity.data.property.Property;
@@ -31,6 +32,8 @@ import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.*;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 public final class HelperList implements CommandAction {
@@ -87,11 +90,19 @@ public final class HelperList implements CommandAction {
             return;
         }
 
-        List<String> helperIds = context.getGuild().getMembersWithRoles(roleFinal).stream()
-                .map(Member::getId)
-                .collect(Collectors.toList());
+        Role role = roleFinal;
+        UMember.loadMembers(context.getGuild()).whenComplete((members, error) -> {
+            if(error != null) {
+                context.replyI18n("error.member_lookup");
+                return;
+            }
+            List<String> helperIds = members.stream()
+                    .filter(member -> member.getRoles().contains(role))
+                    .map(Member::getId)
+                    .collect(Collectors.toList());
 
-        paginateEmbed(context, helperIds, roleFinal, false);
+            paginateEmbed(context, helperIds, role, false);
+        });
     }
 
     private void paginateEmbed(CommandContext context, List<String> helpers, Role role, boolean inactive) {
@@ -117,33 +128,49 @@ public final class HelperList implements CommandAction {
                 }
             }
 
-            pagination.page(page).forEach(entry -> {
-                Member member = context.getGuild().getMemberById(entry.getValue());
-
-                String embedFieldTitle = (String.format("%s (%s)", member.getUser().getAsTag(), entry.getValue()));
-
-                String roles = member.getRoles().stream()
-                        .filter(memberRole -> memberRole.getName().toLowerCase().endsWith("helper"))
-                        .map(Role::getAsMention)
-                        .collect(Collectors.joining(", "));
+            List<CompletableFuture<Member>> members = pagination.page(page).stream()
+                    .map(entry -> UMember.retrieveMember(context.getGuild(), entry.getValue()))
+                    .collect(Collectors.toList());
+            int pageFinal = page;
+            CompletableFuture.allOf(members.toArray(new CompletableFuture[0])).thenRun(() -> {
+                members.stream()
+                        .map(CompletableFuture::join)
+                        .filter(Objects::nonNull)
+                        .forEach(member -> {
+                            String embedFieldTitle = (String.format("%s (%s)",
+                                    member.getUser().getAsTag(),
+                                    member.getId()
+                            ));
+
+                            String roles = member.getRoles().stream()
+                                    .filter(memberRole -> memberRole.getName().toLowerCase().endsWith("helper"))
+                                    .map(Role::getAsMention)
+                                    .collect(Collectors.joining(", "));
+
+                            embedBuilder.addField(
+                                    embedFieldTitle,
+                                    roles,
+                                    false
+                            );
+                        });
+
+                if (embedBuilder.getFields().size() == 0) {
+                    embedBuilder.setDescription(
+                            context.__(context, "error.helper_404")
+                    );
+                }
 
-                embedBuilder.addField(
-                        embedFieldTitle,
-                        roles,
-                        false
+                embedBuilder.setFooter(
+                        context.__(context, "info.paginated", String.valueOf(pageFinal),
+                                String.valueOf(pagination.total())),
+                        null
                 );
+                context.replyEmbed(embedBuilder.build());
+            }).exceptionally(throwable -> {
+                context.replyI18n("error.member_lookup");
+                return null;
             });
-
-            if (embedBuilder.getFields().size() == 0) {
-                embedBuilder.setDescription(
-                        context.__(context, "error.helper_404")
-                );
-            }
-
-            embedBuilder.setFooter(
-                    context.__(context, "info.paginated",String.valueOf(page), String.valueOf(pagination.total())),
-                    null
-            );
+            return;
         }
 
         context.replyEmbed(embedBuilder.build());
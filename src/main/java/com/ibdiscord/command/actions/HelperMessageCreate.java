@@ -18,37 +18,38 @@
 
 package com.ibdiscord.command.actions;
 
-import com.ibdiscord.command.CommandAction;
+import com.ibdiscord.command.AsyncCommandAction;
 import com.ibdiscord.command.CommandContext;
 import com.ibdiscord.data.db.DataContainer;
 import com.ibdiscord.data.db.entries.helper.HelperMessageData;
 import com.ibdiscord.data.db.entries.helper.HelperMessageRolesData;
-import com.ibdiscord.utils.UEmbed;
+import com.ibdiscord.helper.HelperMessageHandler;
 import com.ibdiscord.utils.UInput;
-import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.Role;
 import net.dv8tion.jda.api.entities.TextChannel;
 
-import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
-public final class HelperMessageCreate implements CommandAction {
+public final class HelperMessageCreate implements AsyncCommandAction {
 
     /**
      * Creates the helper message.
      * @param context The command context.
+     * @return A stage that completes once the helper message has been sent.
      */
     @Override
-    public void accept(CommandContext context) {
+    public CompletionStage<?> execute(CommandContext context) {
         context.assertArguments(2, "error.generic_arg_length");
         if (context.getMessage().getMentionedChannels().size() < 1) {
             context.replyI18n("error.missing_channel");
-            return;
+            return CompletableFuture.completedFuture(null);
         }
         TextChannel channel = context.getMessage().getMentionedChannels().get(0);
         Role role = UInput.getRole(context.getGuild(), context.getArguments()[0]);
         if (role == null) {
             context.replyI18n("error.missing_roleid");
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
         HelperMessageRolesData helperMessageRolesData = DataContainer.INSTANCE.getGravity().load(
@@ -65,17 +66,19 @@ public final class HelperMessageCreate implements CommandAction {
             }
         }
 
-        try {
-            Message message = channel.sendMessage(UEmbed.helperMessageEmbed(context.getGuild(), role))
-                    .complete();
-            helperMessageRolesData.add(role.getId());
-            helperMessageData.set(channel.getId(), message.getId());
-            DataContainer.INSTANCE.getGravity().save(helperMessageRolesData);
-            DataContainer.INSTANCE.getGravity().save(helperMessageData);
-            message.pin().queue();
-            context.replyI18n("success.done");
-        } catch (RejectedExecutionException e) {
-            context.replyI18n("error.pin_channel");
-        }
+        return channel.sendMessage(HelperMessageHandler.INSTANCE.render(context.getGuild(), role)).submit()
+                .handle((message, error) -> {
+                    if (error != null) {
+                        context.replyI18n("error.pin_channel");
+                        return null;
+                    }
+                    helperMessageRolesData.add(role.getId());
+                    helperMessageData.set(channel.getId(), message.getId());
+                    DataContainer.INSTANCE.getGravity().save(helperMessageRolesData);
+                    DataContainer.INSTANCE.getGravity().save(helperMessageData);
+                    message.pin().queue();
+                    context.replyI18n("success.done");
+                    return null;
+                });
     }
 }
@@ -18,87 +18,91 @@
 
 package com.ibdiscord.command.actions;
 
-import com.ibdiscord.command.CommandAction;
 import com.ibdiscord.command.CommandContext;
-import com.ibdiscord.data.db.DataContainer;
+import com.ibdiscord.command.abstractions.PaginatedCommand;
+import com.ibdiscord.data.db.DataProvider;
 import com.ibdiscord.data.db.entries.punish.PunishmentData;
-import com.ibdiscord.data.db.entries.punish.PunishmentsData;
+import com.ibdiscord.pagination.Page;
+import com.ibdiscord.pagination.Pagination;
 import com.ibdiscord.punish.Punishment;
-import com.ibdiscord.punish.PunishmentHandler;
 import com.ibdiscord.utils.UInput;
-import de.arraying.gravity.Gravity;
-import de.arraying.gravity.data.property.Property;
 import net.dv8tion.jda.api.EmbedBuilder;
-import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
-import net.dv8tion.jda.api.entities.Message;
-import net.dv8tion.jda.api.entities.TextChannel;
-import net.dv8tion.jda.api.exceptions.ErrorResponseException;
 
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
-import static com.ibdiscord.data.db.entries.punish.PunishmentData.MESSAGE;
+public final class History extends PaginatedCommand<Long> {
 
-public final class History implements CommandAction {
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
     /**
-     * Returns history of user.
+     * Gets the pagination of the cases of the user.
+     * Only the case numbers are read here, the cases themselves are read as their page is shown.
      * @param context The command context.
+     * @return The pagination.
      */
     @Override
-    public void accept(CommandContext context) {
+    protected Pagination<Long> getPagination(CommandContext context) {
         context.assertArguments(1, "error.missing_memberid");
         context.assertID(context.getArguments()[0], "error.missing_memberid");
+        return new Pagination<>(Punishment.getCases(context.getGuild().getId(), context.getArguments()[0]), 10);
+    }
 
-        Guild guild = context.getGuild();
+    /**
+     * Formats the case into the embed.
+     * @param context The context.
+     * @param embedBuilder The embed builder.
+     * @param page The page.
+     */
+    @Override
+    protected void handle(CommandContext context, EmbedBuilder embedBuilder, Page<Long> page) {
+        long caseId = page.getValue();
+        String guild = context.getGuild().getId();
+        Map<String, String> data = new DataProvider().hgetall(PunishmentData.identifier(guild, caseId));
+        Punishment punishment = Punishment.of(data);
+        embedBuilder.addField(String.format("Case %s (%s) - By %s", caseId,
+                getDate(data),
+                punishment.getStaffDisplay()),
+                String.format("%s - %s", punishment.getType().getDisplayInitial(), punishment.getReason()),
+                false
+        );
+    }
 
+    /**
+     * Sets the title.
+     * @param context The context.
+     * @param embedBuilder The embed builder.
+     */
+    @Override
+    protected void tweak(CommandContext context, EmbedBuilder embedBuilder) {
         String userId = context.getArguments()[0];
-        Member member = UInput.getMember(guild, userId);
-
-        Gravity gravity = DataContainer.INSTANCE.getGravity();
-        PunishmentsData punishmentList = gravity.load(new PunishmentsData(guild.getId()));
-
-        List<Long> caseIds = punishmentList.values().stream()
-                .filter(caseId -> Punishment.of(guild, caseId).getUserId().equals(userId))
-                .map(Property::asLong)
-                .sorted()
-                .collect(Collectors.toList());
-
-        EmbedBuilder embedBuilder = new EmbedBuilder();
-
+        Member member = UInput.getMember(context.getGuild(), userId);
         embedBuilder.setTitle(String.format("History Of %s",
                 member != null ? member.getUser().getAsTag() : userId));
+    }
 
-        caseIds.forEach((caseId) -> {
-            Punishment punishment = Punishment.of(guild, caseId);
-            PunishmentData punishmentData = gravity.load(new PunishmentData(guild.getId(), caseId));
-            PunishmentHandler punishmentHandler = new PunishmentHandler(guild, punishment);
-
-            TextChannel channel = punishmentHandler.getLogChannel();
-            if(channel == null) {
-                context.replyI18n("error.reason_logging");
-                return;
-            }
-
-            String date = "???";
-
-            try {
-                Message message = channel
-                        .retrieveMessageById(punishmentData.get(MESSAGE).defaulting(0L).asLong())
-                        .complete();
-                date = message.getTimeCreated().format(DateTimeFormatter.ofPattern("dd/MM/YYY"));
-            } catch(ErrorResponseException e) {
-                //Empty, do nothing
-            }
+    /**
+     * The page number comes after the user ID.
+     * @return The index.
+     */
+    @Override
+    protected int getPageArgument() {
+        return 1;
+    }
 
-            embedBuilder.addField(String.format("Case %s (%s) - By %s", caseId,
-                    date,
-                    punishment.getStaffDisplay()),
-                    String.format("%s - %s", punishment.getType().getDisplayInitial(),
-                            punishment.getReason()), false);
-        });
-        context.replyEmbed(embedBuilder.build());
+    /**
+     * Gets the date of a case.
+     * @param data The case data.
+     * @return The formatted date, or ??? if it is unknown.
+     */
+    private String getDate(Map<String, String> data) {
+        long timestamp = Punishment.getTimestamp(data);
+        return timestamp == 0
+                ? "???"
+                : Instant.ofEpochMilli(timestamp).atOffset(ZoneOffset.UTC).format(FORMAT);
     }
+
 }
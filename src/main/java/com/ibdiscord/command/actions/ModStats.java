@@ -0,0 +1,104 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.command.actions;
+
+import com.ibdiscord.command.CommandAction;
+import com.ibdiscord.command.CommandContext;
+import com.ibdiscord.i18n.LocaleShorthand;
+import com.ibdiscord.punish.PunishmentStats;
+import com.ibdiscord.punish.PunishmentType;
+import net.dv8tion.jda.api.EmbedBuilder;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public final class ModStats implements CommandAction, LocaleShorthand {
+
+    private static final int TOP = 5;
+    private static final int WEEKS = 8;
+
+    /**
+     * Shows the moderation statistics of the guild.
+     * @param context The command context.
+     */
+    @Override
+    public void accept(CommandContext context) {
+        Map<String, Long> counters = PunishmentStats.INSTANCE.getCounters(context.getGuild());
+        EmbedBuilder embedBuilder = new EmbedBuilder();
+        embedBuilder.setTitle(__(context, "info.modstats_title"));
+        embedBuilder.setDescription(__(context, "info.modstats_total",
+                counters.getOrDefault(PunishmentStats.TOTAL, 0L)));
+        StringBuilder types = new StringBuilder();
+        for(PunishmentType type : PunishmentType.values()) {
+            long cases = counters.getOrDefault(PunishmentStats.TYPE + type, 0L);
+            long revoked = counters.getOrDefault(PunishmentStats.REVOKED + type, 0L);
+            if(cases != 0 || revoked != 0) {
+                types.append(__(context, "info.modstats_type", type.getDisplayInitial(), cases, revoked))
+                        .append("\n");
+            }
+        }
+        embedBuilder.addField(__(context, "info.modstats_by_type"), orNone(context, types.toString()), false);
+        String moderators = top(counters, PunishmentStats.STAFF, "<@%s>: %d",
+                Map.Entry.<String, Long>comparingByValue().reversed(), TOP);
+        embedBuilder.addField(__(context, "info.modstats_moderators"), orNone(context, moderators), false);
+        String weeks = top(counters, PunishmentStats.WEEK, "%s: %d",
+                Map.Entry.<String, Long>comparingByKey().reversed(), WEEKS);
+        embedBuilder.addField(__(context, "info.modstats_weeks"), orNone(context, weeks), false);
+        String offenders = PunishmentStats.INSTANCE.getOffenders(context.getGuild(), TOP)
+                .entrySet().stream()
+                .map(entry -> String.format("<@%s>: %d", entry.getKey(), entry.getValue()))
+                .collect(Collectors.joining("\n"));
+        embedBuilder.addField(__(context, "info.modstats_offenders"), orNone(context, offenders), false);
+        context.replyEmbed(embedBuilder.build());
+    }
+
+    /**
+     * Formats the counters with a prefix, ordered and limited.
+     * @param counters The counters.
+     * @param prefix The prefix of the fields.
+     * @param format The format of a line, taking the field without prefix and the count.
+     * @param order The order.
+     * @param limit The maximum number of lines.
+     * @return The lines.
+     */
+    private String top(Map<String, Long> counters,
+                       String prefix,
+                       String format,
+                       Comparator<Map.Entry<String, Long>> order,
+                       int limit) {
+        return counters.entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith(prefix))
+                .sorted(order)
+                .limit(limit)
+                .map(entry -> String.format(format, entry.getKey().substring(prefix.length()), entry.getValue()))
+                .collect(Collectors.joining("\n"));
+    }
+
+    /**
+     * Gets a placeholder for empty embed fields.
+     * @param context The command context.
+     * @param value The value.
+     * @return The value, or N/A if it is empty.
+     */
+    private String orNone(CommandContext context, String value) {
+        return value.isEmpty() ? __(context, "info.modstats_none") : value;
+    }
+
+}
@@ -22,6 +22,7 @@ import com.ibdiscord.command.CommandAction;
 import com.ibdiscord.command.CommandContext;
 import com.ibdiscord.data.db.DataContainer;
 import com.ibdiscord.data.db.entries.monitor.MonitorUserData;
+import com.ibdiscord.utils.UMember;
 import de.arraying.gravity.data.property.Property;
 import net.dv8tion.jda.api.entities.Member;
 
@@ -43,21 +44,26 @@ public final class MonitorCleanup implements CommandAction {
                 .map(Property::asString)
                 .collect(Collectors.toList());
 
-        List<String> guildMemberIDs = context.getGuild().getMembers()
-                .stream()
-                .map(Member::getId)
-                .collect(Collectors.toList());
+        UMember.loadMembers(context.getGuild()).whenComplete((members, error) -> {
+            if(error != null) { // Without the full list, everyone would look like they left.
+                context.replyI18n("error.member_lookup");
+                return;
+            }
+            List<String> guildMemberIDs = members.stream()
+                    .map(Member::getId)
+                    .collect(Collectors.toList());
 
-        // Find all users in monitor but not in guild member list.
-        monitoredUsers.removeAll(guildMemberIDs);
+            // Find all users in monitor but not in guild member list.
+            monitoredUsers.removeAll(guildMemberIDs);
 
-        for(String userToClean : monitoredUsers) {
-            monitorUserData.remove(userToClean);
-        }
+            for(String userToClean : monitoredUsers) {
+                monitorUserData.remove(userToClean);
+            }
 
-        DataContainer.INSTANCE.getGravity().save(monitorUserData);
+            DataContainer.INSTANCE.getGravity().save(monitorUserData);
 
-        context.replyI18n("success.done");
+            context.replyI18n("success.done");
+        });
     }
 
 }
@@ -19,16 +19,18 @@
 package com.ibdiscord.command.actions;
 
 import com.ibdiscord.IBai;
-import com.ibdiscord.command.CommandAction;
+import com.ibdiscord.command.AsyncCommandAction;
 import com.ibdiscord.command.CommandContext;
 import com.ibdiscord.utils.objects.Tuple;
 import net.dv8tion.jda.api.entities.MessageChannel;
 import net.dv8tion.jda.api.entities.TextChannel;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.stream.Collectors;
 
-public final class Pin implements CommandAction {
+public final class Pin implements AsyncCommandAction {
 
     private final List<Long> subjectChannels;
 
@@ -42,9 +44,10 @@ public final class Pin implements CommandAction {
     /**
      * Pins a message in its channel.
      * @param context The command's context.
+     * @return A stage that completes once the message has been (un)pinned.
      */
     @Override
-    public void accept(CommandContext context) {
+    public CompletionStage<?> execute(CommandContext context) {
         context.assertArguments(1, "error.generic_arg_length"); // _At least_ one arg.
         if(context.getArguments().length == 2) { // Channel is specified by user
             TextChannel channel = context.assertChannel(context.getArguments()[0], "error.reaction_channel");
@@ -52,16 +55,16 @@ public final class Pin implements CommandAction {
             context.assertID(msgID, "error.reaction_message");
             if(!subjectChannels.contains(channel.getIdLong())) {
                 context.replyI18n("error.subject_channel");
-                return;
+                return CompletableFuture.completedFuture(null);
             }
-            togglePin(context, channel, context.getArguments()[1]);
+            return togglePin(context, channel, context.getArguments()[1]);
         } else { // Channel is unspecified. Uses channel the user issued the command from.
             context.assertID(context.getArguments()[0], "error.pin_channel");
             if(!subjectChannels.contains(context.getChannel().getIdLong())) {
                 context.replyI18n("error.subject_channel");
-                return;
+                return CompletableFuture.completedFuture(null);
             }
-            togglePin(context, context.getChannel(), context.getArguments()[0]);
+            return togglePin(context, context.getChannel(), context.getArguments()[0]);
         }
     }
 
@@ -70,24 +73,34 @@ public final class Pin implements CommandAction {
      * @param context The context of the issued command.
      * @param channel The channel the message is in.
      * @param messageID The ID of the message to pin or unpin.
+     * @return A stage that completes once the message has been (un)pinned.
      */
-    private void togglePin(CommandContext context, MessageChannel channel, String messageID) {
-        if(channel.retrieveMessageById(messageID).complete().isPinned()) {
-            channel.unpinMessageById(messageID).queue(
-                success -> context.replyI18n("success.done"),
-                error -> context.replyI18n("error.pin_channel"));
-        } else {
-            channel.retrievePinnedMessages().queue(pins -> {
+    private CompletionStage<Void> togglePin(CommandContext context, MessageChannel channel, String messageID) {
+        return channel.retrieveMessageById(messageID).submit().thenCompose(message -> {
+            if(message.isPinned()) {
+                return reply(context, channel.unpinMessageById(messageID).submit());
+            }
+            return channel.retrievePinnedMessages().submit().thenCompose(pins -> {
                 if (pins.size() == 50) {
                     context.replyI18n("error.pin_max");
-                    return;
+                    return CompletableFuture.<Void>completedFuture(null);
                 }
-                channel.pinMessageById(messageID).queue(
-                    success -> context.replyI18n("success.done"),
-                    error -> context.replyI18n("error.pin_channel")
-                );
+                return reply(context, channel.pinMessageById(messageID).submit());
             });
-        }
+        });
+    }
+
+    /**
+     * Replies with the outcome of a pin or unpin request.
+     * @param context The context of the issued command.
+     * @param request The request.
+     * @return A stage that completes once the reply has been queued.
+     */
+    private CompletableFuture<Void> reply(CommandContext context, CompletableFuture<Void> request) {
+        return request.handle((success, error) -> {
+            context.replyI18n(error == null ? "success.done" : "error.pin_channel");
+            return null;
+        });
     }
 
     /**
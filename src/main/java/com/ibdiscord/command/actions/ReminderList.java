@@ -28,7 +28,6 @@ import net.dv8tion.jda.api.EmbedBuilder;
 
 import java.text.SimpleDateFormat;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public final class ReminderList extends PaginatedCommand<Reminder> {
 
@@ -39,9 +38,7 @@ public final class ReminderList extends PaginatedCommand<Reminder> {
      */
     @Override
     protected Pagination<Reminder> getPagination(CommandContext context) {
-        List<Reminder> reminders = ReminderHandler.INSTANCE.getFor(context.getMember().getUser()).stream()
-                .filter(it -> !it.isCompleted())
-                .collect(Collectors.toList());
+        List<Reminder> reminders = ReminderHandler.INSTANCE.getFor(context.getMember().getUser());
         return new Pagination<>(reminders, 10);
     }
 
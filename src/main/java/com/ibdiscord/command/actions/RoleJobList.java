@@ -0,0 +1,90 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.command.actions;
+
+import com.ibdiscord.command.CommandContext;
+import com.ibdiscord.command.abstractions.PaginatedCommand;
+import com.ibdiscord.pagination.Page;
+import com.ibdiscord.pagination.Pagination;
+import com.ibdiscord.rolejob.RoleJob;
+import com.ibdiscord.rolejob.RoleJobHandler;
+import com.ibdiscord.rolejob.RoleJobState;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.Role;
+
+import java.util.List;
+
+public final class RoleJobList extends PaginatedCommand<RoleJob> {
+
+    /**
+     * Gets the pagination of the role jobs.
+     * @param context The command context.
+     * @return The pagination.
+     */
+    @Override
+    protected Pagination<RoleJob> getPagination(CommandContext context) {
+        List<RoleJob> jobs = RoleJobHandler.INSTANCE.getJobs(context.getGuild());
+        return new Pagination<>(jobs, 10);
+    }
+
+    /**
+     * Formats the job into the embed.
+     * @param context The context.
+     * @param embedBuilder The embed builder.
+     * @param page The page.
+     */
+    @Override
+    protected void handle(CommandContext context, EmbedBuilder embedBuilder, Page<RoleJob> page) {
+        RoleJob job = page.getValue();
+        String title = __(context, "info.role_job_title",
+                job.getType(),
+                name(context, context.getGuild().getRoleById(job.getSource())),
+                name(context, context.getGuild().getRoleById(job.getTarget())),
+                String.valueOf(job.getId())
+        );
+        String state = __(context, "info.role_job_" + job.getState().name().toLowerCase());
+        long eta = job.getEta();
+        String progress = job.getState() == RoleJobState.RUNNING && eta >= 0
+                ? __(context, "info.role_job_progress_eta", state, job.getDone(), job.getTotal(), job.getFailed(),
+                        eta / 1000)
+                : __(context, "info.role_job_progress", state, job.getDone(), job.getTotal(), job.getFailed());
+        embedBuilder.addField(title, progress, false);
+    }
+
+    /**
+     * Adds a description.
+     * @param context The context.
+     * @param embedBuilder The embed builder.
+     */
+    @Override
+    protected void tweak(CommandContext context, EmbedBuilder embedBuilder) {
+        embedBuilder.setDescription(__(context, "info.role_job_list"));
+    }
+
+    /**
+     * Gets the name of a role that may have been deleted.
+     * @param context The context.
+     * @param role The role, or null.
+     * @return The name.
+     */
+    private String name(CommandContext context, Role role) {
+        return role == null ? __(context, "info.role_job_deleted_role") : role.getName();
+    }
+
+}
@@ -18,10 +18,28 @@
 
 package com.ibdiscord.command.registrar;
 
+import com.ibdiscord.IBai;
+import com.ibdiscord.command.CommandExecutor;
+import com.ibdiscord.command.CommandStatistics;
 import com.ibdiscord.command.actions.Eval;
 import com.ibdiscord.command.permission.CommandPermission;
 import com.ibdiscord.command.registry.CommandRegistrar;
 import com.ibdiscord.command.registry.CommandRegistry;
+import com.ibdiscord.delivery.DeliveryQueue;
+import com.ibdiscord.helper.HelperMessageHandler;
+import com.ibdiscord.index.GuildCounters;
+import com.ibdiscord.index.IndexHandler;
+import com.ibdiscord.listeners.EventPartition;
+import com.ibdiscord.punish.AuditCorrelator;
+import com.ibdiscord.react.ReactionRoleBuffer;
+import com.ibdiscord.react.ReactionRoleHandler;
+import com.ibdiscord.utils.scheduler.Scheduler;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.Guild;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 
 public final class RegistrarDeveloper implements CommandRegistrar {
 
@@ -34,6 +52,125 @@ public final class RegistrarDeveloper implements CommandRegistrar {
         registry.define("eval")
                 .restrict(CommandPermission.developer(CommandPermission.discord()))
                 .on(new Eval());
+
+        registry.define("deliveries")
+                .restrict(CommandPermission.developer(CommandPermission.discord()))
+                .on(context -> context.replyRaw(String.format("Pending: %d, delivered: %d, failed: %d, deferred: %d",
+                        DeliveryQueue.INSTANCE.getPending(),
+                        DeliveryQueue.INSTANCE.getDelivered(),
+                        DeliveryQueue.INSTANCE.getFailed(),
+                        DeliveryQueue.INSTANCE.getDeferred()
+                )));
+
+        registry.define("scheduler")
+                .restrict(CommandPermission.developer(CommandPermission.discord()))
+                .on(context -> context.replyRaw(String.format("Pending: %d, executed: %d, "
+                                + "average lateness: %dms, max lateness: %dms",
+                        Scheduler.INSTANCE.getPending(),
+                        Scheduler.INSTANCE.getExecuted(),
+                        Scheduler.INSTANCE.getAverageLateness(),
+                        Scheduler.INSTANCE.getMaxLateness()
+                )));
+
+        registry.define("stats")
+                .restrict(CommandPermission.developer(CommandPermission.discord()))
+                .on(context -> {
+                    EmbedBuilder embedBuilder = new EmbedBuilder();
+                    embedBuilder.setTitle("Command statistics");
+                    embedBuilder.setDescription(String.format("Queued: %d, rejected: %d",
+                            CommandExecutor.INSTANCE.getQueued(),
+                            CommandExecutor.INSTANCE.getRejected()
+                    ));
+                    CommandExecutor.INSTANCE.getStatistics().entrySet().stream()
+                            .sorted(Comparator.comparingLong(
+                                    (Map.Entry<String, CommandStatistics> entry) -> entry.getValue().getExecutions()
+                            ).reversed())
+                            .limit(25)
+                            .forEach(entry -> {
+                                CommandStatistics statistics = entry.getValue();
+                                embedBuilder.addField(entry.getKey(), String.format(
+                                        "%d runs, %dms wait, %dms run, %dms max, %d timeouts",
+                                        statistics.getExecutions(),
+                                        statistics.getAverageWait(),
+                                        statistics.getAverageRun(),
+                                        statistics.getMaxRun(),
+                                        statistics.getTimeouts()
+                                ), false);
+                            });
+                    context.replyEmbed(embedBuilder.build());
+                });
+
+        registry.define("events")
+                .restrict(CommandPermission.developer(CommandPermission.discord()))
+                .on(context -> {
+                    EmbedBuilder embedBuilder = new EmbedBuilder();
+                    embedBuilder.setTitle("Event partitions");
+                    List<EventPartition> partitions = IBai.INSTANCE.getEventManager().getPartitions();
+                    for(int i = 0; i < partitions.size(); i++) {
+                        EventPartition partition = partitions.get(i);
+                        embedBuilder.addField("Partition " + i, String.format(
+                                "%d queued, %dms lag, %dms last lag, %d dispatched, %d dropped",
+                                partition.getDepth(),
+                                partition.getLag(),
+                                partition.getLastLag(),
+                                partition.getProcessed(),
+                                partition.getDropped()
+                        ), true);
+                    }
+                    context.replyEmbed(embedBuilder.build());
+                });
+
+        registry.define("audit")
+                .restrict(CommandPermission.developer(CommandPermission.discord()))
+                .on(context -> context.replyRaw(String.format("Pending: %d, fetches: %d, matched: %d, "
+                                + "unmatched: %d, average lag: %dms, max lag: %dms",
+                        AuditCorrelator.INSTANCE.getPending(),
+                        AuditCorrelator.INSTANCE.getFetches(),
+                        AuditCorrelator.INSTANCE.getMatched(),
+                        AuditCorrelator.INSTANCE.getUnmatched(),
+                        AuditCorrelator.INSTANCE.getAverageLag(),
+                        AuditCorrelator.INSTANCE.getMaxLag()
+                )));
+
+        registry.define("helperstats")
+                .restrict(CommandPermission.developer(CommandPermission.discord()))
+                .on(context -> context.replyRaw(String.format("Helper role changes: %d, message edits: %d",
+                        HelperMessageHandler.INSTANCE.getChanges(),
+                        HelperMessageHandler.INSTANCE.getEdits()
+                )));
+
+        registry.define("reactstats")
+                .restrict(CommandPermission.developer(CommandPermission.discord()))
+                .on(context -> context.replyRaw(String.format("Reaction role messages: %d, "
+                                + "reactions skipped without a lookup: %d, role updates: %d, requests sent: %d",
+                        ReactionRoleHandler.INSTANCE.getMessages(),
+                        ReactionRoleHandler.INSTANCE.getSkipped(),
+                        ReactionRoleBuffer.INSTANCE.getUpdates(),
+                        ReactionRoleBuffer.INSTANCE.getRequests()
+                )));
+
+        registry.define("counters")
+                .restrict(CommandPermission.developer(CommandPermission.discord()))
+                .on(context -> {
+                    long members = 0;
+                    long bots = 0;
+                    long online = 0;
+                    for(Guild guild : context.getJda().getGuilds()) {
+                        GuildCounters counters = IndexHandler.INSTANCE.getCounters(guild);
+                        members += counters.getMembers();
+                        bots += counters.getBots();
+                        online += counters.getOnline();
+                    }
+                    context.replyRaw(String.format("Members: %d, bots: %d, online: %d, indexed guilds: %d, "
+                                    + "last drift: %d, last reconciled: %ds ago",
+                            members,
+                            bots,
+                            online,
+                            IndexHandler.INSTANCE.getIndexed(),
+                            IndexHandler.INSTANCE.getLastDrift(),
+                            (System.currentTimeMillis() - IndexHandler.INSTANCE.getLastReconciled()) / 1000
+                    ));
+                });
     }
 
 }
@@ -41,8 +41,13 @@ import com.ibdiscord.data.db.entries.voting.VoteLaddersData;
 import com.ibdiscord.punish.Punishment;
 import com.ibdiscord.punish.PunishmentExpiry;
 import com.ibdiscord.punish.PunishmentHandler;
+import com.ibdiscord.punish.PunishmentStats;
+import com.ibdiscord.rolejob.RoleJob;
+import com.ibdiscord.rolejob.RoleJobHandler;
+import com.ibdiscord.rolejob.RoleJobType;
 import com.ibdiscord.utils.UFormatter;
 import com.ibdiscord.utils.UInput;
+import com.ibdiscord.utils.UMember;
 import com.ibdiscord.utils.UString;
 import com.ibdiscord.vote.VoteEntry;
 import com.ibdiscord.vote.VoteLadder;
@@ -51,13 +56,13 @@ import de.arraying.gravity.data.property.Property;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.*;
-import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.RestAction;
 
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static com.ibdiscord.data.db.entries.punish.PunishmentData.*;
@@ -78,14 +83,20 @@ public final class RegistrarMod implements CommandRegistrar {
                             null,
                             null,
                             "error.blacklist_id");
-                    if(context.getGuild().getMemberById(id) != null) { // Don't ban present users.
-                        context.replyI18n("error.blacklist_present");
-                        return;
-                    }
-                    context.getGuild().ban(String.valueOf(id), 0).reason("Blacklisted.").queue(
-                        success -> context.replyI18n("success.blacklist"),
-                        fail -> context.replyI18n("error.blacklist_fail")
-                    );
+                    UMember.retrieveMember(context.getGuild(), String.valueOf(id)).whenComplete((member, error) -> {
+                        if(error != null) { // Whether they are present is unknown, so don't ban.
+                            context.replyI18n("error.member_lookup");
+                            return;
+                        }
+                        if(member != null) { // Don't ban present users.
+                            context.replyI18n("error.blacklist_present");
+                            return;
+                        }
+                        context.getGuild().ban(String.valueOf(id), 0).reason("Blacklisted.").queue(
+                            success -> context.replyI18n("success.blacklist"),
+                            fail -> context.replyI18n("error.blacklist_fail")
+                        );
+                    });
                 });
 
         Command commandChannelOrder = registry.define("channelorder")
@@ -125,14 +136,9 @@ public final class RegistrarMod implements CommandRegistrar {
                         return;
                     }
                     ExpiryData expiryData = gravity.load(new ExpiryData(guildId));
-                    Punishment punishment = Punishment.of(context.getGuild(), caseNumber);
-                    ScheduledFuture<?> scheduled = PunishmentExpiry.INSTANCE.getFor(caseNumber);
-                    if(scheduled != null) {
-                        scheduled.cancel(true);
-                    }
-                    PunishmentExpiry.INSTANCE.schedule(context.getGuild(), caseNumber, delay, punishment);
                     expiryData.set(caseNumber, expires);
                     gravity.save(expiryData);
+                    PunishmentExpiry.INSTANCE.schedule(context.getGuild(), caseNumber, expires);
                     context.replyI18n("success.expire");
                 });
 
@@ -157,6 +163,10 @@ public final class RegistrarMod implements CommandRegistrar {
         registry.define("giverole")
                 .restrict(CommandPermission.discord(Permission.MANAGE_SERVER))
                 .on(context -> {
+                    if(!RoleJobHandler.INSTANCE.isAvailable()) {
+                        context.replyI18n("error.role_job_member_cache");
+                        return;
+                    }
                     List<Role> roles = context.getMessage().getMentionedRoles();
                     if(roles.isEmpty()) {
                         context.replyI18n("error.role_empty");
@@ -166,11 +176,47 @@ public final class RegistrarMod implements CommandRegistrar {
                         return;
                     }
 
-                    Collection<Member> members = context.getGuild().getMembersWithRoles(roles.get(0));
-                    members.forEach(member -> context.getGuild().addRoleToMember(member, roles.get(1)).queue());
-                    context.replyI18n("success.give_role", members.size());
+                    RoleJob job = RoleJobHandler.INSTANCE.create(context.getGuild(),
+                            RoleJobType.GIVE,
+                            roles.get(0),
+                            roles.get(1)
+                    );
+                    context.replyI18n("success.role_job_created", job.getId(), job.getTotal());
                 });
 
+        Command commandRoleJob = registry.define("rolejob")
+                .restrict(CommandPermission.discord(Permission.MANAGE_SERVER))
+                .sub(registry.sub("cancel", "rolejob_cancel")
+                        .on(context -> {
+                            context.assertArguments(1, "error.role_job_id");
+                            int id = context.assertInt(context.getArguments()[0], 1, null, "error.role_job_id");
+                            if(!RoleJobHandler.INSTANCE.cancel(context.getGuild(), id)) {
+                                context.replyI18n("error.role_job_id");
+                                return;
+                            }
+                            context.replyI18n("success.done");
+                        })
+                )
+                .sub(registry.sub("list", "generic_list")
+                        .on(new RoleJobList())
+                )
+                .sub(registry.sub("resume", "rolejob_resume")
+                        .on(context -> {
+                            if(!RoleJobHandler.INSTANCE.isAvailable()) {
+                                context.replyI18n("error.role_job_member_cache");
+                                return;
+                            }
+                            context.assertArguments(1, "error.role_job_id");
+                            int id = context.assertInt(context.getArguments()[0], 1, null, "error.role_job_id");
+                            if(!RoleJobHandler.INSTANCE.resume(context.getGuild(), id)) {
+                                context.replyI18n("error.role_job_id");
+                                return;
+                            }
+                            context.replyI18n("success.done");
+                        })
+                );
+        commandRoleJob.on(context -> context.replySyntax(commandRoleJob));
+
         registry.define("lookup")
                 .restrict(CommandPermission.role(GuildData.MODERATOR))
                 .on(context -> {
@@ -394,26 +440,26 @@ public final class RegistrarMod implements CommandRegistrar {
                     }))
                 .sub(registry.sub("react", "react")
                     .restrict(CommandPermission.discord(Permission.MESSAGE_MANAGE))
-                    .on(context -> {
+                    .onAsync(context -> {
                         context.assertArguments(3, "error.generic_arg_length");
                         if (context.getMessage().getMentionedChannels().size() < 1) {
                             context.replyI18n("error.missing_channel");
-                            return;
+                            return CompletableFuture.completedFuture(null);
                         }
                         TextChannel channel = context.getMessage().getMentionedChannels().get(0);
-                        Message message;
+                        RestAction<Message> retrieval;
                         try {
-                            message = channel.retrieveMessageById(context.getArguments()[1]).complete();
+                            retrieval = channel.retrieveMessageById(context.getArguments()[1]);
                         } catch (IllegalArgumentException e) {
                             context.replyI18n("error.reaction_message");
-                            return;
-                        }
-                        if (context.getMessage().getEmotes().size() == 0) {
-                            message.clearReactions(context.getArguments()[2]).queue();
-                        } else {
-                            message.clearReactions(context.getMessage().getEmotes().get(0)).queue();
+                            return CompletableFuture.completedFuture(null);
                         }
-                        context.replyI18n("success.done");
+                        return retrieval
+                                .flatMap(message -> context.getMessage().getEmotes().size() == 0
+                                        ? message.clearReactions(context.getArguments()[2])
+                                        : message.clearReactions(context.getMessage().getEmotes().get(0)))
+                                .submit()
+                                .thenRun(() -> context.replyI18n("success.done"));
                     }));
         commandPurge.on(context -> context.replySyntax(commandPurge));
 
@@ -468,25 +514,39 @@ public final class RegistrarMod implements CommandRegistrar {
                 .restrict(CommandPermission.role(GuildData.MODERATOR))
                 .on(new History());
 
+        registry.define("modstats")
+                .restrict(CommandPermission.role(GuildData.MODERATOR))
+                .sub(registry.sub("backfill", "modstats_backfill")
+                        .restrict(CommandPermission.discord(Permission.MANAGE_SERVER))
+                        .on(context -> context.replyI18n("success.modstats_backfill",
+                                PunishmentStats.INSTANCE.backfill(context.getGuild())))
+                )
+                .on(new ModStats());
+
+        registry.define("caseexport")
+                .restrict(CommandPermission.role(GuildData.MODERATOR))
+                .onAsync(new CaseExport());
+
         registry.define("vote")
                 .restrict(CommandPermission.role(GuildData.MODERATOR))
-                .on(context -> {
+                .onAsync(context -> {
                     context.assertArguments(2, "error.generic_arg_length");
                     String ladder = context.getArguments()[0].toLowerCase();
                     Gravity gravity = DataContainer.INSTANCE.getGravity();
                     VoteLaddersData laddersData = gravity.load(new VoteLaddersData(context.getGuild().getId()));
                     if(!laddersData.contains(ladder)) {
                         context.replyI18n("error.ladder_noexist");
-                        return;
+                        return CompletableFuture.completedFuture(null);
                     }
                     String text = UString.concat(context.getArguments(), " ", 1);
                     VoteLadder voteLadder = new VoteLadder(context.getGuild(), ladder);
-                    VoteEntry voteEntry = voteLadder.createVote(text);
-                    if(voteEntry == null) {
-                        context.replyI18n("error.vote_create");
-                        return;
-                    }
-                    context.replyI18n("success.vote_create", voteEntry.getId());
+                    return voteLadder.createVote(text).thenAccept(voteEntry -> {
+                        if(voteEntry == null) {
+                            context.replyI18n("error.vote_create");
+                            return;
+                        }
+                        context.replyI18n("success.vote_create", voteEntry.getId());
+                    });
                 });
 
         Command commandVoteLadder = registry.define("voteladder")
@@ -565,7 +625,7 @@ public final class RegistrarMod implements CommandRegistrar {
                         .on(new Logging(GuildData.UPDATES)))
                 .sub(registry.sub("create", "generic_create")
                         .restrict(CommandPermission.role(GuildData.MODERATOR))
-                        .on(context -> {
+                        .onAsync(context -> {
                             context.assertArguments(1, "error.missing_data");
                             List<String> updates = UInput.extractQuotedStrings(context.getArguments());
                             if (updates.isEmpty()) {
@@ -577,61 +637,62 @@ public final class RegistrarMod implements CommandRegistrar {
                                     .getTextChannelById(guildData.get(GuildData.UPDATES).defaulting(0L).asLong());
                             if (channel == null) {
                                 context.replyI18n("error.reason_logging");
-                                return;
+                                return CompletableFuture.completedFuture(null);
                             }
                             String newUpdates = updates.stream()
                                     .map(s -> String.format("- %s", s))
                                     .collect(Collectors.joining("\n"));
 
                             GregorianCalendar cal = new GregorianCalendar();
-                            List<Message> history = channel.getHistory().retrievePast(1).complete();
-                            if (!history.isEmpty()) {
-                                Message message = history.get(0);
-                                LocalDate messageDate = message.getTimeCreated().toLocalDate();
-                                if (message.getAuthor().isBot()
-                                        && cal.get(GregorianCalendar.DAY_OF_YEAR) == messageDate.getDayOfYear()) {
-                                    StringBuilder builder = new StringBuilder(message.getContentRaw());
-                                    builder.append("\n").append(newUpdates);
-                                    message.editMessage(builder.toString()).queue();
-                                    context.replyI18n("success.done");
-                                    return;
+                            return channel.getHistory().retrievePast(1).submit().thenAccept(history -> {
+                                if (!history.isEmpty()) {
+                                    Message message = history.get(0);
+                                    LocalDate messageDate = message.getTimeCreated().toLocalDate();
+                                    if (message.getAuthor().isBot()
+                                            && cal.get(GregorianCalendar.DAY_OF_YEAR) == messageDate.getDayOfYear()) {
+                                        StringBuilder builder = new StringBuilder(message.getContentRaw());
+                                        builder.append("\n").append(newUpdates);
+                                        message.editMessage(builder.toString()).queue();
+                                        context.replyI18n("success.done");
+                                        return;
+                                    }
                                 }
-                            }
 
 
-                            StringBuilder builder = new StringBuilder();
-                            builder.append("**");
-                            int dayOfMonth = cal.get(GregorianCalendar.DAY_OF_MONTH);
-                            builder.append(dayOfMonth);
-                            if (dayOfMonth >= 11 && dayOfMonth <= 13) {
-                                builder.append("th");
-                            } else {
-                                switch (dayOfMonth % 10) {
-                                    case 1:
-                                        builder.append("st");
-                                        break;
-                                    case 2:
-                                        builder.append("nd");
-                                        break;
-                                    case 3:
-                                        builder.append("rd");
-                                        break;
-                                    default:
-                                        builder.append("th");
+                                StringBuilder builder = new StringBuilder();
+                                builder.append("**");
+                                int dayOfMonth = cal.get(GregorianCalendar.DAY_OF_MONTH);
+                                builder.append(dayOfMonth);
+                                if (dayOfMonth >= 11 && dayOfMonth <= 13) {
+                                    builder.append("th");
+                                } else {
+                                    switch (dayOfMonth % 10) {
+                                        case 1:
+                                            builder.append("st");
+                                            break;
+                                        case 2:
+                                            builder.append("nd");
+                                            break;
+                                        case 3:
+                                            builder.append("rd");
+                                            break;
+                                        default:
+                                            builder.append("th");
+                                    }
                                 }
-                            }
-                            builder.append(" of ");
-                            SimpleDateFormat formatter = new SimpleDateFormat("MMMM, yyyy");
-                            formatter.setCalendar(cal);
-                            builder.append(formatter.format(cal.getTime()));
-                            builder.append("**\n");
-                            builder.append(newUpdates);
-                            channel.sendMessage(builder.toString()).queue();
-                            context.replyI18n("success.done");
+                                builder.append(" of ");
+                                SimpleDateFormat formatter = new SimpleDateFormat("MMMM, yyyy");
+                                formatter.setCalendar(cal);
+                                builder.append(formatter.format(cal.getTime()));
+                                builder.append("**\n");
+                                builder.append(newUpdates);
+                                channel.sendMessage(builder.toString()).queue();
+                                context.replyI18n("success.done");
+                            });
                         }))
                 .sub(registry.sub("delete", "generic_delete")
                         .restrict(CommandPermission.role(GuildData.MODERATOR))
-                        .on(context -> {
+                        .onAsync(context -> {
                             context.assertArguments(1, "error.missing_messageid");
                             GuildData guildData = DataContainer.INSTANCE.getGravity()
                                     .load(new GuildData(context.getGuild().getId()));
@@ -639,42 +700,39 @@ public final class RegistrarMod implements CommandRegistrar {
                                     .getTextChannelById(guildData.get(GuildData.UPDATES).defaulting(0L).asLong());
                             if (channel == null) {
                                 context.replyI18n("error.reason_logging");
-                                return;
-                            }
-                            Message message;
-                            try {
-                                message = channel.retrieveMessageById(context.getArguments()[0]).complete();
-                                if (message == null) {
-                                    context.replyI18n("error.pin_channel");
-                                    return;
-                                }
-                            } catch(ErrorResponseException e) {
-                                context.replyI18n("error.pin_channel");
-                                return;
+                                return CompletableFuture.completedFuture(null);
                             }
                             context.assertArguments(2, "error.missing_number");
                             int index = context.assertInt(context.getArguments()[1], 1, Integer.MAX_VALUE,
                                     "error.missing_number");
-                            String[] entries = message.getContentRaw().split("\n");
-                            if (entries.length <= index) {
-                                context.replyI18n("error.invalid_data");
-                                return;
-                            }
-
-                            if (entries.length - 1 == 1) {
-                                message.delete().queue();
-                            } else {
-                                StringBuilder builder = new StringBuilder();
-                                for (int i = 0; i < entries.length; i++) {
-                                    if (i == index) {
-                                        continue;
-                                    }
+                            return channel.retrieveMessageById(context.getArguments()[0]).submit()
+                                    .handle((message, error) -> {
+                                        if (error != null || message == null) {
+                                            context.replyI18n("error.pin_channel");
+                                            return null;
+                                        }
+                                        String[] entries = message.getContentRaw().split("\n");
+                                        if (entries.length <= index) {
+                                            context.replyI18n("error.invalid_data");
+                                            return null;
+                                        }
 
-                                    builder.append(entries[i]).append("\n");
-                                }
-                                message.editMessage(builder.substring(0, builder.length())).queue();
-                            }
-                            context.replyI18n("success.done");
+                                        if (entries.length - 1 == 1) {
+                                            message.delete().queue();
+                                        } else {
+                                            StringBuilder builder = new StringBuilder();
+                                            for (int i = 0; i < entries.length; i++) {
+                                                if (i == index) {
+                                                    continue;
+                                                }
+
+                                                builder.append(entries[i]).append("\n");
+                                            }
+                                            message.editMessage(builder.substring(0, builder.length())).queue();
+                                        }
+                                        context.replyI18n("success.done");
+                                        return null;
+                                    });
                         }));
     }
 
@@ -29,6 +29,9 @@ import com.ibdiscord.data.db.entries.GuildData;
 import com.ibdiscord.data.db.entries.ReplyData;
 import com.ibdiscord.data.db.entries.react.EmoteData;
 import com.ibdiscord.data.db.entries.react.ReactionData;
+import com.ibdiscord.rolejob.RoleJob;
+import com.ibdiscord.rolejob.RoleJobHandler;
+import com.ibdiscord.rolejob.RoleJobType;
 import de.arraying.gravity.Gravity;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.*;
@@ -164,6 +167,10 @@ public final class RegistrarSys implements CommandRegistrar {
         registry.define("roleswap")
                 .restrict(CommandPermission.discord(Permission.MANAGE_SERVER))
                 .on(context -> {
+                    if(!RoleJobHandler.INSTANCE.isAvailable()) {
+                        context.replyI18n("error.role_job_member_cache");
+                        return;
+                    }
                     List<Role> roles = context.getMessage().getMentionedRoles();
                     if(roles.isEmpty()) {
                         context.replyI18n("error.swap_empty");
@@ -173,12 +180,12 @@ public final class RegistrarSys implements CommandRegistrar {
                         return;
                     }
 
-                    List<Member> members = context.getGuild().getMembersWithRoles(roles.get(0));
-                    members.forEach(member ->
-                            context.getGuild().modifyMemberRoles(member,
-                                    roles.subList(1,2),
-                                    roles.subList(0,1)).queue());
-                    context.replyI18n("success.swap_role", members.size());
+                    RoleJob job = RoleJobHandler.INSTANCE.create(context.getGuild(),
+                            RoleJobType.SWAP,
+                            roles.get(0),
+                            roles.get(1)
+                    );
+                    context.replyI18n("success.role_job_created", job.getId(), job.getTotal());
                 });
 
         Command commandTag = registry.define("tag") // Explicitly state it to allow cross referencing.
@@ -35,6 +35,8 @@ import com.ibdiscord.i18n.EmbedBuilderI18n;
 import com.ibdiscord.i18n.Locale;
 import com.ibdiscord.i18n.LocaliserHandler;
 import com.ibdiscord.i18n.StringI18n;
+import com.ibdiscord.index.GuildCounters;
+import com.ibdiscord.index.IndexHandler;
 import com.ibdiscord.input.InputHandler;
 import com.ibdiscord.input.embed.EmbedDescriptionInput;
 import com.ibdiscord.reminder.Reminder;
@@ -46,7 +48,6 @@ import de.arraying.gravity.Gravity;
 import de.arraying.kotys.JSON;
 import de.arraying.kotys.JSONArray;
 import net.dv8tion.jda.api.EmbedBuilder;
-import net.dv8tion.jda.api.OnlineStatus;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.*;
 
@@ -261,10 +262,11 @@ public final class RegistrarUtil implements CommandRegistrar {
 
         //noinspection CodeBlock2Expr
         registry.define("ping")
-                .on(context -> {
-                    context.replyI18n("info.latency",
-                            context.getJda().getRestPing().complete(),
-                            context.getJda().getGatewayPing());
+                .onAsync(context -> {
+                    return context.getJda().getRestPing().submit().thenAccept(restPing ->
+                            context.replyI18n("info.latency",
+                                    restPing,
+                                    context.getJda().getGatewayPing()));
                 });
 
         Command commandReminder = registry.define("reminder")
@@ -282,13 +284,9 @@ public final class RegistrarUtil implements CommandRegistrar {
                 .sub(registry.sub("delete", "generic_delete")
                         .on(context -> {
                             context.assertArguments(1, "error.reminderid");
-                            List<Reminder> reminders = ReminderHandler.INSTANCE.getFor(context.getMember().getUser())
-                                    .stream()
-                                    .filter(it -> !it.isCompleted())
-                                    .collect(Collectors.toList());
                             String id = context.getArguments()[0];
-                            Reminder reminder = reminders.stream()
-                                    .filter(it -> !it.isCompleted())
+                            Reminder reminder = ReminderHandler.INSTANCE.getFor(context.getMember().getUser())
+                                    .stream()
                                     .filter(it -> String.valueOf(it.getId()).equals(id))
                                     .findFirst()
                                     .orElse(null);
@@ -308,6 +306,9 @@ public final class RegistrarUtil implements CommandRegistrar {
         registry.define("serverinfo")
                 .on(context -> {
                     Guild guild = context.getGuild();
+                    boolean memberCache = IBai.INSTANCE.getConfig().isFeatureMemberCache();
+                    boolean presences = IBai.INSTANCE.getConfig().isFeaturePresences();
+                    GuildCounters counters = IndexHandler.INSTANCE.getCounters(guild);
 
                     @SuppressWarnings("ConstantConditions")
                     EmbedBuilderI18n embedBuilder = new EmbedBuilderI18n(context)
@@ -327,29 +328,25 @@ public final class RegistrarUtil implements CommandRegistrar {
                                     true
                             )
                             .addField(new StringI18n("info.number_members"),
-                                    new StringI18n(null, guild.getMembers().size()),
+                                    new StringI18n(null, guild.getMemberCount()),
                                     true
                             )
                             .addField(new StringI18n("info.number_bots"),
-                                    new StringI18n(null, guild.getMembers().stream()
-                                            .filter(it -> it.getUser().isBot())
-                                            .count()),
+                                    new StringI18n(null, memberCache ? counters.getBots() : "-"),
                                     true
                             )
                             .addField(new StringI18n("info.number_online"),
-                                    new StringI18n(null, guild.getMembers().stream()
-                                            .filter(it -> it.getOnlineStatus() != OnlineStatus.OFFLINE)
-                                            .count()),
+                                    new StringI18n(null, presences ? counters.getOnline() : "-"),
                                     true
                             )
                             .addField(new StringI18n("info.number_roles"),
-                                    new StringI18n(null, guild.getRoles().size()),
+                                    new StringI18n(null, guild.getRoleCache().size()),
                                     true
                             )
                             .addField(new StringI18n("info.number_channels"),
-                                    new StringI18n(null, guild.getVoiceChannels().size()
-                                            + guild.getTextChannels().size()
-                                            + guild.getCategories().size()),
+                                    new StringI18n(null, guild.getVoiceChannelCache().size()
+                                            + guild.getTextChannelCache().size()
+                                            + guild.getCategoryCache().size()),
                                     true
                             );
                     context.replyEmbed(embedBuilder.build());
@@ -359,19 +356,15 @@ public final class RegistrarUtil implements CommandRegistrar {
                 .on(context -> {
                     Member target = context.assertMemberArgument("error.unknown_user");
                     User user = target.getUser();
-                    int joinPosition = context.getGuild().getMembers().stream()
-                            .sorted((o1, o2) -> {
-                                long a = o1.getTimeJoined().toInstant().toEpochMilli();
-                                long b = o2.getTimeJoined().toInstant().toEpochMilli();
-                                return Long.compare(a, b);
-                            })
-                            .collect(Collectors.toList())
-                            .indexOf(target) + 1;
+                    int joinPosition = IndexHandler.INSTANCE.get(context.getGuild()).getJoinPosition(target);
                     String joinOverride = DataContainer.INSTANCE.getGravity()
                             .load(new GuildUserData(context.getGuild().getId(), user.getId()))
                             .get("position")
                             .asString();
-                    Activity activity = target.getActivities().size() == 0 ? null : target.getActivities().get(0);
+                    boolean presences = IBai.INSTANCE.getConfig().isFeaturePresences();
+                    Activity activity = !presences || target.getActivities().size() == 0
+                            ? null
+                            : target.getActivities().get(0);
 
                     EmbedBuilderI18n embedBuilder = new EmbedBuilderI18n(context)
                             .setAuthor(new StringI18n(null, user.getAsTag()),
@@ -387,7 +380,7 @@ public final class RegistrarUtil implements CommandRegistrar {
                                     true
                             )
                             .addField(new StringI18n("info.user_online"),
-                                    new StringI18n(null, target.getOnlineStatus().toString()),
+                                    new StringI18n(null, presences ? target.getOnlineStatus().toString() : "-"),
                                     true
                             )
                             .addField(new StringI18n("info.user_status"),
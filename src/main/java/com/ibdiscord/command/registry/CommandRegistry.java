@@ -19,16 +19,16 @@
 package com.ibdiscord.command.registry;
 
 import com.ibdiscord.command.Command;
-import com.ibdiscord.i18n.LocaliserHandler;
-import com.ibdiscord.utils.UCommand;
 import com.ibdiscord.utils.objects.Comparator;
 
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.TreeSet;
 
 public final class CommandRegistry {
 
     private final TreeSet<Command> commands = new TreeSet<>(new Comparator());
+    private volatile Map<String, Command> index = new HashMap<>();
 
     /**
      * Defines a command.
@@ -37,8 +37,9 @@ public final class CommandRegistry {
      * @return A command object.
      */
     public Command define(String name) {
-        Command command = new Command(name, LocaliserHandler.INSTANCE.getCommandAliases(name));
+        Command command = new Command(name, name);
         commands.add(command);
+        reindex();
         return command;
     }
 
@@ -49,9 +50,7 @@ public final class CommandRegistry {
      * @return A command object.
      */
     public Command sub(String name, String aliases) {
-        return new Command(name, aliases == null
-                ? new HashSet<>()
-                : LocaliserHandler.INSTANCE.getCommandAliases(aliases));
+        return new Command(name, aliases);
     }
 
     /**
@@ -60,7 +59,28 @@ public final class CommandRegistry {
      * @return A command, or null if it could not be found.
      */
     public Command query(String name) {
-        return UCommand.query(commands, name);
+        return index.get(name.toLowerCase());
+    }
+
+    /**
+     * Reloads the aliases of every command from the currently loaded languages and rebuilds the lookup index.
+     */
+    public void reloadAliases() {
+        commands.forEach(Command::reloadAliases);
+        reindex();
+    }
+
+    /**
+     * Rebuilds the name and alias lookup index and swaps it in.
+     * Commands are visited in alphabetical order and the first one to claim a name wins.
+     */
+    private void reindex() {
+        Map<String, Command> fresh = new HashMap<>();
+        for(Command command : commands) {
+            fresh.putIfAbsent(command.getName(), command);
+            command.getAliases().forEach(alias -> fresh.putIfAbsent(alias, command));
+        }
+        index = fresh;
     }
 
 }
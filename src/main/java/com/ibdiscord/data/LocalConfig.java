@@ -103,6 +103,71 @@ public final class LocalConfig {
      */
     @Getter private final List<Long> optBlacklist;
 
+    /**
+     * COMMAND_WORKERS.
+     */
+    @Getter private final int commandWorkers;
+
+    /**
+     * COMMAND_QUEUE_LIMIT.
+     */
+    @Getter private final int commandQueueLimit;
+
+    /**
+     * COMMAND_BUDGET.
+     */
+    @Getter private final long commandBudget;
+
+    /**
+     * EVENT_PARTITIONS.
+     */
+    @Getter private final int eventPartitions;
+
+    /**
+     * EVENT_QUEUE_LIMIT.
+     */
+    @Getter private final int eventQueueLimit;
+
+    /**
+     * REMINDER_HORIZON.
+     */
+    @Getter private final long reminderHorizon;
+
+    /**
+     * DELIVERY_QUEUE_LIMIT.
+     */
+    @Getter private final int deliveryQueueLimit;
+
+    /**
+     * STARTUP_TRAINING.
+     */
+    @Getter private final boolean startupTraining;
+
+    /**
+     * FEATURE_PRESENCES.
+     */
+    @Getter private final boolean featurePresences;
+
+    /**
+     * FEATURE_MEMBER_CACHE.
+     */
+    @Getter private final boolean featureMemberCache;
+
+    /**
+     * MEMBER_LRU_SIZE.
+     */
+    @Getter private final int memberLruSize;
+
+    /**
+     * COUNTER_RECONCILE.
+     */
+    @Getter private final long counterReconcile;
+
+    /**
+     * ROLE_JOB_INTERVAL.
+     */
+    @Getter private final long roleJobInterval;
+
     /**
      * Constructor for the local configuration object.
      * Sets all of the class properties to their corresponding environment
@@ -134,6 +199,21 @@ public final class LocalConfig {
         this.sensitiveRoles = getEnvironment("SENSITIVE_ROLES", lambdaMapId, new ArrayList<>());
         this.optCategories = getEnvironment("OPT_CATEGORIES", lambdaMapId, new ArrayList<>());
         this.optBlacklist = getEnvironment("OPT_BLACKLIST", lambdaMapId, new ArrayList<>());
+        this.commandWorkers = getEnvironment("COMMAND_WORKERS", Integer::valueOf,
+                Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+        this.commandQueueLimit = getEnvironment("COMMAND_QUEUE_LIMIT", Integer::valueOf, 500);
+        this.commandBudget = getEnvironment("COMMAND_BUDGET", Long::valueOf, 30L);
+        this.eventPartitions = getEnvironment("EVENT_PARTITIONS", Integer::valueOf,
+                Runtime.getRuntime().availableProcessors());
+        this.eventQueueLimit = getEnvironment("EVENT_QUEUE_LIMIT", Integer::valueOf, 10000);
+        this.reminderHorizon = getEnvironment("REMINDER_HORIZON", Long::valueOf, 60L);
+        this.deliveryQueueLimit = getEnvironment("DELIVERY_QUEUE_LIMIT", Integer::valueOf, 1000);
+        this.startupTraining = getEnvironment("STARTUP_TRAINING", Boolean::valueOf, false);
+        this.featurePresences = getEnvironment("FEATURE_PRESENCES", Boolean::valueOf, false);
+        this.featureMemberCache = getEnvironment("FEATURE_MEMBER_CACHE", Boolean::valueOf, true);
+        this.memberLruSize = getEnvironment("MEMBER_LRU_SIZE", Integer::valueOf, 5000);
+        this.counterReconcile = getEnvironment("COUNTER_RECONCILE", Long::valueOf, 30L);
+        this.roleJobInterval = getEnvironment("ROLE_JOB_INTERVAL", Long::valueOf, 1000L);
     }
 
     /**
@@ -19,13 +19,19 @@
 package com.ibdiscord.data.db;
 
 import de.arraying.gravity.GravityProvider;
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.Range;
 import io.lettuce.core.RedisException;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.ValueScanCursor;
+import io.lettuce.core.api.async.RedisAsyncCommands;
 import io.lettuce.core.api.sync.RedisCommands;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 @SuppressWarnings("unchecked")
 public final class DataProvider implements GravityProvider {
@@ -69,6 +75,34 @@ public final class DataProvider implements GravityProvider {
         }
     }
 
+    /**
+     * Sets a key only if it does not exist yet.
+     * @param key The key.
+     * @param value The value.
+     */
+    public void setnx(String key, String value) {
+        try {
+            sync.setnx(key, value);
+        } catch(RedisException re) {
+            re.printStackTrace();
+        }
+    }
+
+    /**
+     * Atomically increments a key, starting from 0 if it does not exist.
+     * @param key The key.
+     * @return The incremented value, or 0 if the key could not be incremented.
+     */
+    public long incr(String key) {
+        long value = 0;
+        try {
+            value = sync.incr(key);
+        } catch(RedisException re) {
+            re.printStackTrace();
+        }
+        return value;
+    }
+
     @Override
     public String hget(String key, String property) {
         String value = null;
@@ -120,6 +154,26 @@ public final class DataProvider implements GravityProvider {
         return members;
     }
 
+    /**
+     * Gets the members of multiple sets at once.
+     * All commands are sent before any reply is awaited, so this takes a single round trip.
+     * @param keys The keys.
+     * @return A list of sets in the order of the keys, a set is empty if it does not exist.
+     * @throws RedisException If any set could not be read.
+     */
+    public List<Set<String>> smembers(List<String> keys) {
+        RedisAsyncCommands<String, String> async = DataContainer.INSTANCE.getConnection().async();
+        List<RedisFuture<Set<String>>> futures = new ArrayList<>();
+        for(String key : keys) {
+            futures.add(async.smembers(key));
+        }
+        List<Set<String>> sets = new ArrayList<>();
+        for(RedisFuture<Set<String>> future : futures) {
+            sets.add(await(future));
+        }
+        return sets;
+    }
+
     @Override
     public void sadd(String key, String value) {
         try {
@@ -129,6 +183,32 @@ public final class DataProvider implements GravityProvider {
         }
     }
 
+    /**
+     * Renames a key, replacing the destination atomically.
+     * @param key The key, which must exist.
+     * @param destination The new name.
+     */
+    public void rename(String key, String destination) {
+        try {
+            sync.rename(key, destination);
+        } catch(RedisException re) {
+            re.printStackTrace();
+        }
+    }
+
+    /**
+     * Removes a member from a set.
+     * @param key The key.
+     * @param value The member.
+     */
+    public void srem(String key, String value) {
+        try {
+            sync.srem(key, value);
+        } catch(RedisException re) {
+            re.printStackTrace();
+        }
+    }
+
     @Override
     public void ladd(String key, String value) {
         try {
@@ -149,4 +229,220 @@ public final class DataProvider implements GravityProvider {
         return range;
     }
 
+    /**
+     * Adds a member to a sorted set.
+     * @param key The key.
+     * @param score The score.
+     * @param value The member.
+     */
+    public void zadd(String key, double score, String value) {
+        try {
+            sync.zadd(key, score, value);
+        } catch(RedisException re) {
+            re.printStackTrace();
+        }
+    }
+
+    /**
+     * Removes a member from a sorted set.
+     * @param key The key.
+     * @param value The member.
+     * @return True if the member was removed by this call, false if it was not in the set or could not be removed.
+     */
+    public boolean zrem(String key, String value) {
+        boolean removed = false;
+        try {
+            removed = sync.zrem(key, value) > 0;
+        } catch(RedisException re) {
+            re.printStackTrace();
+        }
+        return removed;
+    }
+
+    /**
+     * Gets all members of a sorted set with a score in the range, ordered by score.
+     * @param key The key.
+     * @param min The minimum score, inclusive.
+     * @param max The maximum score, inclusive.
+     * @return A list of members.
+     */
+    public List<String> zrangebyscore(String key, double min, double max) {
+        List<String> range = new ArrayList<>();
+        try {
+            range = sync.zrangebyscore(key, Range.create(min, max));
+        } catch(RedisException re) {
+            re.printStackTrace();
+        }
+        return range;
+    }
+
+    /**
+     * Increments a field of a hash.
+     * @param key The key.
+     * @param field The field.
+     * @param amount The amount, may be negative.
+     */
+    public void hincrby(String key, String field, long amount) {
+        try {
+            sync.hincrby(key, field, amount);
+        } catch(RedisException re) {
+            re.printStackTrace();
+        }
+    }
+
+    /**
+     * Sets multiple fields of a hash at once.
+     * @param key The key.
+     * @param fields The fields and their values.
+     */
+    public void hmset(String key, Map<String, String> fields) {
+        if(fields.isEmpty()) {
+            return;
+        }
+        try {
+            sync.hmset(key, fields);
+        } catch(RedisException re) {
+            re.printStackTrace();
+        }
+    }
+
+    /**
+     * Increments the score of a member of a sorted set.
+     * @param key The key.
+     * @param amount The amount, may be negative.
+     * @param value The member.
+     */
+    public void zincrby(String key, double amount, String value) {
+        try {
+            sync.zincrby(key, amount, value);
+        } catch(RedisException re) {
+            re.printStackTrace();
+        }
+    }
+
+    /**
+     * Gets the members of a sorted set with the highest scores.
+     * @param key The key.
+     * @param count The maximum number of members.
+     * @return An ordered map of member to score, highest first.
+     */
+    public Map<String, Double> zrevrangeWithScores(String key, int count) {
+        Map<String, Double> range = new LinkedHashMap<>();
+        try {
+            List<ScoredValue<String>> values = sync.zrevrangeWithScores(key, 0, count - 1);
+            for(ScoredValue<String> value : values) {
+                range.put(value.getValue(), value.getScore());
+            }
+        } catch(RedisException re) {
+            re.printStackTrace();
+        }
+        return range;
+    }
+
+    /**
+     * Gets all keys matching a pattern.
+     * The keyspace is iterated with SCAN, so Redis is never blocked for long, but this is still O(keys) overall.
+     * @param match The glob-style pattern.
+     * @return A list of keys, possibly with duplicates if keys were added during the iteration.
+     * @throws RedisException If the iteration failed.
+     */
+    public List<String> scan(String match) {
+        List<String> keys = new ArrayList<>();
+        scan(match, 1000, keys::addAll);
+        return keys;
+    }
+
+    /**
+     * Iterates all keys matching a pattern in batches, without holding all keys in memory.
+     * @param match The glob-style pattern.
+     * @param count The hint for the number of keys per batch.
+     * @param consumer The consumer of every non empty batch.
+     * @throws RedisException If the iteration failed, in which case only some of the keys were consumed.
+     */
+    public void scan(String match, int count, Consumer<List<String>> consumer) {
+        ScanArgs args = ScanArgs.Builder.matches(match).limit(count);
+        KeyScanCursor<String> cursor = sync.scan(args);
+        accept(cursor.getKeys(), consumer);
+        while(!cursor.isFinished()) {
+            cursor = sync.scan(cursor, args);
+            accept(cursor.getKeys(), consumer);
+        }
+    }
+
+    /**
+     * Iterates all members of a set in batches with SSCAN, without holding all members in memory.
+     * @param key The key.
+     * @param count The hint for the number of members per batch.
+     * @param consumer The consumer of every non empty batch.
+     * @throws RedisException If the iteration failed, in which case only some of the members were consumed.
+     */
+    public void sscan(String key, int count, Consumer<List<String>> consumer) {
+        ScanArgs args = ScanArgs.Builder.limit(count);
+        ValueScanCursor<String> cursor = sync.sscan(key, args);
+        accept(cursor.getValues(), consumer);
+        while(!cursor.isFinished()) {
+            cursor = sync.sscan(key, cursor, args);
+            accept(cursor.getValues(), consumer);
+        }
+    }
+
+    /**
+     * Gets a whole hash.
+     * @param key The key.
+     * @return The hash, empty if it does not exist.
+     * @throws RedisException If the hash could not be read.
+     */
+    public Map<String, String> hgetall(String key) {
+        return new HashMap<>(sync.hgetall(key));
+    }
+
+    /**
+     * Gets multiple hashes at once.
+     * All commands are sent before any reply is awaited, so this takes a single round trip.
+     * @param keys The keys.
+     * @return A list of hashes in the order of the keys, a hash is empty if it does not exist.
+     * @throws RedisException If any hash could not be read.
+     */
+    public List<Map<String, String>> hgetall(List<String> keys) {
+        RedisAsyncCommands<String, String> async = DataContainer.INSTANCE.getConnection().async();
+        List<RedisFuture<Map<String, String>>> futures = new ArrayList<>();
+        for(String key : keys) {
+            futures.add(async.hgetall(key));
+        }
+        List<Map<String, String>> hashes = new ArrayList<>();
+        for(RedisFuture<Map<String, String>> future : futures) {
+            hashes.add(await(future));
+        }
+        return hashes;
+    }
+
+    /**
+     * Waits for the reply to a pipelined command.
+     * @param future The future of the reply.
+     * @param <T> The type of the reply.
+     * @return The reply.
+     * @throws RedisException If the command failed or the wait was interrupted.
+     */
+    private <T> T await(RedisFuture<T> future) {
+        try {
+            return future.get();
+        } catch(InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new RedisException("Interrupted while waiting for a reply", exception);
+        } catch(ExecutionException exception) {
+            throw new RedisException(exception.getCause());
+        }
+    }
+
+    /**
+     * Passes a batch to a consumer unless it is empty.
+     * @param batch The batch.
+     * @param consumer The consumer.
+     */
+    private void accept(List<String> batch, Consumer<List<String>> consumer) {
+        if(!batch.isEmpty()) {
+            consumer.accept(batch);
+        }
+    }
+
 }
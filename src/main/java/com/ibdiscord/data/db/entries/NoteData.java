@@ -28,13 +28,23 @@ public final class NoteData extends TypeSet {
     private final String guild;
     private final String user;
 
+    /**
+     * Gets the identifier of the notes on a user.
+     * @param guild The guild ID.
+     * @param user The user ID, or a glob pattern.
+     * @return The identifier.
+     */
+    public static String identifier(String guild, String user) {
+        return "notes_" + guild + "_" + user;
+    }
+
     /**
      * Gets the identifier.
      * @return The identifier.
      */
     @Override
     protected String getUniqueIdentifier() {
-        return "notes_" + guild + "_" + user;
+        return identifier(guild, user);
     }
 
 }
@@ -64,16 +64,31 @@ public final class PunishmentData extends TypeMap {
      */
     public static final String MESSAGE = "message_id";
 
+    /**
+     * The time in milliseconds when the case was created.
+     */
+    public static final String TIMESTAMP = "timestamp";
+
     private final String guild;
     private final Object caseId;
 
+    /**
+     * Gets the unique identifier of a case.
+     * @param guild The guild ID.
+     * @param caseId The case number.
+     * @return The unique identifier.
+     */
+    public static String identifier(String guild, Object caseId) {
+        return "case_" + guild + "_" + caseId;
+    }
+
     /**
      * Gets the unique identifier.
      * @return The unique identifier.
      */
     @Override
     protected String getUniqueIdentifier() {
-        return "case_" + guild + "_" + caseId;
+        return identifier(guild, caseId);
     }
 
 }
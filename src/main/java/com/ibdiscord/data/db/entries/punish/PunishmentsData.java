@@ -26,13 +26,22 @@ public final class PunishmentsData extends TypeSet {
 
     private final String guild;
 
+    /**
+     * Gets the identifier of the case registry of a guild.
+     * @param guild The guild ID.
+     * @return The identifier.
+     */
+    public static String identifier(String guild) {
+        return "punishments_" + guild;
+    }
+
     /**
      * Gets the identifier.
      * @return The identifier.
      */
     @Override
     protected String getUniqueIdentifier() {
-        return "punishments_" + guild;
+        return identifier(guild);
     }
 
 }
@@ -22,6 +22,11 @@ import de.arraying.gravity.data.types.TypeValue;
 
 public final class ReminderData extends TypeValue {
 
+    /**
+     * The sorted set of pending reminder IDs, scored by the time they are due at.
+     */
+    public static final String DUE = "reminders_due";
+
     /**
      * Gets the unique identifier.
      * @return The identifier.
@@ -46,13 +46,22 @@ public final class ReminderUserData extends TypeMap {
 
     private final int id;
 
+    /**
+     * Gets the unique identifier of a reminder.
+     * @param id The reminder ID.
+     * @return The identifier.
+     */
+    public static String identifier(int id) {
+        return "reminder_" + id;
+    }
+
     /**
      * Gets the unique identifier.
      * @return The identifier.
      */
     @Override
     protected String getUniqueIdentifier() {
-        return "reminder_" + id;
+        return identifier(id);
     }
 
 }
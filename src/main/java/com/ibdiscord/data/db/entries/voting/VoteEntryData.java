@@ -55,13 +55,24 @@ public final class VoteEntryData extends TypeMap {
     private final String ladder;
     private final long id;
 
+    /**
+     * Gets the unique identifier of a vote entry.
+     * @param guild The guild ID.
+     * @param ladder The ladder.
+     * @param id The vote ID.
+     * @return The unique identifier.
+     */
+    public static String identifier(String guild, String ladder, long id) {
+        return "vote_entry_" + guild + "_" + ladder + "_" + id;
+    }
+
     /**
      * Gets the unique identifier.
      * @return The unique identifier.
      */
     @Override
     protected String getUniqueIdentifier() {
-        return "vote_entry_" + guild + "_" + ladder + "_" + id;
+        return identifier(guild, ladder, id);
     }
 
     /**
@@ -42,13 +42,23 @@ public final class VoteLadderData extends TypeMap {
     private final String guild;
     private final String ladder;
 
+    /**
+     * Gets the unique identifier of a vote ladder.
+     * @param guild The guild ID.
+     * @param ladder The ladder.
+     * @return The unique identifier.
+     */
+    public static String identifier(String guild, String ladder) {
+        return "vote_ladder_" + guild + "_" + ladder;
+    }
+
     /**
      * Gets the unique identifier.
      * @return The unique identifier.
      */
     @Override
     protected String getUniqueIdentifier() {
-        return "vote_ladder_" + guild + "_" + ladder;
+        return identifier(guild, ladder);
     }
 
 }
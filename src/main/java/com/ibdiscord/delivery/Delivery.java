@@ -0,0 +1,68 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.delivery;
+
+import lombok.Getter;
+import lombok.Setter;
+
+final class Delivery {
+
+    @Getter private final String id;
+    @Getter private final String user;
+    @Getter private final String text;
+    @Getter @Setter private int attempts;
+    @Getter @Setter private long notBefore;
+
+    /**
+     * Creates a delivery.
+     * @param id The ID.
+     * @param user The ID of the recipient.
+     * @param text The message.
+     * @param attempts The number of failed attempts so far.
+     */
+    Delivery(String id, String user, String text, int attempts) {
+        this.id = id;
+        this.user = user;
+        this.text = text;
+        this.attempts = attempts;
+    }
+
+    /**
+     * Parses a persisted delivery.
+     * @param id The ID.
+     * @param raw The persisted value.
+     * @return The delivery, or null if the value is malformed.
+     */
+    static Delivery parse(String id, String raw) {
+        String[] data = raw.split(";", 3);
+        if(data.length != 3) {
+            return null;
+        }
+        return new Delivery(id, data[0], data[2], Integer.parseInt(data[1]));
+    }
+
+    /**
+     * Serializes the delivery for persistence.
+     * @return The persisted value.
+     */
+    String serialize() {
+        return user + ";" + attempts + ";" + text;
+    }
+
+}
@@ -0,0 +1,250 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.delivery;
+
+import com.ibdiscord.IBai;
+import com.ibdiscord.data.db.DataContainer;
+import com.ibdiscord.data.db.DataProvider;
+import com.ibdiscord.data.db.entries.DeliveryData;
+import com.ibdiscord.utils.objects.LruCache;
+import com.ibdiscord.utils.scheduler.Scheduler;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.PrivateChannel;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.ErrorResponse;
+import net.dv8tion.jda.api.requests.RestAction;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers direct messages at a steady pace.
+ * Messages are sent one at a time with a minimum interval between any two messages and a longer one between two
+ * messages to the same user. Failed messages are retried with exponential backoff, and pending messages are
+ * persisted so that they survive a restart.
+ */
+public enum DeliveryQueue {
+
+    /**
+     * The singleton instance.
+     */
+    INSTANCE;
+
+    private static final String PUMP = "delivery_pump";
+    private static final long GLOBAL_INTERVAL = 250;
+    private static final long RECIPIENT_INTERVAL = 1000;
+    private static final long BACKOFF = 2000;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final int CHANNEL_CACHE = 1000;
+
+    private final Queue<Delivery> queue = new PriorityQueue<>(Comparator.comparingLong(Delivery::getNotBefore));
+    private final Set<String> held = new HashSet<>();
+    private final Map<String, Long> lastSent = new HashMap<>();
+    private final LruCache<String, PrivateChannel> channels = new LruCache<>(CHANNEL_CACHE);
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+    private final AtomicLong sequence = new AtomicLong();
+    private final String prefix = Long.toString(System.currentTimeMillis(), 36);
+    private final int limit = IBai.INSTANCE.getConfig().getDeliveryQueueLimit();
+    private long nextSend;
+
+    /**
+     * Queues a direct message.
+     * @param user The ID of the recipient.
+     * @param text The message.
+     * @return False if the queue is full and the message was dropped, true otherwise.
+     */
+    public boolean send(String user, String text) {
+        Delivery delivery = new Delivery(prefix + "-" + sequence.incrementAndGet(), user, text, 0);
+        synchronized(this) {
+            if(queue.size() >= limit) {
+                failed.incrementAndGet();
+                IBai.INSTANCE.getLogger().warn("Delivery queue is full, dropping message to {}", user);
+                return false;
+            }
+            persist(delivery);
+            held.add(delivery.getId());
+            queue.add(delivery);
+        }
+        pump();
+        return true;
+    }
+
+    /**
+     * Restores all persisted deliveries.
+     * Deliveries this process already holds, because they were queued before recovery, are skipped.
+     */
+    public void recover() {
+        DeliveryData deliveryData = DataContainer.INSTANCE.getGravity().load(new DeliveryData());
+        int restored = 0;
+        synchronized(this) {
+            for(String key : deliveryData.getKeys()) {
+                Delivery delivery = Delivery.parse(key, deliveryData.get(key).asString());
+                if(delivery == null || !held.add(delivery.getId())) {
+                    continue;
+                }
+                queue.add(delivery);
+                restored++;
+            }
+        }
+        IBai.INSTANCE.getLogger().info("Recovered {} pending deliveries.", restored);
+        pump();
+    }
+
+    /**
+     * Gets the number of messages waiting to be delivered.
+     * @return The count.
+     */
+    public synchronized int getPending() {
+        return queue.size();
+    }
+
+    /**
+     * Gets the number of messages delivered.
+     * @return The count.
+     */
+    public long getDelivered() {
+        return delivered.get();
+    }
+
+    /**
+     * Gets the number of messages that could not be delivered.
+     * @return The count.
+     */
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * Gets the number of times a message was deferred, either by pacing or to retry it.
+     * @return The count.
+     */
+    public long getDeferred() {
+        return deferred.get();
+    }
+
+    /**
+     * Sends the next message if pacing allows, and schedules itself for when the next one may be sent.
+     */
+    private void pump() {
+        Delivery delivery;
+        synchronized(this) {
+            long now = System.currentTimeMillis();
+            Delivery head = queue.peek();
+            if(head == null) {
+                return;
+            }
+            long wait = Math.max(nextSend, head.getNotBefore()) - now;
+            if(wait > 0) {
+                Scheduler.INSTANCE.schedule(PUMP, wait, TimeUnit.MILLISECONDS, this::pump);
+                return;
+            }
+            delivery = queue.poll();
+            long recipientFree = lastSent.getOrDefault(delivery.getUser(), 0L) + RECIPIENT_INTERVAL;
+            if(recipientFree > now) {
+                delivery.setNotBefore(recipientFree);
+                queue.add(delivery);
+                deferred.incrementAndGet();
+                Scheduler.INSTANCE.schedule(PUMP, 0, TimeUnit.MILLISECONDS, this::pump);
+                return;
+            }
+            lastSent.put(delivery.getUser(), now);
+            lastSent.values().removeIf(time -> time + RECIPIENT_INTERVAL < now);
+            nextSend = now + GLOBAL_INTERVAL;
+            if(!queue.isEmpty()) {
+                Scheduler.INSTANCE.schedule(PUMP, GLOBAL_INTERVAL, TimeUnit.MILLISECONDS, this::pump);
+            }
+        }
+        message(delivery).queue(success -> {
+            delivered.incrementAndGet();
+            unpersist(delivery);
+        }, error -> retry(delivery, error));
+    }
+
+    /**
+     * Retries a delivery that failed, unless the recipient cannot receive messages or it failed too often.
+     * @param delivery The delivery.
+     * @param error The error.
+     */
+    private void retry(Delivery delivery, Throwable error) {
+        channels.remove(delivery.getUser());
+        boolean permanent = error instanceof ErrorResponseException
+                && (((ErrorResponseException) error).getErrorResponse() == ErrorResponse.CANNOT_SEND_TO_USER
+                || ((ErrorResponseException) error).getErrorResponse() == ErrorResponse.UNKNOWN_USER);
+        delivery.setAttempts(delivery.getAttempts() + 1);
+        if(permanent || delivery.getAttempts() >= MAX_ATTEMPTS) {
+            failed.incrementAndGet();
+            unpersist(delivery);
+            IBai.INSTANCE.getLogger().warn("Could not deliver message to {}: {}",
+                    delivery.getUser(),
+                    error.getMessage()
+            );
+            return;
+        }
+        delivery.setNotBefore(System.currentTimeMillis() + (BACKOFF << (delivery.getAttempts() - 1)));
+        deferred.incrementAndGet();
+        synchronized(this) {
+            persist(delivery);
+            queue.add(delivery);
+        }
+        pump();
+    }
+
+    /**
+     * Creates the action that sends a delivery.
+     * The private channel is taken from the cache, or opened and cached if it is not known yet.
+     * @param delivery The delivery.
+     * @return The rest action.
+     */
+    private RestAction<Message> message(Delivery delivery) {
+        PrivateChannel cached = channels.get(delivery.getUser());
+        if(cached != null) {
+            return cached.sendMessage(delivery.getText());
+        }
+        return IBai.INSTANCE.getJda().retrieveUserById(delivery.getUser())
+                .flatMap(User::openPrivateChannel)
+                .flatMap(channel -> {
+                    channels.put(delivery.getUser(), channel);
+                    return channel.sendMessage(delivery.getText());
+                });
+    }
+
+    /**
+     * Persists a delivery.
+     * @param delivery The delivery.
+     */
+    private void persist(Delivery delivery) {
+        new DataProvider().hset(DeliveryData.identifier(), delivery.getId(), delivery.serialize());
+    }
+
+    /**
+     * Removes a persisted delivery once it is done.
+     * @param delivery The delivery.
+     */
+    private void unpersist(Delivery delivery) {
+        new DataProvider().hdel(DeliveryData.identifier(), delivery.getId());
+        synchronized(this) {
+            held.remove(delivery.getId());
+        }
+    }
+
+}
@@ -0,0 +1,189 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.export;
+
+import com.ibdiscord.data.db.DataProvider;
+import com.ibdiscord.data.db.entries.NoteData;
+import com.ibdiscord.data.db.entries.punish.PunishmentData;
+import com.ibdiscord.data.db.entries.punish.PunishmentsData;
+import com.ibdiscord.punish.Punishment;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the cases, and optionally the notes, of a guild into a compressed file.
+ * The cases are iterated with SSCAN and the notes with SCAN, and every batch is read in one pipelined round trip
+ * and written out before the next one is read, so memory use does not grow with the number of cases.
+ * Records are in no particular order.
+ */
+public final class CaseExporter {
+
+    private static final int BATCH = 200;
+    private static final String[] COLUMNS = {
+        "record",
+        "case",
+        "type",
+        "user_id",
+        "user_display",
+        "staff_id",
+        "staff_display",
+        "reason",
+        "redacted",
+        "timestamp",
+        "message_id",
+        "date",
+        "note"
+    };
+
+    private final String guild;
+    private final ExportFormat format;
+    private final boolean notes;
+    private final DataProvider provider = new DataProvider();
+
+    /**
+     * Creates an exporter.
+     * @param guild The guild ID.
+     * @param format The format.
+     * @param notes True to include notes, false otherwise.
+     */
+    public CaseExporter(String guild, ExportFormat format, boolean notes) {
+        this.guild = guild;
+        this.format = format;
+        this.notes = notes;
+    }
+
+    /**
+     * Exports into a new temporary file, which the caller has to delete.
+     * @param progress The consumer of the number of records written so far, called after every batch.
+     * @return The file.
+     * @throws IOException If the file could not be written.
+     */
+    public File export(LongConsumer progress) throws IOException {
+        File file = File.createTempFile("cases_" + guild + "_", format.getExtension());
+        long[] written = new long[1];
+        try(Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(new FileOutputStream(file)),
+                StandardCharsets.UTF_8))) {
+            format.writeHeader(writer, COLUMNS);
+            provider.sscan(PunishmentsData.identifier(guild), BATCH, caseIds -> {
+                List<Map<String, String>> hashes = provider.hgetall(caseIds.stream()
+                        .map(caseId -> PunishmentData.identifier(guild, caseId))
+                        .collect(Collectors.toList())
+                );
+                for(int i = 0; i < caseIds.size(); i++) {
+                    if(!hashes.get(i).isEmpty()) {
+                        write(writer, caseRecord(caseIds.get(i), hashes.get(i)));
+                        written[0]++;
+                    }
+                }
+                progress.accept(written[0]);
+            });
+            if(notes) {
+                String prefix = NoteData.identifier(guild, "");
+                provider.scan(NoteData.identifier(guild, "*"), BATCH, keys -> {
+                    List<Set<String>> sets = provider.smembers(keys);
+                    for(int i = 0; i < keys.size(); i++) {
+                        String user = keys.get(i).substring(prefix.length());
+                        for(String note : sets.get(i)) {
+                            write(writer, noteRecord(user, note));
+                            written[0]++;
+                        }
+                    }
+                    progress.accept(written[0]);
+                });
+            }
+        } catch(UncheckedIOException exception) {
+            file.delete();
+            throw exception.getCause();
+        } catch(IOException exception) {
+            file.delete();
+            throw exception;
+        }
+        return file;
+    }
+
+    /**
+     * Writes a record from within a batch consumer.
+     * @param writer The writer.
+     * @param record The record.
+     */
+    private void write(Writer writer, Map<String, String> record) {
+        try {
+            format.writeRecord(writer, COLUMNS, record);
+        } catch(IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Converts a case into a record.
+     * @param caseId The case number.
+     * @param data The case data.
+     * @return The record.
+     */
+    private Map<String, String> caseRecord(String caseId, Map<String, String> data) {
+        Map<String, String> record = new HashMap<>();
+        record.put("record", "case");
+        record.put("case", caseId);
+        record.put("type", Punishment.fromString(data.getOrDefault(PunishmentData.TYPE, "")).toString());
+        record.put("user_id", data.get(PunishmentData.USER_ID));
+        record.put("user_display", data.get(PunishmentData.USER_DISPLAY));
+        record.put("staff_id", data.get(PunishmentData.STAFF_ID));
+        record.put("staff_display", data.get(PunishmentData.STAFF_DISPLAY));
+        record.put("reason", data.get(PunishmentData.REASON));
+        record.put("redacted", data.getOrDefault(PunishmentData.REDACTED, "false"));
+        long timestamp = Punishment.getTimestamp(data);
+        record.put("timestamp", timestamp == 0 ? null : String.valueOf(timestamp));
+        record.put("message_id", data.get(PunishmentData.MESSAGE));
+        return record;
+    }
+
+    /**
+     * Converts a note into a record.
+     * Notes are stored as "author,date:text", older notes may lack the date or the author.
+     * @param user The user ID the note is on.
+     * @param note The stored note.
+     * @return The record.
+     */
+    private Map<String, String> noteRecord(String user, String note) {
+        Map<String, String> record = new HashMap<>();
+        record.put("record", "note");
+        record.put("user_id", user);
+        int index = note.indexOf(':');
+        if(index < 0) {
+            record.put("note", note);
+            return record;
+        }
+        String author = note.substring(0, index);
+        int comma = author.indexOf(',');
+        if(comma >= 0) {
+            record.put("date", author.substring(comma + 1));
+            author = author.substring(0, comma);
+        }
+        record.put("staff_id", author);
+        record.put("note", note.substring(index + 1));
+        return record;
+    }
+
+}
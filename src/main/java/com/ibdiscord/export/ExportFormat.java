@@ -0,0 +1,167 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.export;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * The formats cases can be exported in.
+ * Every record is written as soon as it is read, so neither format needs the whole export in memory.
+ */
+public enum ExportFormat {
+
+    /**
+     * One JSON object per line.
+     */
+    NDJSON(".ndjson.gz") {
+        @Override
+        void writeHeader(Writer writer, String[] columns) {
+            // Every line describes itself.
+        }
+
+        @Override
+        void writeRecord(Writer writer, String[] columns, Map<String, String> record) throws IOException {
+            writer.write('{');
+            boolean first = true;
+            for(String column : columns) {
+                String value = record.get(column);
+                if(value == null) {
+                    continue;
+                }
+                if(!first) {
+                    writer.write(',');
+                }
+                first = false;
+                writeString(writer, column);
+                writer.write(':');
+                writeString(writer, value);
+            }
+            writer.write("}\n");
+        }
+
+        /**
+         * Writes a JSON string.
+         * @param writer The writer.
+         * @param value The value.
+         * @throws IOException If writing fails.
+         */
+        private void writeString(Writer writer, String value) throws IOException {
+            writer.write('"');
+            for(int i = 0; i < value.length(); i++) {
+                char character = value.charAt(i);
+                switch(character) {
+                    case '"':
+                        writer.write("\\\"");
+                        break;
+                    case '\\':
+                        writer.write("\\\\");
+                        break;
+                    case '\n':
+                        writer.write("\\n");
+                        break;
+                    case '\r':
+                        writer.write("\\r");
+                        break;
+                    case '\t':
+                        writer.write("\\t");
+                        break;
+                    default:
+                        if(character < 0x20) {
+                            writer.write(String.format("\\u%04x", (int) character));
+                        } else {
+                            writer.write(character);
+                        }
+                        break;
+                }
+            }
+            writer.write('"');
+        }
+    },
+
+    /**
+     * Comma separated values with a header row, quoted as per RFC 4180.
+     * Values that a spreadsheet would read as a formula are prefixed with an apostrophe, since reasons and notes are
+     * written by users.
+     */
+    CSV(".csv.gz") {
+        @Override
+        void writeHeader(Writer writer, String[] columns) throws IOException {
+            writer.write(String.join(",", columns));
+            writer.write("\r\n");
+        }
+
+        @Override
+        void writeRecord(Writer writer, String[] columns, Map<String, String> record) throws IOException {
+            for(int i = 0; i < columns.length; i++) {
+                if(i != 0) {
+                    writer.write(',');
+                }
+                String value = record.get(columns[i]);
+                if(value == null) {
+                    value = "";
+                } else if(!value.isEmpty() && FORMULA.indexOf(value.charAt(0)) >= 0) {
+                    value = "'" + value;
+                }
+                if(value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                        || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                    writer.write('"');
+                    writer.write(value.replace("\"", "\"\""));
+                    writer.write('"');
+                } else {
+                    writer.write(value);
+                }
+            }
+            writer.write("\r\n");
+        }
+    };
+
+    private static final String FORMULA = "=+-@\t\r";
+
+    @Getter private final String extension;
+
+    /**
+     * Creates a format.
+     * @param extension The file extension, including the compression.
+     */
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Writes anything that goes before the first record.
+     * @param writer The writer.
+     * @param columns The columns.
+     * @throws IOException If writing fails.
+     */
+    abstract void writeHeader(Writer writer, String[] columns) throws IOException;
+
+    /**
+     * Writes a single record.
+     * @param writer The writer.
+     * @param columns The columns, in order.
+     * @param record The record, missing columns are left empty.
+     * @throws IOException If writing fails.
+     */
+    abstract void writeRecord(Writer writer, String[] columns, Map<String, String> record) throws IOException;
+
+}
@@ -0,0 +1,153 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.helper;
+
+import com.ibdiscord.IBai;
+import com.ibdiscord.data.db.DataContainer;
+import com.ibdiscord.data.db.entries.helper.HelperMessageData;
+import com.ibdiscord.data.db.entries.helper.HelperMessageRolesData;
+import com.ibdiscord.utils.UEmbed;
+import com.ibdiscord.utils.scheduler.Scheduler;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.TextChannel;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps helper messages up to date with the members of their role.
+ * Role changes only mark the role as dirty, and the messages are edited once the role has been quiet for a moment,
+ * so a bulk role change results in a single edit per message. The last rendered embed of every role is cached, and
+ * messages are not edited if it did not change.
+ */
+public enum HelperMessageHandler {
+
+    /**
+     * The singleton instance.
+     */
+    INSTANCE;
+
+    private static final long DEBOUNCE = 5000;
+    private static final long MAX_DELAY = 30000;
+
+    private final Map<Long, MessageEmbed> rendered = new ConcurrentHashMap<>();
+    private final Map<Long, Long> dirtySince = new ConcurrentHashMap<>();
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicLong edits = new AtomicLong();
+
+    /**
+     * Marks the helper roles among the given roles as dirty.
+     * Roles without helper messages are ignored.
+     * @param guild The guild.
+     * @param roles The roles whose members changed.
+     */
+    public void update(Guild guild, List<Role> roles) {
+        HelperMessageRolesData helperMessageRolesData = DataContainer.INSTANCE.getGravity().load(
+                new HelperMessageRolesData(guild.getId())
+        );
+        for(Role role : roles) {
+            if(!helperMessageRolesData.contains(role.getId())) {
+                continue;
+            }
+            changes.incrementAndGet();
+            long now = System.currentTimeMillis();
+            long since = dirtySince.computeIfAbsent(role.getIdLong(), id -> now);
+            long guildId = guild.getIdLong();
+            long roleId = role.getIdLong();
+            Scheduler.INSTANCE.scheduleAt(key(roleId),
+                    Math.min(now + DEBOUNCE, since + MAX_DELAY),
+                    () -> flush(guildId, roleId)
+            );
+        }
+    }
+
+    /**
+     * Renders the embed of a helper role and caches it, for a new helper message.
+     * Changes to roles without helper messages are not tracked, so this never uses the cache.
+     * @param guild The guild.
+     * @param role The role.
+     * @return The embed.
+     */
+    public MessageEmbed render(Guild guild, Role role) {
+        MessageEmbed embed = UEmbed.helperMessageEmbed(guild, role);
+        rendered.put(role.getIdLong(), embed);
+        return embed;
+    }
+
+    /**
+     * Gets the number of role changes that affected a helper role.
+     * @return The count.
+     */
+    public long getChanges() {
+        return changes.get();
+    }
+
+    /**
+     * Gets the number of helper message edits.
+     * @return The count.
+     */
+    public long getEdits() {
+        return edits.get();
+    }
+
+    /**
+     * Re-renders the embed of a dirty role and edits its messages if the embed changed.
+     * @param guildId The guild ID.
+     * @param roleId The role ID.
+     */
+    private void flush(long guildId, long roleId) {
+        dirtySince.remove(roleId);
+        Guild guild = IBai.INSTANCE.getJda().getGuildById(guildId);
+        Role role = guild == null ? null : guild.getRoleById(roleId);
+        if(role == null) {
+            rendered.remove(roleId);
+            return;
+        }
+        MessageEmbed embed = UEmbed.helperMessageEmbed(guild, role);
+        MessageEmbed previous = rendered.put(roleId, embed);
+        if(embed.equals(previous)) {
+            return; // The changes cancelled each other out.
+        }
+        HelperMessageData helperMessageData = DataContainer.INSTANCE.getGravity().load(
+                new HelperMessageData(guild.getId(), role.getId())
+        );
+        helperMessageData.getKeys().forEach(channelId -> {
+            TextChannel channel = guild.getTextChannelById(channelId);
+            if(channel == null) {
+                return;
+            }
+            edits.incrementAndGet();
+            channel.editMessageById(helperMessageData.get(channelId).asString(), embed).queue();
+        });
+    }
+
+    /**
+     * Gets the scheduler key of a role.
+     * @param role The role ID.
+     * @return The key.
+     */
+    private static String key(long role) {
+        return "helper:" + role;
+    }
+
+}
@@ -39,14 +39,15 @@ import java.util.List;
 public final class EmbedBuilderI18n {
 
     private final EmbedBuilder nest = new EmbedBuilder();
-    private final CommandContext context;
+    private final String language;
 
     /**
      * Creates a new internationalization compatible embed builder.
+     * The language is resolved once here, so every field afterwards is translated in memory.
      * @param context The command context.
      */
     public EmbedBuilderI18n(CommandContext context) {
-        this.context = context;
+        this.language = context.getLanguage();
     }
 
     /**
@@ -299,7 +300,7 @@ public final class EmbedBuilderI18n {
      * @return A string.
      */
     private String i18n(StringI18n stringI18n) {
-        return stringI18n.parse(context);
+        return stringI18n.parse(language);
     }
 
 }
@@ -19,7 +19,6 @@
 package com.ibdiscord.i18n;
 
 import com.ibdiscord.utils.UJSON;
-import com.ibdiscord.utils.objects.ExpiringCache;
 import de.arraying.kotys.JSON;
 import de.arraying.kotys.JSONArray;
 import lombok.Getter;
@@ -27,74 +26,83 @@ import lombok.RequiredArgsConstructor;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.concurrent.TimeUnit;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 public final class Locale {
 
-    // 30 minutes is a reasonable amount of time.
-    // The bot should not constantly be reading from disk, and storing all values indefinitely is inefficient.
-    // For language changes, a full restart is necessary anyway.
-    private final ExpiringCache<String, String> cache = new ExpiringCache<>(30, TimeUnit.MINUTES);
+    // Every string is read and compiled once when the language is registered.
+    // There are only a few hundred keys per language, so keeping them all is cheaper than re-reading from disk.
+    // Language changes are picked up by the watcher, which loads a fresh set of locales and swaps them in.
+    private final Map<String, Template> templates = new HashMap<>();
     private final File root;
     @Getter private final String name;
     @Getter private final String code;
     @Getter private final String flag;
     private final String encoding;
 
+    /**
+     * Loads and compiles every string of every language file.
+     * @throws IOException If a file could not be read.
+     */
+    void load() throws IOException {
+        File[] files = root.listFiles((dir, fileName) -> fileName.endsWith(".json"));
+        if(files == null) {
+            throw new LocaleException("language directory does not exist: " + root.getPath());
+        }
+        for(File file : files) {
+            String fileName = file.getName().substring(0, file.getName().length() - ".json".length());
+            JSON json = UJSON.retrieveJSONFromFile(file.getPath(), encoding);
+            for(String keyJSON : json.raw().keySet()) {
+                Object valueObject = json.object(keyJSON);
+                if(valueObject == null) {
+                    continue;
+                }
+                String value;
+                if(valueObject instanceof JSONArray) {
+                    value = ((JSONArray) valueObject).raw().stream()
+                            .map(Object::toString)
+                            .collect(Collectors.joining(","));
+                } else {
+                    value = valueObject.toString();
+                }
+                templates.put(fileName + "." + keyJSON, Template.compile(value));
+            }
+        }
+    }
+
     /**
      * Attempts to look up a string.
-     * This will prioritize the cache, but also try from file.
      * @param key The key, in "filename.key" format.
      * @return The string, or null if it does not exist for this language.
      * @throws LocaleException If the key is invalid.
      */
     String lookup(String key) {
-        String[] keyParts = key.split("\\.");
-        if(keyParts.length <= 1) {
+        Template template = template(key);
+        return template == null ? null : template.getSource(); // The localisation handler can handle null.
+    }
+
+    /**
+     * Attempts to look up a compiled template.
+     * @param key The key, in "filename.key" format.
+     * @return The template, or null if it does not exist for this language.
+     * @throws LocaleException If the key is invalid.
+     */
+    Template template(String key) {
+        if(key.indexOf('.') <= 0) {
             throw new LocaleException("invalid key format: please provide filename.key as a language key.");
         }
-        String value = cache.get(key);
-        if(value == null) {
-            value = loadAndGet(key, keyParts); // Passing in keyParts because splitting at runtime is expensive.
-        }
-        return value; // We don't care if the value is null here, the localisation handler can handle it.
+        return templates.get(key);
     }
 
     /**
-     * Attempts to load a string and then return it.
-     * If it does not exist, null will be returned, and nothing will be cached.
-     * @param key The key.
-     * @param keyParts The key, but split on ".".
-     * @return A string, or null if it does not exist.
+     * Gets all compiled templates.
+     * @return A map of "filename.key" to template.
      */
-    private String loadAndGet(String key, String[] keyParts) {
-        String keyFile = keyParts[0];
-        String keyJSON = keyParts[1];
-        File file = new File(root, keyFile + ".json");
-        if(!file.exists()) {
-            return null;
-        }
-        try {
-            JSON json = UJSON.retrieveJSONFromFile(file.getPath(), encoding);
-            Object valueObject = json.object(keyJSON);
-            if(valueObject == null) {
-                return null; // Avoid caching null.
-            }
-            String value;
-            if(valueObject instanceof JSONArray) {
-                value = ((JSONArray) valueObject).raw().stream()
-                        .map(Object::toString)
-                        .collect(Collectors.joining(","));
-            } else {
-                value = valueObject.toString();
-            }
-            cache.put(key, value);
-            return value;
-        } catch(IOException exception) {
-            throw new LocaleException(exception); // Pass into locale exception.
-        }
+    Map<String, Template> templates() {
+        return templates;
     }
 
 }
@@ -0,0 +1,104 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.i18n;
+
+import com.ibdiscord.IBai;
+import com.ibdiscord.utils.objects.AbstractTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+final class LocaleWatcher extends AbstractTask {
+
+    // Editors and deployments tend to write several files in a row, so wait for things to settle down.
+    private static final long SETTLE_MILLIS = 2000;
+
+    private final File root;
+
+    /**
+     * Creates a new language directory watcher.
+     * @param root The language root directory.
+     */
+    LocaleWatcher(File root) {
+        super("Locale-Watcher");
+        this.root = root;
+    }
+
+    /**
+     * Waits for changes to any language file and reloads all languages once they have settled.
+     */
+    @Override
+    protected void execute() {
+        try(WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            register(watchService);
+            while(!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                do {
+                    key.pollEvents();
+                    key.reset();
+                    key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                } while(key != null);
+                register(watchService); // New language directories may have been created.
+                LocaliserHandler.INSTANCE.reload();
+            }
+        } catch(IOException exception) {
+            IBai.INSTANCE.getLogger().error("Language watcher stopped, changes require a restart", exception);
+        } catch(InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Registers the root directory and all language directories.
+     * Registering an already registered directory is a no-op.
+     * @param watchService The watch service.
+     * @throws IOException If a directory could not be registered.
+     */
+    private void register(WatchService watchService) throws IOException {
+        watch(watchService, root.toPath());
+        File[] directories = root.listFiles(File::isDirectory);
+        if(directories == null) {
+            return;
+        }
+        for(File directory : directories) {
+            watch(watchService, directory.toPath());
+        }
+    }
+
+    /**
+     * Watches a single directory.
+     * @param watchService The watch service.
+     * @param path The directory.
+     * @throws IOException If the directory could not be registered.
+     */
+    private void watch(WatchService watchService, Path path) throws IOException {
+        path.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE
+        );
+    }
+
+}
@@ -20,6 +20,7 @@ package com.ibdiscord.i18n;
 
 import com.ibdiscord.IBai;
 import com.ibdiscord.command.CommandContext;
+import com.ibdiscord.command.registry.CommandRegistry;
 import com.ibdiscord.data.db.DataContainer;
 import com.ibdiscord.data.db.entries.LangData;
 import de.arraying.gravity.Gravity;
@@ -30,8 +31,6 @@ import net.dv8tion.jda.api.entities.User;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public enum LocaliserHandler {
 
@@ -40,9 +39,9 @@ public enum LocaliserHandler {
      */
     INSTANCE;
 
-    private final Map<String, Locale> locales = new HashMap<>();
-    private final Pattern variablesRegex = Pattern.compile("\\{(\\d+)}", Pattern.MULTILINE);
     private final String defaultLanguage = "en";
+    private volatile Map<String, Locale> locales = new LinkedHashMap<>();
+    private File root;
 
     /**
      * Initialize all languages.
@@ -50,6 +49,48 @@ public enum LocaliserHandler {
      * @throws IOException If there is any major file exception.
      */
     public void initialize(File root) throws IOException {
+        this.root = root;
+        locales = load(root);
+    }
+
+    /**
+     * Reloads all languages from disk and swaps them in at once.
+     * If anything fails to load, the currently loaded languages are kept.
+     * Command aliases are rebuilt afterwards, as they are defined by the languages.
+     * @return True if the languages were swapped, false otherwise.
+     */
+    public synchronized boolean reload() {
+        Map<String, Locale> fresh;
+        try {
+            fresh = load(root);
+        } catch(IOException | RuntimeException exception) {
+            IBai.INSTANCE.getLogger().error("Could not reload languages, keeping the current ones", exception);
+            return false;
+        }
+        locales = fresh;
+        CommandRegistry registry = IBai.INSTANCE.getCommandRegistry();
+        if(registry != null) {
+            registry.reloadAliases();
+        }
+        IBai.INSTANCE.getLogger().info("Reloaded {} languages", fresh.size());
+        return true;
+    }
+
+    /**
+     * Starts watching the language directory, reloading whenever a file changes.
+     */
+    public void watch() {
+        new LocaleWatcher(root).create();
+    }
+
+    /**
+     * Loads and validates all languages into a new map.
+     * @param root The root file.
+     * @return A map of language code to locale.
+     * @throws IOException If there is any major file exception.
+     */
+    private Map<String, Locale> load(File root) throws IOException {
+        Map<String, Locale> loaded = new LinkedHashMap<>();
         JSON available = new JSON(new File(root, "available_languages.json"));
         JSONArray languages = available.array("languages");
         for(int i = 0; i < languages.length(); i++) {
@@ -71,9 +112,12 @@ public enum LocaliserHandler {
                 encoding = "UTF-8";
             }
             Locale locale = new Locale(new File(root, code), name, code, flag, encoding);
-            locales.put(code, locale);
+            locale.load();
+            loaded.put(code, locale);
             IBai.INSTANCE.getLogger().info("Registered language {}", name);
         }
+        validate(loaded);
+        return loaded;
     }
 
     /**
@@ -92,7 +136,7 @@ public enum LocaliserHandler {
      * @return A never null string.
      */
     public String translate(CommandContext context, String key, Object... format) {
-        return translateWithUser(context.getMember().getUser(), key, (Object[]) format);
+        return translateWithLanguage(context.getLanguage(), key, (Object[]) format);
     }
 
     /**
@@ -103,9 +147,20 @@ public enum LocaliserHandler {
      * @return A never null string.
      */
     public String translateWithUser(User user, String key, Object... format) {
+        return translateWithLanguage(getUserLanguage(user), key, (Object[]) format);
+    }
+
+    /**
+     * Translates a string to an already resolved language.
+     * This does not perform any database lookups.
+     * @param language The language code.
+     * @param key The key.
+     * @param format The formatting variables.
+     * @return A never null string.
+     */
+    public String translateWithLanguage(String language, String key, Object... format) {
         String fallback = "**Translation error.** If you see this, please report it to a bot developer!";
         try {
-            String language = getUserLanguage(user);
             String value = translateSpecific(language, key, (Object[]) format); // Try with user language.
             if(value == null) {
                 value = translateSpecific(defaultLanguage, key, (Object[]) format); // Try with default language.
@@ -139,28 +194,58 @@ public enum LocaliserHandler {
 
     /**
      * Formats variables.
+     * Language strings are precompiled, this is only for strings that are not known ahead of time.
      * @param in The string to format.
      * @param format The variables.
      * @return A formatted string.
      */
     public String format(String in, Object... format) {
-        final Matcher matcher = variablesRegex.matcher(in);
-
-        /* group(0) --> entire var, {12}
-         * group(1) --> just num  , 12
-         */
-        while(matcher.find()) {
-            String toReplace = matcher.group(0);
-            String replaceNum = matcher.group(1);
-
-            try {
-                in = in.replace(toReplace, format[Integer.parseInt(replaceNum)].toString());
-            } catch(ArrayIndexOutOfBoundsException exception) {
-                throw new LocaleException(exception);
+        return Template.compile(in).render((Object[]) format);
+    }
+
+    /**
+     * Checks every language against the default language.
+     * A translated string that references more variables than the default string would never be given enough
+     * arguments, so it is discarded here and the default language is used for it instead.
+     * Strings missing from a translation are only reported, as they fall back to the default language.
+     * @param locales The freshly loaded languages.
+     */
+    private void validate(Map<String, Locale> locales) {
+        Locale fallback = locales.get(defaultLanguage);
+        if(fallback == null) {
+            throw new LocaleException("default language not registered: " + defaultLanguage);
+        }
+        for(Locale locale : locales.values()) {
+            if(locale == fallback) {
+                continue;
+            }
+            Iterator<Map.Entry<String, Template>> iterator = locale.templates().entrySet().iterator();
+            while(iterator.hasNext()) {
+                Map.Entry<String, Template> entry = iterator.next();
+                Template expected = fallback.templates().get(entry.getKey());
+                int expectedArity = expected == null ? 0 : expected.getArity();
+                if(entry.getValue().getArity() > expectedArity) {
+                    IBai.INSTANCE.getLogger().warn("Discarding {} in {}: uses {} variables, {} only provides {}",
+                            entry.getKey(),
+                            locale.getCode(),
+                            entry.getValue().getArity(),
+                            defaultLanguage,
+                            expectedArity
+                    );
+                    iterator.remove();
+                }
+            }
+            long missing = fallback.templates().keySet().stream()
+                    .filter(key -> !locale.templates().containsKey(key))
+                    .count();
+            if(missing > 0) {
+                IBai.INSTANCE.getLogger().info("{} is missing {} strings, {} will be used for those",
+                        locale.getCode(),
+                        missing,
+                        defaultLanguage
+                );
             }
         }
-
-        return in;
     }
 
 
@@ -176,11 +261,11 @@ public enum LocaliserHandler {
         if(locale == null) {
             return null;
         }
-        String value = locale.lookup(key);
-        if(value == null) {
+        Template template = locale.template(key);
+        if(template == null) {
             return null;
         }
-        return format(value, (Object[]) format);
+        return template.render((Object[]) format);
     }
 
     /**
@@ -188,7 +273,7 @@ public enum LocaliserHandler {
      * @param user The user.
      * @return The language, "en" by default.
      */
-    private String getUserLanguage(User user) {
+    public String getUserLanguage(User user) {
         Gravity gravity = DataContainer.INSTANCE.getGravity();
         return gravity.load(new LangData())
                 .get(user.getId())
@@ -52,6 +52,15 @@ public final class StringI18n {
      */
     @SuppressWarnings("WeakerAccess")
     public String parse(CommandContext context) {
+        return parse(context.getLanguage());
+    }
+
+    /**
+     * Parses the string in an already resolved language.
+     * @param language The language code.
+     * @return A string.
+     */
+    public String parse(String language) {
         if(first == null) {
             if(following.length == 0) {
                 throw new IllegalStateException("using static string but format is empty");
@@ -60,7 +69,7 @@ public final class StringI18n {
             Object[] update = Arrays.copyOfRange(following, 1, following.length);
             return LocaliserHandler.INSTANCE.format(value, (Object[]) update);
         } else {
-            return LocaliserHandler.INSTANCE.translate(context, first, (Object[]) following);
+            return LocaliserHandler.INSTANCE.translateWithLanguage(language, first, (Object[]) following);
         }
     }
 
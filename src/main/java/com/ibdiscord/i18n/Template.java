@@ -0,0 +1,131 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.i18n;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A precompiled message template.
+ * The source is split once into literal runs and argument indices, so rendering is a single pass into one builder.
+ * Placeholders follow the "{n}" syntax, where n is the zero based index of the formatting variable.
+ */
+public final class Template {
+
+    @Getter private final String source;
+    private final String[] literals;
+    private final int[] arguments;
+    private final int literalLength;
+    @Getter private final int arity;
+
+    /**
+     * Creates a template.
+     * @param source The original string.
+     * @param literals The literal runs, always one more than the arguments.
+     * @param arguments The argument indices, in order of appearance.
+     */
+    private Template(String source, String[] literals, int[] arguments) {
+        this.source = source;
+        this.literals = literals;
+        this.arguments = arguments;
+        int length = 0;
+        for(String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+        int highest = -1;
+        for(int argument : arguments) {
+            highest = Math.max(highest, argument);
+        }
+        this.arity = highest + 1;
+    }
+
+    /**
+     * Compiles a string into a template.
+     * @param source The string.
+     * @return A template, never null.
+     */
+    public static Template compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> arguments = new ArrayList<>();
+        int literalStart = 0;
+        int index = source.indexOf('{');
+        while(index != -1) {
+            int cursor = index + 1;
+            while(cursor < source.length()
+                    && source.charAt(cursor) >= '0'
+                    && source.charAt(cursor) <= '9') {
+                cursor++;
+            }
+            if(cursor > index + 1
+                    && cursor < source.length()
+                    && source.charAt(cursor) == '}') {
+                int argument;
+                try {
+                    argument = Integer.parseInt(source.substring(index + 1, cursor));
+                } catch(NumberFormatException exception) {
+                    throw new LocaleException("placeholder index out of range in: " + source);
+                }
+                literals.add(source.substring(literalStart, index));
+                arguments.add(argument);
+                literalStart = cursor + 1;
+                index = source.indexOf('{', literalStart);
+            } else {
+                index = source.indexOf('{', index + 1);
+            }
+        }
+        literals.add(source.substring(literalStart));
+        int[] argumentArray = new int[arguments.size()];
+        for(int i = 0; i < argumentArray.length; i++) {
+            argumentArray[i] = arguments.get(i);
+        }
+        return new Template(source, literals.toArray(new String[0]), argumentArray);
+    }
+
+    /**
+     * Renders the template with the formatting variables.
+     * @param format The formatting variables.
+     * @return A formatted string.
+     * @throws LocaleException If fewer variables are provided than the template references.
+     */
+    public String render(Object... format) {
+        if(arguments.length == 0) {
+            return source;
+        }
+        if(format.length < arity) {
+            throw new LocaleException("template expects " + arity + " arguments but got " + format.length
+                    + ": " + source);
+        }
+        String[] values = new String[arguments.length];
+        int length = literalLength;
+        for(int i = 0; i < arguments.length; i++) {
+            values[i] = String.valueOf(format[arguments[i]]);
+            length += values[i].length();
+        }
+        StringBuilder builder = new StringBuilder(length);
+        for(int i = 0; i < arguments.length; i++) {
+            builder.append(literals[i]).append(values[i]);
+        }
+        builder.append(literals[arguments.length]);
+        return builder.toString();
+    }
+
+}
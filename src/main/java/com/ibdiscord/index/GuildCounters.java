@@ -0,0 +1,139 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.index;
+
+import net.dv8tion.jda.api.OnlineStatus;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+
+/**
+ * Member statistics of a single guild, kept up to date from events instead of counting the member cache.
+ * Only cached members are counted, and statuses are only known if presences are enabled.
+ */
+public final class GuildCounters {
+
+    private final int[] statuses = new int[OnlineStatus.values().length];
+    private int bots;
+    private int members;
+
+    /**
+     * Creates the counters of a guild by counting its cache.
+     * @param guild The guild.
+     * @return The counters.
+     */
+    static GuildCounters of(Guild guild) {
+        GuildCounters counters = new GuildCounters();
+        counters.reconcile(guild);
+        return counters;
+    }
+
+    /**
+     * Counts a member that joined.
+     * @param member The member.
+     */
+    public synchronized void add(Member member) {
+        members++;
+        if(member.getUser().isBot()) {
+            bots++;
+        }
+        statuses[member.getOnlineStatus().ordinal()]++;
+    }
+
+    /**
+     * Stops counting a member that left.
+     * @param member The member.
+     */
+    public synchronized void remove(Member member) {
+        members--;
+        if(member.getUser().isBot()) {
+            bots--;
+        }
+        statuses[member.getOnlineStatus().ordinal()]--;
+    }
+
+    /**
+     * Moves a member from one status to another.
+     * @param previous The old status.
+     * @param current The new status.
+     */
+    public synchronized void updateStatus(OnlineStatus previous, OnlineStatus current) {
+        statuses[previous.ordinal()]--;
+        statuses[current.ordinal()]++;
+    }
+
+    /**
+     * Recounts the cache, to correct for any events that were missed.
+     * @param guild The guild.
+     * @return How far off the counters were, summed over all counters.
+     */
+    public synchronized int reconcile(Guild guild) {
+        int[] counted = new int[statuses.length];
+        int countedBots = 0;
+        int countedMembers = 0;
+        for(Member member : guild.getMemberCache()) {
+            countedMembers++;
+            if(member.getUser().isBot()) {
+                countedBots++;
+            }
+            counted[member.getOnlineStatus().ordinal()]++;
+        }
+        int drift = Math.abs(countedMembers - members) + Math.abs(countedBots - bots);
+        for(int i = 0; i < counted.length; i++) {
+            drift += Math.abs(counted[i] - statuses[i]);
+            statuses[i] = counted[i];
+        }
+        bots = countedBots;
+        members = countedMembers;
+        return drift;
+    }
+
+    /**
+     * Gets the number of cached members.
+     * @return The count.
+     */
+    public synchronized int getMembers() {
+        return members;
+    }
+
+    /**
+     * Gets the number of cached members that are bots.
+     * @return The count.
+     */
+    public synchronized int getBots() {
+        return bots;
+    }
+
+    /**
+     * Gets the number of cached members that are not offline.
+     * @return The count.
+     */
+    public synchronized int getOnline() {
+        return members - statuses[OnlineStatus.OFFLINE.ordinal()];
+    }
+
+    /**
+     * Gets the number of cached members with a status.
+     * @param status The status.
+     * @return The count.
+     */
+    public synchronized int getStatus(OnlineStatus status) {
+        return statuses[status.ordinal()];
+    }
+
+}
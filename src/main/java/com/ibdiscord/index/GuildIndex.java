@@ -0,0 +1,222 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.index;
+
+import com.ibdiscord.IBai;
+import com.ibdiscord.utils.UMember;
+import com.ibdiscord.utils.objects.JoinOrder;
+import net.dv8tion.jda.api.entities.*;
+
+import java.util.*;
+
+/**
+ * The lookup indexes of a single guild.
+ * Names are indexed case insensitively, and members are additionally ordered by the time they joined.
+ */
+public final class GuildIndex {
+
+    private final NameIndex members = new NameIndex();
+    private final NameIndex roles = new NameIndex();
+    private final NameIndex textChannels = new NameIndex();
+    private final NameIndex voiceChannels = new NameIndex();
+    private final NameIndex categories = new NameIndex();
+    private final Map<Long, Long> joined = new HashMap<>();
+    private final JoinOrder joinOrder = new JoinOrder();
+    private Set<Long> removedWhileLoading;
+
+    /**
+     * Builds the index of a guild from its cache.
+     * If the member cache is disabled, the members are loaded from Discord in the background instead.
+     * @param guild The guild.
+     * @return The index.
+     */
+    static GuildIndex of(Guild guild) {
+        GuildIndex index = new GuildIndex();
+        if(IBai.INSTANCE.getConfig().isFeatureMemberCache()) {
+            guild.getMemberCache().forEach(index::putMember);
+        } else {
+            index.removedWhileLoading = new HashSet<>();
+            UMember.loadMembers(guild).whenComplete((members, error) -> {
+                if(error != null) {
+                    IBai.INSTANCE.getLogger().warn("Could not load the members of {}", guild.getId(), error);
+                }
+                index.fill(members == null ? List.of() : members);
+            });
+        }
+        guild.getRoleCache().forEach(index::putRole);
+        guild.getTextChannelCache().forEach(index::putChannel);
+        guild.getVoiceChannelCache().forEach(index::putChannel);
+        guild.getCategoryCache().forEach(index::putChannel);
+        return index;
+    }
+
+    /**
+     * Adds a member, or updates it if its name changed.
+     * @param member The member.
+     */
+    public synchronized void putMember(Member member) {
+        User user = member.getUser();
+        members.put(user.getIdLong(), user.getName() + "#" + user.getDiscriminator());
+        long time = member.getTimeJoined().toInstant().toEpochMilli();
+        Long previous = joined.put(user.getIdLong(), time);
+        if(previous != null && previous != time) {
+            joinOrder.remove(previous, user.getIdLong());
+        }
+        joinOrder.add(time, user.getIdLong());
+    }
+
+    /**
+     * Adds the loaded members.
+     * Members that joined or left while they were being loaded are already up to date, so they are skipped.
+     * @param loaded The loaded members.
+     */
+    private synchronized void fill(List<Member> loaded) {
+        for(Member member : loaded) {
+            if(!joined.containsKey(member.getIdLong()) && !removedWhileLoading.contains(member.getIdLong())) {
+                putMember(member);
+            }
+        }
+        removedWhileLoading = null;
+    }
+
+    /**
+     * Removes a member.
+     * @param id The user ID.
+     */
+    public synchronized void removeMember(long id) {
+        if(removedWhileLoading != null) {
+            removedWhileLoading.add(id);
+        }
+        members.remove(id);
+        Long time = joined.remove(id);
+        if(time != null) {
+            joinOrder.remove(time, id);
+        }
+    }
+
+    /**
+     * Adds a role, or updates it if its name changed.
+     * @param role The role.
+     */
+    public synchronized void putRole(Role role) {
+        roles.put(role.getIdLong(), role.getName());
+    }
+
+    /**
+     * Removes a role.
+     * @param id The role ID.
+     */
+    public synchronized void removeRole(long id) {
+        roles.remove(id);
+    }
+
+    /**
+     * Adds a text channel, voice channel or category, or updates it if its name changed.
+     * Other types of channels are not indexed.
+     * @param channel The channel.
+     */
+    public synchronized void putChannel(GuildChannel channel) {
+        switch(channel.getType()) {
+            case TEXT:
+                textChannels.put(channel.getIdLong(), channel.getName());
+                break;
+            case VOICE:
+                voiceChannels.put(channel.getIdLong(), channel.getName());
+                break;
+            case CATEGORY:
+                categories.put(channel.getIdLong(), channel.getName());
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Removes a channel.
+     * @param id The channel ID.
+     */
+    public synchronized void removeChannel(long id) {
+        textChannels.remove(id);
+        voiceChannels.remove(id);
+        categories.remove(id);
+    }
+
+    /**
+     * Gets the IDs of the members with a name and discriminator.
+     * @param tag The name and discriminator, separated by a #.
+     * @return The user IDs.
+     */
+    public synchronized List<Long> getMembers(String tag) {
+        return members.get(tag);
+    }
+
+    /**
+     * Gets the IDs of the roles with a name.
+     * @param name The name.
+     * @return The role IDs.
+     */
+    public synchronized List<Long> getRoles(String name) {
+        return roles.get(name);
+    }
+
+    /**
+     * Gets the IDs of the text channels with a name.
+     * @param name The name.
+     * @return The channel IDs.
+     */
+    public synchronized List<Long> getTextChannels(String name) {
+        return textChannels.get(name);
+    }
+
+    /**
+     * Gets the IDs of the voice channels with a name.
+     * @param name The name.
+     * @return The channel IDs.
+     */
+    public synchronized List<Long> getVoiceChannels(String name) {
+        return voiceChannels.get(name);
+    }
+
+    /**
+     * Gets the IDs of the categories with a name.
+     * @param name The name.
+     * @return The category IDs.
+     */
+    public synchronized List<Long> getCategories(String name) {
+        return categories.get(name);
+    }
+
+    /**
+     * Gets the position of a member when ordered by the time they joined.
+     * @param member The member.
+     * @return The one based position.
+     */
+    public synchronized int getJoinPosition(Member member) {
+        return joinOrder.rank(member.getTimeJoined().toInstant().toEpochMilli(), member.getIdLong()) + 1;
+    }
+
+    /**
+     * Gets the number of indexed members.
+     * @return The count.
+     */
+    public synchronized int getMemberCount() {
+        return joinOrder.size();
+    }
+
+}
@@ -0,0 +1,157 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.index;
+
+import com.ibdiscord.IBai;
+import com.ibdiscord.utils.scheduler.Scheduler;
+import net.dv8tion.jda.api.entities.Guild;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+public enum IndexHandler {
+
+    /**
+     * The singleton instance.
+     */
+    INSTANCE;
+
+    private static final String RECONCILE = "counter_reconcile";
+
+    private final Map<Long, GuildIndex> indexes = new ConcurrentHashMap<>();
+    private final Map<Long, GuildCounters> counters = new ConcurrentHashMap<>();
+    private volatile int lastDrift;
+    private volatile long lastReconciled;
+
+    /**
+     * Gets the index of a guild, building it from the cache the first time.
+     * Updates for a guild should also go through this, so that none are lost while the index is being built.
+     * @param guild The guild.
+     * @return The index.
+     */
+    public GuildIndex get(Guild guild) {
+        return indexes.computeIfAbsent(guild.getIdLong(), id -> GuildIndex.of(guild));
+    }
+
+    /**
+     * Gets the counters of a guild, counting the cache the first time.
+     * The counters are built when the guild becomes ready, so this normally only counts for guilds that were not.
+     * @param guild The guild.
+     * @return The counters.
+     */
+    public GuildCounters getCounters(Guild guild) {
+        return counters.computeIfAbsent(guild.getIdLong(), id -> GuildCounters.of(guild));
+    }
+
+    /**
+     * Applies a change to the counters of a guild, if they have been built.
+     * Counters that are built later count the cache, which already includes the change, so applying it to them
+     * would count it twice.
+     * @param guild The guild.
+     * @param change The change.
+     */
+    public void updateCounters(Guild guild, Consumer<GuildCounters> change) {
+        GuildCounters existing = counters.get(guild.getIdLong());
+        if(existing != null) {
+            change.accept(existing);
+        }
+    }
+
+    /**
+     * Drops the index and counters of a guild.
+     * @param guild The guild.
+     */
+    public void remove(Guild guild) {
+        indexes.remove(guild.getIdLong());
+        counters.remove(guild.getIdLong());
+    }
+
+    /**
+     * Recounts the counters of every guild against the cache.
+     * Each guild is recounted on the event partition of its member events, so that the changes of events that are
+     * still queued are applied before the recount instead of being applied on top of it.
+     * Always schedules the next reconciliation.
+     */
+    public void reconcile() {
+        try {
+            AtomicInteger drift = new AtomicInteger();
+            List<CompletableFuture<Void>> guilds = new ArrayList<>();
+            for(Guild guild : IBai.INSTANCE.getJda().getGuilds()) {
+                CompletableFuture<Void> future = new CompletableFuture<>();
+                IBai.INSTANCE.getEventManager().submit(guild.getIdLong(), () -> {
+                    try {
+                        GuildCounters existing = counters.get(guild.getIdLong());
+                        if(existing == null) {
+                            getCounters(guild);
+                        } else {
+                            drift.addAndGet(existing.reconcile(guild));
+                        }
+                    } finally {
+                        future.complete(null);
+                    }
+                });
+                guilds.add(future);
+            }
+            CompletableFuture.allOf(guilds.toArray(new CompletableFuture[0])).thenRun(() -> {
+                lastDrift = drift.get();
+                lastReconciled = System.currentTimeMillis();
+                if(drift.get() > 0) {
+                    IBai.INSTANCE.getLogger().info("Reconciled guild counters, corrected a drift of {}.", drift.get());
+                }
+            });
+        } finally {
+            Scheduler.INSTANCE.schedule(RECONCILE,
+                    IBai.INSTANCE.getConfig().getCounterReconcile(),
+                    TimeUnit.MINUTES,
+                    this::reconcile
+            );
+        }
+    }
+
+    /**
+     * Gets the number of guilds that have been indexed.
+     * @return The count.
+     */
+    public int getIndexed() {
+        return indexes.size();
+    }
+
+    /**
+     * Gets the total drift corrected by the last reconciliation.
+     * @return The drift.
+     */
+    public int getLastDrift() {
+        return lastDrift;
+    }
+
+    /**
+     * Gets when the counters were last reconciled.
+     * @return The epoch milliseconds, or 0 if they never were.
+     */
+    public long getLastReconciled() {
+        return lastReconciled;
+    }
+
+}
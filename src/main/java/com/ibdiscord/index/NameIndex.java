@@ -0,0 +1,70 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.index;
+
+import java.util.*;
+
+/**
+ * Maps case folded names to IDs, several entities may share a name.
+ * The name of every ID is kept as well, so renames and removals only need the ID.
+ */
+final class NameIndex {
+
+    private final Map<String, Set<Long>> ids = new HashMap<>();
+    private final Map<Long, String> names = new HashMap<>();
+
+    /**
+     * Adds or renames an entry.
+     * @param id The ID.
+     * @param name The name.
+     */
+    void put(long id, String name) {
+        remove(id);
+        String key = name.toLowerCase();
+        names.put(id, key);
+        ids.computeIfAbsent(key, k -> new HashSet<>(1)).add(id);
+    }
+
+    /**
+     * Removes an entry.
+     * @param id The ID.
+     */
+    void remove(long id) {
+        String key = names.remove(id);
+        if(key == null) {
+            return;
+        }
+        Set<Long> set = ids.get(key);
+        set.remove(id);
+        if(set.isEmpty()) {
+            ids.remove(key);
+        }
+    }
+
+    /**
+     * Gets the IDs with a name, ignoring case.
+     * @param name The name.
+     * @return A copy of the IDs, possibly empty.
+     */
+    List<Long> get(String name) {
+        Set<Long> set = ids.get(name.toLowerCase());
+        return set == null ? Collections.emptyList() : new ArrayList<>(set);
+    }
+
+}
@@ -20,10 +20,13 @@ package com.ibdiscord.input;
 
 import com.ibdiscord.command.CommandContext;
 import com.ibdiscord.utils.objects.Tuple;
+import com.ibdiscord.utils.scheduler.ScheduledJob;
+import com.ibdiscord.utils.scheduler.Scheduler;
 import net.dv8tion.jda.api.entities.Member;
 
 import java.util.Map;
-import java.util.concurrent.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 public enum InputHandler {
 
@@ -32,8 +35,7 @@ public enum InputHandler {
      */
     INSTANCE;
 
-    private final Map<Long, Map<Long, Tuple<Input, ScheduledFuture>>> inputs = new ConcurrentHashMap<>();
-    private final ScheduledExecutorService executorService = Executors.newScheduledThreadPool(2);
+    private final Map<Long, Map<Long, Tuple<Input, ScheduledJob>>> inputs = new ConcurrentHashMap<>();
 
     /**
      * Starts an input for a member.
@@ -42,18 +44,15 @@ public enum InputHandler {
      * @param initial The initial context of the message.
      */
     public void start(Member member, Input input, CommandContext initial) {
-        Tuple<Input, ScheduledFuture> tuple = getFor(member);
+        Tuple<Input, ScheduledJob> tuple = getFor(member);
         if(tuple != null) {
             throw new IllegalStateException("Already processing input, cannot start new input.");
         }
-        ScheduledFuture future = executorService.schedule(() -> {
-                stop(member);
-                initial.getChannel().sendMessage("Input timed out.").queue();
-            },
-            input.getTimeout(),
-            TimeUnit.MILLISECONDS
-        );
-        tuple = new Tuple<>(input, future);
+        ScheduledJob job = Scheduler.INSTANCE.schedule(input.getTimeout(), TimeUnit.MILLISECONDS, () -> {
+            stop(member);
+            initial.getChannel().sendMessage("Input timed out.").queue();
+        });
+        tuple = new Tuple<>(input, job);
         inputs.get(member.getGuild().getIdLong()).put(member.getUser().getIdLong(), tuple);
         input.initialize(initial);
     }
@@ -68,7 +67,7 @@ public enum InputHandler {
      */
     public synchronized boolean offer(Member member, CommandContext context) {
         construct(member);
-        Tuple<Input, ScheduledFuture> tuple = getFor(member);
+        Tuple<Input, ScheduledJob> tuple = getFor(member);
         if(tuple == null) {
             return true;
         }
@@ -92,11 +91,11 @@ public enum InputHandler {
      * @param member The member.
      */
     private void stop(Member member) {
-        Tuple<Input, ScheduledFuture> tuple = getFor(member);
+        Tuple<Input, ScheduledJob> tuple = getFor(member);
         if(tuple == null) {
             return;
         }
-        tuple.getPropertyB().cancel(true);
+        tuple.getPropertyB().cancel();
         inputs.get(member.getGuild().getIdLong()).remove(member.getUser().getIdLong());
     }
 
@@ -105,7 +104,7 @@ public enum InputHandler {
      * @param member The member.
      * @return A tuple of input and executor task.
      */
-    private Tuple<Input, ScheduledFuture> getFor(Member member) {
+    private Tuple<Input, ScheduledJob> getFor(Member member) {
         construct(member);
         if(!inputs.containsKey(member.getGuild().getIdLong())) {
             return null;
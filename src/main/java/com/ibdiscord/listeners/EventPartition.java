@@ -0,0 +1,190 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.listeners;
+
+import com.ibdiscord.IBai;
+import com.ibdiscord.utils.objects.AbstractTask;
+import com.ibdiscord.utils.objects.Tuple;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.message.GenericMessageEvent;
+import net.dv8tion.jda.api.events.message.guild.GenericGuildMessageEvent;
+import net.dv8tion.jda.api.events.message.guild.react.GenericGuildMessageReactionEvent;
+import net.dv8tion.jda.api.events.message.priv.GenericPrivateMessageEvent;
+import net.dv8tion.jda.api.events.message.priv.react.GenericPrivateMessageReactionEvent;
+import net.dv8tion.jda.api.events.message.react.GenericMessageReactionEvent;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class EventPartition extends AbstractTask {
+
+    private static final long OFFER_TIMEOUT = 1000;
+
+    private final PartitionedEventManager manager;
+    private final int index;
+    private final BlockingQueue<Tuple<Object, Long>> queue;
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long lastLag;
+
+    /**
+     * Creates a partition.
+     * @param manager The event manager that dispatches the events.
+     * @param index The index of the partition.
+     * @param limit The maximum number of waiting events.
+     */
+    EventPartition(PartitionedEventManager manager, int index, int limit) {
+        super("Event-Partition-" + index);
+        this.manager = manager;
+        this.index = index;
+        this.queue = new LinkedBlockingQueue<>(limit);
+    }
+
+    /**
+     * Queues an event.
+     * If the partition is full, the caller waits for room, which slows the gateway down instead of letting the
+     * backlog grow without bounds. Only messages are ever dropped, and only after waiting for a while: every other
+     * event changes state the bot keeps track of, such as members, roles, bans and vote reactions.
+     * @param event The event.
+     */
+    void offer(GenericEvent event) {
+        Tuple<Object, Long> entry = new Tuple<>(event, System.nanoTime());
+        boolean queued;
+        try {
+            if(isSheddable(event)) {
+                queued = queue.offer(entry, OFFER_TIMEOUT, TimeUnit.MILLISECONDS);
+            } else {
+                queue.put(entry);
+                queued = true;
+            }
+        } catch(InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if(!queued) {
+            dropped.incrementAndGet();
+            IBai.INSTANCE.getLogger().warn("Event partition {} is full, dropped {}",
+                    index,
+                    event.getClass().getSimpleName()
+            );
+        }
+    }
+
+    /**
+     * Queues a task, which runs in order with the events of the partition.
+     * The caller waits for room if the partition is full, as tasks are never dropped.
+     * @param task The task.
+     */
+    void submit(Runnable task) {
+        Tuple<Object, Long> entry = new Tuple<>(task, System.nanoTime());
+        try {
+            queue.put(entry);
+        } catch(InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            IBai.INSTANCE.getLogger().warn("Interrupted while submitting a task to event partition {}", index);
+        }
+    }
+
+    /**
+     * Dispatches events and runs tasks until the thread is interrupted.
+     */
+    @Override
+    protected void execute() {
+        while(!Thread.currentThread().isInterrupted()) {
+            Tuple<Object, Long> entry;
+            try {
+                entry = queue.take();
+            } catch(InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            lastLag = System.nanoTime() - entry.getPropertyB();
+            try {
+                if(entry.getPropertyA() instanceof Runnable) {
+                    ((Runnable) entry.getPropertyA()).run();
+                } else {
+                    manager.dispatch((GenericEvent) entry.getPropertyA());
+                }
+            } catch(RuntimeException exception) {
+                IBai.INSTANCE.getLogger().error("Failed to dispatch {}", entry.getPropertyA(), exception);
+            }
+            processed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Checks whether an event may be dropped when the partition is full.
+     * @param event The event.
+     * @return True if it is a message event other than a reaction, false otherwise.
+     */
+    private static boolean isSheddable(GenericEvent event) {
+        if(event instanceof GenericMessageReactionEvent
+                || event instanceof GenericGuildMessageReactionEvent
+                || event instanceof GenericPrivateMessageReactionEvent) {
+            return false;
+        }
+        return event instanceof GenericMessageEvent
+                || event instanceof GenericGuildMessageEvent
+                || event instanceof GenericPrivateMessageEvent;
+    }
+
+    /**
+     * Gets the number of events waiting to be dispatched.
+     * @return The count.
+     */
+    public int getDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Gets how long the oldest waiting event has been queued for.
+     * @return The time in milliseconds, 0 if nothing is waiting.
+     */
+    public long getLag() {
+        Tuple<Object, Long> head = queue.peek();
+        return head == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - head.getPropertyB());
+    }
+
+    /**
+     * Gets how long the most recently dispatched event was queued for.
+     * @return The time in milliseconds.
+     */
+    public long getLastLag() {
+        return TimeUnit.NANOSECONDS.toMillis(lastLag);
+    }
+
+    /**
+     * Gets the number of events dispatched.
+     * @return The count.
+     */
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    /**
+     * Gets the number of message events dropped because the partition was full.
+     * @return The count.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+}
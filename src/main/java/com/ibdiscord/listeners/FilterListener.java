@@ -25,6 +25,7 @@ import com.ibdiscord.data.db.entries.GuildData;
 import com.ibdiscord.data.db.entries.filter.FilterData;
 import com.ibdiscord.data.db.entries.filter.FilterNotifyData;
 import com.ibdiscord.data.db.entries.monitor.MonitorData;
+import com.ibdiscord.delivery.DeliveryQueue;
 import com.ibdiscord.utils.UDatabase;
 import com.ibdiscord.utils.objects.GuildedCache;
 import de.arraying.gravity.Gravity;
@@ -105,15 +106,13 @@ public final class FilterListener extends ListenerAdapter {
                 StringBuilder builder = new StringBuilder(message);
                 builder.insert(match.get().end(), "**");
                 builder.insert(match.get().start(), "**");
-                author.openPrivateChannel().queue(dm -> {
-                    String send = String.format("The following message has been flagged and deleted for potentially "
-                            + "breaking the rules on %s (offending phrase bolded):\n\n%s"
-                            + "\n\n If you believe you haven't broken any rules, or have any other questions or concerns "
-                            + "regarding this, you can contact the staff team for clarification by DMing the ModMail bot, "
-                            + "at the top of the sidebar on the server.", guild.getName(), builder.toString());
-                    send = send.length() > 2000 ? send.substring(0, 2000) : send;
-                    dm.sendMessage(send).queue();
-                });
+                String send = String.format("The following message has been flagged and deleted for potentially "
+                        + "breaking the rules on %s (offending phrase bolded):\n\n%s"
+                        + "\n\n If you believe you haven't broken any rules, or have any other questions or concerns "
+                        + "regarding this, you can contact the staff team for clarification by DMing the ModMail bot, "
+                        + "at the top of the sidebar on the server.", guild.getName(), builder.toString());
+                send = send.length() > 2000 ? send.substring(0, 2000) : send;
+                DeliveryQueue.INSTANCE.send(author.getId(), send);
                 MonitorData monitorData = gravity.load(new MonitorData(guild.getId()));
                 TextChannel monitorChannel = guild.getTextChannelById(
                         monitorData.get(MonitorData.MESSAGE_CHANNEL).defaulting(0).asLong()
@@ -21,42 +21,28 @@ package com.ibdiscord.listeners;
 import com.ibdiscord.IBai;
 import com.ibdiscord.command.actions.Opt;
 import com.ibdiscord.data.db.DataContainer;
-import com.ibdiscord.data.db.entries.GuildData;
 import com.ibdiscord.data.db.entries.OptData;
 import com.ibdiscord.data.db.entries.RoleData;
-import com.ibdiscord.data.db.entries.helper.HelperMessageData;
-import com.ibdiscord.data.db.entries.helper.HelperMessageRolesData;
-import com.ibdiscord.punish.Punishment;
-import com.ibdiscord.punish.PunishmentHandler;
-import com.ibdiscord.punish.PunishmentType;
-import com.ibdiscord.utils.UEmbed;
+import com.ibdiscord.helper.HelperMessageHandler;
+import com.ibdiscord.punish.AuditCorrelator;
+import com.ibdiscord.utils.UMember;
 import de.arraying.gravity.Gravity;
-import net.dv8tion.jda.api.audit.AuditLogChange;
-import net.dv8tion.jda.api.audit.AuditLogEntry;
-import net.dv8tion.jda.api.audit.AuditLogKey;
-import net.dv8tion.jda.api.audit.TargetType;
+import net.dv8tion.jda.api.audit.ActionType;
 import net.dv8tion.jda.api.entities.*;
 import net.dv8tion.jda.api.events.guild.GuildUnbanEvent;
 import net.dv8tion.jda.api.events.guild.member.GuildMemberJoinEvent;
-import net.dv8tion.jda.api.events.guild.member.GuildMemberLeaveEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
 import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleAddEvent;
 import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleRemoveEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 
 import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 public final class GuildListener extends ListenerAdapter {
 
-    private final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
-    private final Object mutex = new Object();
-
     /**
      * When a member joins the server.
      * @param event The event instance.
@@ -97,15 +83,27 @@ public final class GuildListener extends ListenerAdapter {
 
     /**
      * When a member leaves a server.
+     * This also fires for members that are not cached, whose roles are only known if they were retrieved before.
      * @param event The event instance.
      */
     @Override
-    public void onGuildMemberLeave(GuildMemberLeaveEvent event) {
-        updateHelperMessages(event.getGuild(), event.getMember().getRoles());
-        queryAuditLog(event.getGuild(), event.getMember().getUser().getIdLong());
+    public void onGuildMemberRemove(GuildMemberRemoveEvent event) {
+        Member member = event.getMember() != null
+                ? event.getMember()
+                : UMember.getMember(event.getGuild(), event.getUser().getId());
+        UMember.invalidate(event.getGuild(), event.getUser().getId());
+        AuditCorrelator.INSTANCE.expect(event.getGuild(),
+                event.getUser().getIdLong(),
+                ActionType.KICK,
+                ActionType.BAN
+        );
+        if(member == null) {
+            return;
+        }
+        HelperMessageHandler.INSTANCE.update(event.getGuild(), member.getRoles());
         Gravity gravity = DataContainer.INSTANCE.getGravity();
-        RoleData roleData = gravity.load(new RoleData(event.getGuild().getId(), event.getMember().getUser().getId()));
-        for(Role role : event.getMember().getRoles()) {
+        RoleData roleData = gravity.load(new RoleData(event.getGuild().getId(), event.getUser().getId()));
+        for(Role role : member.getRoles()) {
             roleData.add(role.getId());
         }
         gravity.save(roleData);
@@ -117,8 +115,12 @@ public final class GuildListener extends ListenerAdapter {
      */
     @Override
     public void onGuildMemberRoleAdd(GuildMemberRoleAddEvent event) {
-        updateHelperMessages(event.getGuild(), event.getRoles());
-        queryAuditLog(event.getGuild(), event.getMember().getUser().getIdLong());
+        UMember.invalidate(event.getGuild(), event.getMember().getUser().getId());
+        HelperMessageHandler.INSTANCE.update(event.getGuild(), event.getRoles());
+        AuditCorrelator.INSTANCE.expect(event.getGuild(),
+                event.getMember().getUser().getIdLong(),
+                ActionType.MEMBER_ROLE_UPDATE
+        );
     }
 
     /**
@@ -127,8 +129,12 @@ public final class GuildListener extends ListenerAdapter {
      */
     @Override
     public void onGuildMemberRoleRemove(GuildMemberRoleRemoveEvent event) {
-        updateHelperMessages(event.getGuild(), event.getRoles());
-        queryAuditLog(event.getGuild(), event.getMember().getUser().getIdLong());
+        UMember.invalidate(event.getGuild(), event.getMember().getUser().getId());
+        HelperMessageHandler.INSTANCE.update(event.getGuild(), event.getRoles());
+        AuditCorrelator.INSTANCE.expect(event.getGuild(),
+                event.getMember().getUser().getIdLong(),
+                ActionType.MEMBER_ROLE_UPDATE
+        );
     }
 
     /**
@@ -137,155 +143,6 @@ public final class GuildListener extends ListenerAdapter {
      */
     @Override
     public void onGuildUnban(GuildUnbanEvent event) {
-        queryAuditLog(event.getGuild(), event.getUser().getIdLong());
-    }
-
-    /**
-     * Queries the audit logs to gain information about punishment handling.
-     * @param guild The guild.
-     * @param target The target member.
-     */
-    private void queryAuditLog(Guild guild, long target) {
-        executorService.schedule(() -> {
-            synchronized(mutex) {
-                guild.retrieveAuditLogs().queue(entries -> {
-                    if(entries.isEmpty()) {
-                        return;
-                    }
-                    AuditLogEntry latest = entries.get(0);
-                    IBai.INSTANCE.getLogger().info("Latest audit log: type '{}', target type '{}', target id '{}', "
-                                    + "user {}, options {}",
-                            latest.getType(),
-                            latest.getTargetType(),
-                            latest.getTargetId(),
-                            latest.getUser(),
-                            latest.getOptions());
-                    if(latest.getTargetType() != TargetType.MEMBER
-                            || latest.getTargetIdLong() != target) {
-                        IBai.INSTANCE.getLogger().info("Test 1: {}, Test 2: {}",
-                                (latest.getTargetType() != TargetType.MEMBER),
-                                (latest.getTargetIdLong() != target));
-                        return;
-                    }
-                    guild.getJDA().retrieveUserById(latest.getTargetIdLong()).queue(user -> {
-                        User staff = latest.getUser();
-                        String reason = latest.getReason();
-                        if(user == null
-                                || staff == null) {
-                            throw new RuntimeException("user/staff nil");
-                        }
-                        boolean redacted = false;
-                        if(reason != null
-                                && (reason.toLowerCase().contains("-redacted")
-                                || reason.toLowerCase().contains("-redact"))) {
-                            redacted = true;
-                        }
-                        Punishment punishment = new Punishment(null,
-                                user.getAsTag(),
-                                user.getId(),
-                                staff.getAsTag(),
-                                staff.getId(),
-                                reason,
-                                redacted
-                        );
-                        PunishmentHandler handler = new PunishmentHandler(guild, punishment);
-                        switch(latest.getType()) {
-                            case KICK:
-                                punishment.setType(PunishmentType.KICK);
-                                handler.onPunish();
-                                break;
-                            case MEMBER_ROLE_UPDATE:
-                                AuditLogChange rolesAddedRaw = latest.getChangeByKey(AuditLogKey.MEMBER_ROLES_ADD);
-                                AuditLogChange rolesRemovedRaw = latest.getChangeByKey(AuditLogKey.MEMBER_ROLES_REMOVE);
-                                if(rolesAddedRaw != null) {
-                                    if(staff.getIdLong() == guild.getJDA().getSelfUser().getIdLong()) {
-                                        IBai.INSTANCE.getLogger().info("Ignored adding role since it was sent by user "
-                                                + "{} (self)",
-                                            staff.getIdLong()
-                                        );
-                                        return;
-                                    }
-                                    List<Map<String, String>> roles = rolesAddedRaw.getNewValue();
-                                    if(isNotMute(guild, roles)) {
-                                        return;
-                                    }
-                                    punishment.setType(PunishmentType.MUTE);
-                                    handler.onPunish();
-                                }
-                                if(rolesRemovedRaw != null) {
-                                    List<Map<String, String>> roles = rolesRemovedRaw.getNewValue();
-                                    if(isNotMute(guild, roles)) {
-                                        return;
-                                    }
-                                    punishment.setType(PunishmentType.MUTE);
-                                    handler.onRevocation();
-                                }
-                                break;
-                            case BAN:
-                                punishment.setType(PunishmentType.BAN);
-                                handler.onPunish();
-                                break;
-                            case UNBAN:
-                                punishment.setType(PunishmentType.BAN);
-                                handler.onRevocation();
-                                break;
-                            default:
-                                break;
-                        }
-                    });
-                }, error -> {
-                        IBai.INSTANCE.getLogger().info("Blimey, there's been an error.");
-                        error.printStackTrace();
-                    }
-                );
-            }
-        }, 3, TimeUnit.SECONDS);
-    }
-
-    /**
-     * Whether or not a list of role IDs contains the muted role for the guild.
-     * @param guild The guild.
-     * @param roles A list of roles.
-     * @return True if it does, false otherwise.
-     */
-    private boolean isNotMute(Guild guild, List<Map<String, String>> roles) {
-        if(roles == null) {
-            return false;
-        }
-        String id = DataContainer.INSTANCE.getGravity().load(new GuildData(guild.getId())).get(GuildData.MUTE)
-                .defaulting("")
-                .asString();
-        for(Map<String, String> entry : roles) {
-            if(entry.get("id").equalsIgnoreCase(id)) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    /**
-     * Updates the Helper Messages if someone is helpered or unhelpered.
-     */
-    private void updateHelperMessages(Guild guild, List<Role> roles) {
-        HelperMessageRolesData helperMessageRolesData = DataContainer.INSTANCE.getGravity().load(
-                new HelperMessageRolesData(guild.getId())
-        );
-
-        roles.forEach(role -> {
-            if (helperMessageRolesData.contains(role.getId())) {
-                HelperMessageData helperMessageData = DataContainer.INSTANCE.getGravity().load(
-                        new HelperMessageData(guild.getId(), role.getId())
-                );
-
-                helperMessageData.getKeys().stream().forEach(channelId -> {
-                    TextChannel channel = guild.getTextChannelById(channelId);
-                    if (channel == null) {
-                        return;
-                    }
-                    channel.editMessageById(helperMessageData.get(channelId).asString(),
-                            UEmbed.helperMessageEmbed(guild, role)).queue();
-                });
-            }
-        });
+        AuditCorrelator.INSTANCE.expect(event.getGuild(), event.getUser().getIdLong(), ActionType.UNBAN);
     }
 }
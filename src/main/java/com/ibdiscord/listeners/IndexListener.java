@@ -0,0 +1,252 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.listeners;
+
+import com.ibdiscord.index.IndexHandler;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.channel.category.CategoryCreateEvent;
+import net.dv8tion.jda.api.events.channel.category.CategoryDeleteEvent;
+import net.dv8tion.jda.api.events.channel.category.update.CategoryUpdateNameEvent;
+import net.dv8tion.jda.api.events.channel.text.TextChannelCreateEvent;
+import net.dv8tion.jda.api.events.channel.text.TextChannelDeleteEvent;
+import net.dv8tion.jda.api.events.channel.text.update.TextChannelUpdateNameEvent;
+import net.dv8tion.jda.api.events.channel.voice.VoiceChannelCreateEvent;
+import net.dv8tion.jda.api.events.channel.voice.VoiceChannelDeleteEvent;
+import net.dv8tion.jda.api.events.channel.voice.update.VoiceChannelUpdateNameEvent;
+import net.dv8tion.jda.api.events.guild.GuildJoinEvent;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.events.guild.GuildReadyEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberJoinEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
+import net.dv8tion.jda.api.events.role.RoleCreateEvent;
+import net.dv8tion.jda.api.events.role.RoleDeleteEvent;
+import net.dv8tion.jda.api.events.role.update.RoleUpdateNameEvent;
+import net.dv8tion.jda.api.events.user.update.UserUpdateDiscriminatorEvent;
+import net.dv8tion.jda.api.events.user.update.UserUpdateNameEvent;
+import net.dv8tion.jda.api.events.user.update.UserUpdateOnlineStatusEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+
+/**
+ * Keeps the guild indexes and counters up to date.
+ */
+public final class IndexListener extends ListenerAdapter {
+
+    /**
+     * When a guild becomes available on startup.
+     * Its counters are built here, before any change to them is applied.
+     * @param event The event.
+     */
+    @Override
+    public void onGuildReady(GuildReadyEvent event) {
+        IndexHandler.INSTANCE.getCounters(event.getGuild());
+    }
+
+    /**
+     * When the bot joins a guild.
+     * @param event The event.
+     */
+    @Override
+    public void onGuildJoin(GuildJoinEvent event) {
+        IndexHandler.INSTANCE.getCounters(event.getGuild());
+    }
+
+    /**
+     * When a member joins.
+     * @param event The event.
+     */
+    @Override
+    public void onGuildMemberJoin(GuildMemberJoinEvent event) {
+        IndexHandler.INSTANCE.get(event.getGuild()).putMember(event.getMember());
+        IndexHandler.INSTANCE.updateCounters(event.getGuild(), counters -> counters.add(event.getMember()));
+    }
+
+    /**
+     * When a member leaves, is kicked or is banned.
+     * @param event The event.
+     */
+    @Override
+    public void onGuildMemberRemove(GuildMemberRemoveEvent event) {
+        IndexHandler.INSTANCE.get(event.getGuild()).removeMember(event.getUser().getIdLong());
+        if(event.getMember() != null) { // Members that were never cached were never counted either.
+            IndexHandler.INSTANCE.updateCounters(event.getGuild(), counters -> counters.remove(event.getMember()));
+        }
+    }
+
+    /**
+     * When a member's status changes.
+     * @param event The event.
+     */
+    @Override
+    public void onUserUpdateOnlineStatus(UserUpdateOnlineStatusEvent event) {
+        IndexHandler.INSTANCE.updateCounters(event.getGuild(),
+                counters -> counters.updateStatus(event.getOldOnlineStatus(), event.getNewOnlineStatus())
+        );
+    }
+
+    /**
+     * When a user changes their name.
+     * @param event The event.
+     */
+    @Override
+    public void onUserUpdateName(UserUpdateNameEvent event) {
+        updateUser(event.getUser());
+    }
+
+    /**
+     * When a user changes their discriminator.
+     * @param event The event.
+     */
+    @Override
+    public void onUserUpdateDiscriminator(UserUpdateDiscriminatorEvent event) {
+        updateUser(event.getUser());
+    }
+
+    /**
+     * When a role is created.
+     * @param event The event.
+     */
+    @Override
+    public void onRoleCreate(RoleCreateEvent event) {
+        IndexHandler.INSTANCE.get(event.getGuild()).putRole(event.getRole());
+    }
+
+    /**
+     * When a role is deleted.
+     * @param event The event.
+     */
+    @Override
+    public void onRoleDelete(RoleDeleteEvent event) {
+        IndexHandler.INSTANCE.get(event.getGuild()).removeRole(event.getRole().getIdLong());
+    }
+
+    /**
+     * When a role is renamed.
+     * @param event The event.
+     */
+    @Override
+    public void onRoleUpdateName(RoleUpdateNameEvent event) {
+        IndexHandler.INSTANCE.get(event.getGuild()).putRole(event.getRole());
+    }
+
+    /**
+     * When a text channel is created.
+     * @param event The event.
+     */
+    @Override
+    public void onTextChannelCreate(TextChannelCreateEvent event) {
+        IndexHandler.INSTANCE.get(event.getGuild()).putChannel(event.getChannel());
+    }
+
+    /**
+     * When a text channel is deleted.
+     * @param event The event.
+     */
+    @Override
+    public void onTextChannelDelete(TextChannelDeleteEvent event) {
+        IndexHandler.INSTANCE.get(event.getGuild()).removeChannel(event.getChannel().getIdLong());
+    }
+
+    /**
+     * When a text channel is renamed.
+     * @param event The event.
+     */
+    @Override
+    public void onTextChannelUpdateName(TextChannelUpdateNameEvent event) {
+        IndexHandler.INSTANCE.get(event.getGuild()).putChannel(event.getChannel());
+    }
+
+    /**
+     * When a voice channel is created.
+     * @param event The event.
+     */
+    @Override
+    public void onVoiceChannelCreate(VoiceChannelCreateEvent event) {
+        IndexHandler.INSTANCE.get(event.getGuild()).putChannel(event.getChannel());
+    }
+
+    /**
+     * When a voice channel is deleted.
+     * @param event The event.
+     */
+    @Override
+    public void onVoiceChannelDelete(VoiceChannelDeleteEvent event) {
+        IndexHandler.INSTANCE.get(event.getGuild()).removeChannel(event.getChannel().getIdLong());
+    }
+
+    /**
+     * When a voice channel is renamed.
+     * @param event The event.
+     */
+    @Override
+    public void onVoiceChannelUpdateName(VoiceChannelUpdateNameEvent event) {
+        IndexHandler.INSTANCE.get(event.getGuild()).putChannel(event.getChannel());
+    }
+
+    /**
+     * When a category is created.
+     * @param event The event.
+     */
+    @Override
+    public void onCategoryCreate(CategoryCreateEvent event) {
+        IndexHandler.INSTANCE.get(event.getGuild()).putChannel(event.getCategory());
+    }
+
+    /**
+     * When a category is deleted.
+     * @param event The event.
+     */
+    @Override
+    public void onCategoryDelete(CategoryDeleteEvent event) {
+        IndexHandler.INSTANCE.get(event.getGuild()).removeChannel(event.getCategory().getIdLong());
+    }
+
+    /**
+     * When a category is renamed.
+     * @param event The event.
+     */
+    @Override
+    public void onCategoryUpdateName(CategoryUpdateNameEvent event) {
+        IndexHandler.INSTANCE.get(event.getGuild()).putChannel(event.getCategory());
+    }
+
+    /**
+     * When the bot leaves a guild.
+     * @param event The event.
+     */
+    @Override
+    public void onGuildLeave(GuildLeaveEvent event) {
+        IndexHandler.INSTANCE.remove(event.getGuild());
+    }
+
+    /**
+     * Re-indexes a user in every guild they share with the bot.
+     * @param user The user.
+     */
+    private void updateUser(User user) {
+        for(Guild guild : user.getMutualGuilds()) {
+            Member member = guild.getMember(user);
+            if(member != null) {
+                IndexHandler.INSTANCE.get(guild).putMember(member);
+            }
+        }
+    }
+
+}
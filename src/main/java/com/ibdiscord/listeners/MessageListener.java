@@ -21,6 +21,7 @@ package com.ibdiscord.listeners;
 import com.ibdiscord.IBai;
 import com.ibdiscord.command.Command;
 import com.ibdiscord.command.CommandContext;
+import com.ibdiscord.command.CommandExecutor;
 import com.ibdiscord.command.permission.CommandPermission;
 import com.ibdiscord.data.db.DataContainer;
 import com.ibdiscord.data.db.entries.GuildData;
@@ -111,8 +112,9 @@ public final class MessageListener extends ListenerAdapter {
         }
         String commandName = arguments[0].toLowerCase();
         Command command = IBai.INSTANCE.getCommandRegistry().query(commandName);
-        if(command != null) {
-            command.processAndExecute(context);
+        if(command != null
+                && !CommandExecutor.INSTANCE.submit(command, context)) {
+            context.replyI18n("error.command_busy");
         }
     }
 
@@ -0,0 +1,190 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.listeners;
+
+import com.ibdiscord.IBai;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.channel.category.GenericCategoryEvent;
+import net.dv8tion.jda.api.events.channel.text.GenericTextChannelEvent;
+import net.dv8tion.jda.api.events.channel.voice.GenericVoiceChannelEvent;
+import net.dv8tion.jda.api.events.emote.GenericEmoteEvent;
+import net.dv8tion.jda.api.events.guild.GenericGuildEvent;
+import net.dv8tion.jda.api.events.message.GenericMessageEvent;
+import net.dv8tion.jda.api.events.message.guild.GenericGuildMessageEvent;
+import net.dv8tion.jda.api.events.message.priv.GenericPrivateMessageEvent;
+import net.dv8tion.jda.api.events.role.GenericRoleEvent;
+import net.dv8tion.jda.api.events.user.GenericUserEvent;
+import net.dv8tion.jda.api.events.user.GenericUserPresenceEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+import net.dv8tion.jda.api.hooks.IEventManager;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Dispatches events on a fixed set of partitions instead of the gateway thread.
+ * Events are hashed by channel, or by guild if they do not belong to a channel, so events of one channel are
+ * always handled in order while different channels are handled in parallel. User events that do not belong to a
+ * guild are hashed by user.
+ */
+public final class PartitionedEventManager implements IEventManager {
+
+    private final List<EventListener> listeners = new CopyOnWriteArrayList<>();
+    private final EventPartition[] partitions;
+
+    /**
+     * Creates the event manager and starts its partitions.
+     * @param count The number of partitions.
+     * @param limit The maximum number of events waiting on each partition.
+     */
+    public PartitionedEventManager(int count, int limit) {
+        partitions = new EventPartition[Math.max(1, count)];
+        for(int i = 0; i < partitions.length; i++) {
+            partitions[i] = new EventPartition(this, i, Math.max(1, limit));
+            partitions[i].create();
+        }
+    }
+
+    /**
+     * Registers a listener.
+     * @param listener The listener, must be an EventListener.
+     */
+    @Override
+    public void register(Object listener) {
+        if(!(listener instanceof EventListener)) {
+            throw new IllegalArgumentException("Listener must implement EventListener");
+        }
+        listeners.add((EventListener) listener);
+    }
+
+    /**
+     * Unregisters a listener.
+     * @param listener The listener.
+     */
+    @Override
+    public void unregister(Object listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Queues an event on its partition.
+     * @param event The event.
+     */
+    @Override
+    public void handle(GenericEvent event) {
+        partitionOf(keyOf(event)).offer(event);
+    }
+
+    /**
+     * Runs a task on the partition of a key, after the events already queued on it and before any that follow.
+     * @param key The key, such as the guild ID for state that guild events update.
+     * @param task The task.
+     */
+    public void submit(long key, Runnable task) {
+        partitionOf(key).submit(task);
+    }
+
+    /**
+     * Gets all registered listeners.
+     * @return A copy of the listeners.
+     */
+    @Override
+    public List<Object> getRegisteredListeners() {
+        return Collections.unmodifiableList(new ArrayList<>(listeners));
+    }
+
+    /**
+     * Gets the partitions.
+     * @return An unmodifiable list of partitions.
+     */
+    public List<EventPartition> getPartitions() {
+        return Collections.unmodifiableList(Arrays.asList(partitions));
+    }
+
+    /**
+     * Passes an event to every listener on the current thread.
+     * @param event The event.
+     */
+    void dispatch(GenericEvent event) {
+        for(EventListener listener : listeners) {
+            try {
+                listener.onEvent(event);
+            } catch(Throwable throwable) {
+                IBai.INSTANCE.getLogger().error("Listener {} failed to handle {}",
+                        listener.getClass().getSimpleName(),
+                        event.getClass().getSimpleName(),
+                        throwable
+                );
+            }
+        }
+    }
+
+    /**
+     * Gets the partition of a key.
+     * @param key The key.
+     * @return The partition.
+     */
+    private EventPartition partitionOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return partitions[Math.floorMod((int) (hash >>> 32), partitions.length)];
+    }
+
+    /**
+     * Gets the key an event is partitioned by.
+     * @param event The event.
+     * @return The channel ID, the guild ID, the user ID, or 0 for events that belong to none of them.
+     */
+    private static long keyOf(GenericEvent event) {
+        if(event instanceof GenericGuildMessageEvent) {
+            return ((GenericGuildMessageEvent) event).getChannel().getIdLong();
+        }
+        if(event instanceof GenericMessageEvent) {
+            return ((GenericMessageEvent) event).getChannel().getIdLong();
+        }
+        if(event instanceof GenericPrivateMessageEvent) {
+            return ((GenericPrivateMessageEvent) event).getChannel().getIdLong();
+        }
+        if(event instanceof GenericTextChannelEvent) {
+            return ((GenericTextChannelEvent) event).getChannel().getIdLong();
+        }
+        if(event instanceof GenericVoiceChannelEvent) {
+            return ((GenericVoiceChannelEvent) event).getGuild().getIdLong();
+        }
+        if(event instanceof GenericCategoryEvent) {
+            return ((GenericCategoryEvent) event).getGuild().getIdLong();
+        }
+        if(event instanceof GenericGuildEvent) {
+            return ((GenericGuildEvent) event).getGuild().getIdLong();
+        }
+        if(event instanceof GenericRoleEvent) {
+            return ((GenericRoleEvent) event).getGuild().getIdLong();
+        }
+        if(event instanceof GenericEmoteEvent) {
+            return ((GenericEmoteEvent) event).getGuild().getIdLong();
+        }
+        if(event instanceof GenericUserPresenceEvent) {
+            return ((GenericUserPresenceEvent) event).getGuild().getIdLong();
+        }
+        if(event instanceof GenericUserEvent) {
+            return ((GenericUserEvent) event).getUser().getIdLong();
+        }
+        return 0;
+    }
+
+}
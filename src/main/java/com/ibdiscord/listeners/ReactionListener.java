@@ -18,22 +18,19 @@
 
 package com.ibdiscord.listeners;
 
-import com.ibdiscord.data.db.DataContainer;
-import com.ibdiscord.data.db.entries.cassowary.CassowariesData;
-import com.ibdiscord.data.db.entries.cassowary.CassowaryData;
-import com.ibdiscord.data.db.entries.cassowary.CassowaryPenguinData;
-import com.ibdiscord.data.db.entries.react.EmoteData;
-import com.ibdiscord.data.db.entries.react.ReactionData;
+import com.ibdiscord.react.Cassowary;
+import com.ibdiscord.react.ReactionRoleBuffer;
+import com.ibdiscord.react.ReactionRoleHandler;
+import com.ibdiscord.react.ReactionRule;
+import com.ibdiscord.utils.objects.LongHashSet;
 import com.ibdiscord.vote.VoteCache;
 import com.ibdiscord.vote.VoteEntry;
-import de.arraying.gravity.data.property.Property;
 import net.dv8tion.jda.api.entities.*;
 import net.dv8tion.jda.api.events.message.react.MessageReactionAddEvent;
 import net.dv8tion.jda.api.events.message.react.MessageReactionRemoveEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 public final class ReactionListener extends ListenerAdapter {
 
@@ -113,101 +110,65 @@ public final class ReactionListener extends ListenerAdapter {
      */
     private void react(Member member, long message, String emote, boolean add) {
         Guild guild = member.getGuild();
-        ReactionData reactionData = DataContainer.INSTANCE.getGravity().load(new ReactionData(guild.getId(), message));
-        EmoteData emoteData = DataContainer.INSTANCE.getGravity().load(new EmoteData(
-                reactionData.get(emote).asString())
-        );
-
-        Collection<Role> positiveRoles = emoteData.contents().stream()
-                .filter(prop -> !prop.asString().startsWith("!"))
-                .map(prop -> member.getGuild().getRoleById(prop.defaulting(0L).asLong()))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
-
-        Collection<Role> negativeRoles = emoteData.contents().stream()
-                .filter(prop -> prop.asString().startsWith("!"))
-                .map(prop -> prop.asString().replace("!", ""))
-                .map(prop -> member.getGuild().getRoleById(prop))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
+        if(!ReactionRoleHandler.INSTANCE.isReactionMessage(guild.getIdLong(), message)) {
+            return;
+        }
+        ReactionRule rule = ReactionRoleHandler.INSTANCE.getRule(guild.getIdLong(), message, emote);
+        if(rule == null) {
+            return;
+        }
 
-        // Tried to incorporate the 'add' bool into the collection of
-        // the positive and negative roles instead of doing this conditional but
-        // got some weird behaviour. Perhaps make less verbose in future.
-        Collection<Role> rolesToAdd = add ? positiveRoles : negativeRoles;
-        Collection<Role> rolesToRemove = add ? negativeRoles : positiveRoles;
+        long[] rolesToAdd = add ? rule.getPositive() : rule.getNegative();
+        LongHashSet rolesToRemove = new LongHashSet();
+        for(long role : add ? rule.getNegative() : rule.getPositive()) {
+            rolesToRemove.add(role);
+        }
+        long[] userRoles = ReactionRoleBuffer.INSTANCE.getRoles(member);
 
         /* What's black and white and blue all over?
          * A penguin blowing a polar bear.
          */
 
-        CassowariesData cassowariesData = DataContainer.INSTANCE.getGravity().load(new CassowariesData(guild.getId()));
-        CassowaryPenguinData cassowaryPenguins = DataContainer.INSTANCE.getGravity()
-                .load(new CassowaryPenguinData(guild.getId()));
-        for(Property cassowariesProp : cassowariesData.values()) {
-            String cassowaryLabel = cassowariesProp.asString();
-            CassowaryData cassowaryData = DataContainer.INSTANCE.getGravity().load(new CassowaryData(
-                    guild.getId(),
-                    cassowaryLabel)
-            );
-            boolean containsRoleToAdd = !Collections.disjoint(cassowaryData.values().stream()
-                    .map(Property::asString)
-                            .collect(Collectors.toSet()),
-                    rolesToAdd.stream()
-                            .map(ISnowflake::getId)
-                            .collect(Collectors.toSet()));
-
-            // if a role that is about to be added to the user is a member of the cassowary
-            if(containsRoleToAdd) {
-                if(cassowaryPenguins.getKeys().contains(cassowaryLabel.toLowerCase())) { // Handle as penguin-cassowary
-                    String anchorRoleID = cassowaryPenguins.get(cassowaryLabel.toLowerCase()).asString();
-                    Collection<String> cassoRolesSansAnchor = cassowaryData.values().stream()
-                            .map(Property::asString)
-                            .filter(id -> !id.equals(anchorRoleID))
-                            .collect(Collectors.toSet());
-                    List<Role> userRoles = member.getRoles();
-                    boolean userHasCassowaryRoleSansAnchor = !Collections.disjoint(cassoRolesSansAnchor,
-                            userRoles.stream()
-                                .map(ISnowflake::getId)
-                                .collect(Collectors.toSet()));
-                    boolean userHasAnchorRole =  userRoles.stream().anyMatch(role -> role.getId().equals(anchorRoleID));
-                    boolean containsRoleToAddSansAnchor = !Collections.disjoint(cassoRolesSansAnchor,
-                            rolesToAdd.stream()
-                                    .map(ISnowflake::getId)
-                                    .collect(Collectors.toSet()));
-
-                    // If the user has the anchor role already and is trying to add one of the other roles in the
-                    // penguin, return and don't assign any roles.
-                    if(userHasAnchorRole && containsRoleToAddSansAnchor) {
-                        return;
-                    }
+        // only the cassowaries containing a role that is about to be added to the user matter
+        Set<Cassowary> cassowaries = new LinkedHashSet<>();
+        for(long role : rolesToAdd) {
+            cassowaries.addAll(ReactionRoleHandler.INSTANCE.getCassowaries(guild.getIdLong(), role));
+        }
+        for(Cassowary cassowary : cassowaries) {
+            if(cassowary.isPenguin()) { // Handle as penguin-cassowary
+                long anchor = cassowary.getAnchor();
+                boolean userHasAnchorRole = Arrays.binarySearch(userRoles, anchor) >= 0;
+                boolean userHasCassowaryRoleSansAnchor = Arrays.stream(userRoles)
+                        .anyMatch(role -> role != anchor && cassowary.contains(role));
+                boolean containsRoleToAddSansAnchor = Arrays.stream(rolesToAdd)
+                        .anyMatch(role -> role != anchor && cassowary.contains(role));
+
+                // If the user has the anchor role already and is trying to add one of the other roles in the
+                // penguin, return and don't assign any roles.
+                if(userHasAnchorRole && containsRoleToAddSansAnchor) {
+                    return;
+                }
 
-                    // If the user is trying to add the 'safe' (anchor) role in a penguin, and they have any of the
-                    // other roles in the penguin, remove all other roles from them as well as add the anchor role.
-                    if(rolesToAdd.stream().anyMatch(role -> role.getId().equals(anchorRoleID)) && userHasCassowaryRoleSansAnchor) {
-                        rolesToRemove.addAll(cassoRolesSansAnchor.stream()
-                                .map(id -> guild.getRoleById(id))
-                                .collect(Collectors.toSet()));
-                    }
-                } else { // Handle as cassowary
-                    // for each role ID inside the cassowary,
-                    for(Property cassowaryProp : cassowaryData.values()) {
-                        // for each role the user has
-                        for(Role userRole : member.getRoles()) {
-                            if(cassowaryProp.asString().equals(userRole.getId())) {
-                                // add user's role to rolesToRemove
-                                rolesToRemove.add(userRole);
-                            }
+                // If the user is trying to add the 'safe' (anchor) role in a penguin, and they have any of the
+                // other roles in the penguin, remove all other roles from them as well as add the anchor role.
+                if(Arrays.binarySearch(rolesToAdd, anchor) >= 0 && userHasCassowaryRoleSansAnchor) {
+                    for(long role : cassowary.getRoles()) {
+                        if(role != anchor) {
+                            rolesToRemove.add(role);
                         }
                     }
                 }
+            } else { // Handle as cassowary
+                // remove every role the user has inside the cassowary
+                for(long role : userRoles) {
+                    if(cassowary.contains(role)) {
+                        rolesToRemove.add(role);
+                    }
+                }
             }
         }
 
-        List<Role> roles = new ArrayList<>(member.getRoles());
-        roles.removeAll(rolesToRemove);
-        roles.addAll(rolesToAdd);
-        guild.modifyMemberRoles(member, roles).queue();
+        ReactionRoleBuffer.INSTANCE.submit(member, rolesToAdd, rolesToRemove.toArray());
     }
 
     /**
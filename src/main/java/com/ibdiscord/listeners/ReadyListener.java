@@ -20,32 +20,43 @@ package com.ibdiscord.listeners;
 
 import com.ibdiscord.IBai;
 import com.ibdiscord.data.db.DataContainer;
+import com.ibdiscord.data.db.DataProvider;
 import com.ibdiscord.data.db.entries.punish.ExpiryData;
-import com.ibdiscord.data.db.entries.reminder.ReminderData;
-import com.ibdiscord.data.db.entries.reminder.ReminderUserData;
 import com.ibdiscord.data.db.entries.voting.VoteEntryData;
+import com.ibdiscord.data.db.entries.voting.VoteLadderData;
 import com.ibdiscord.data.db.entries.voting.VoteLaddersData;
 import com.ibdiscord.data.db.entries.voting.VoteListData;
-import com.ibdiscord.punish.Punishment;
+import com.ibdiscord.delivery.DeliveryQueue;
+import com.ibdiscord.index.IndexHandler;
 import com.ibdiscord.punish.PunishmentExpiry;
-import com.ibdiscord.reminder.Reminder;
+import com.ibdiscord.react.ReactionRoleHandler;
 import com.ibdiscord.reminder.ReminderHandler;
+import com.ibdiscord.rolejob.RoleJobHandler;
+import com.ibdiscord.utils.objects.NamedThreadFactory;
+import com.ibdiscord.utils.scheduler.Scheduler;
 import com.ibdiscord.vote.VoteCache;
 import com.ibdiscord.vote.VoteEntry;
 import de.arraying.gravity.Gravity;
 import de.arraying.gravity.data.property.Property;
 import net.dv8tion.jda.api.entities.Guild;
-import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.TextChannel;
 import net.dv8tion.jda.api.events.ReadyEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import org.slf4j.Logger;
 
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 public final class ReadyListener extends ListenerAdapter {
 
     /**
      * When the bot is marked as ready.
+     * Recovery runs in the background, so commands are handled while it is still in progress.
      * @param event The event.
      */
     @Override
@@ -60,58 +71,150 @@ public final class ReadyListener extends ListenerAdapter {
             logger.info("Bot \"{}\" by \"{}\" is now connected.", botName, botOwner);
             logger.info("Currently serving {} guilds.", guildNum);
             logger.info("Described as \"{}\", {}.", botDescription, (isPublicBot ? "public" : "private"));
-            Gravity gravity = DataContainer.INSTANCE.getGravity();
-            for(Guild guild : event.getJDA().getGuilds()) {
-                ExpiryData expiryData = gravity.load(new ExpiryData(guild.getId()));
-                for(String key : expiryData.getKeys()) {
-                    long expiry = expiryData.get(key).asLong();
-                    Punishment punishment = Punishment.of(guild, key);
-                    if(System.currentTimeMillis() > expiry) {
-                        PunishmentExpiry.INSTANCE.expire(guild, key, punishment);
-                    } else {
-                        PunishmentExpiry.INSTANCE.schedule(guild,
-                                key,
-                                expiry - System.currentTimeMillis(),
-                                punishment);
-                    }
-                }
-                VoteLaddersData voteLaddersData = gravity.load(new VoteLaddersData(guild.getId()));
-                voteLaddersData.values().stream()
-                        .filter(Objects::nonNull)
-                        .map(Property::asString)
-                        .forEach(ladder -> {
-                            VoteListData voteListData = gravity.load(new VoteListData(guild.getId(), ladder));
-                            voteListData.values().stream()
-                                    .map(Property::asLong)
-                                    .forEach(id -> {
-                                        VoteEntryData entry = gravity.load(new VoteEntryData(guild.getId(),
-                                                ladder,
-                                                id)
-                                        );
-                                        if(!entry.get(VoteEntryData.FINISHED).defaulting(false).asBoolean()) {
-                                            long message = entry.get(VoteEntryData.MESSAGE).defaulting(0).asLong();
-                                            VoteEntry voteEntry = new VoteEntry(guild.getId(), ladder, id);
-                                            voteEntry.load();
-                                            voteEntry.scheduleStart();
-                                            VoteCache.INSTANCE.register(message, voteEntry);
-                                        }
-                                    });
-                        });
-            }
-            ReminderData reminderData = gravity.load(new ReminderData());
-            for(int i = 1; i <= reminderData.get().defaulting(0).asInt(); i++) {
-                ReminderUserData reminderUserData = gravity.load(new ReminderUserData(i));
-                String userId = reminderUserData.get(ReminderUserData.USER).asString();
-                String text = reminderUserData.get(ReminderUserData.TEXT).asString();
-                long time = reminderUserData.get(ReminderUserData.TIME).asLong();
-                User user = event.getJDA().getUserById(userId);
-                ReminderHandler.INSTANCE.schedule(new Reminder(i, time, text), user);
-            }
         }, error -> {
                 error.printStackTrace();
                 System.exit(1);
             }
         );
+        List<Guild> guilds = event.getJDA().getGuilds();
+        new NamedThreadFactory("Recovery").newThread(() -> recover(guilds)).start();
+    }
+
+    /**
+     * Recovers all scheduled state.
+     * Guilds are recovered in parallel, the remaining phases are global.
+     * @param guilds The guilds.
+     */
+    private void recover(List<Guild> guilds) {
+        Logger logger = IBai.INSTANCE.getLogger();
+        long start = System.nanoTime();
+        phase("deliveries", DeliveryQueue.INSTANCE::recover); // Before anything else can queue deliveries.
+        phase("scheduler", Scheduler.INSTANCE::recover);
+        phase("reaction roles", ReactionRoleHandler.INSTANCE::load);
+        AtomicInteger expiries = new AtomicInteger();
+        AtomicInteger votes = new AtomicInteger();
+        phase("guilds", () -> {
+            int threads = Math.max(1, Math.min(guilds.size(), Runtime.getRuntime().availableProcessors() * 2));
+            ExecutorService executor = Executors.newFixedThreadPool(threads, new NamedThreadFactory("Recovery-Guild"));
+            CompletableFuture.allOf(guilds.stream()
+                    .map(guild -> CompletableFuture.runAsync(() -> {
+                        expiries.addAndGet(recoverExpiries(guild));
+                        votes.addAndGet(recoverVotes(guild));
+                    }, executor).exceptionally(throwable -> {
+                        logger.error("Could not recover guild {}", guild.getId(), throwable);
+                        return null;
+                    }))
+                    .toArray(CompletableFuture[]::new)
+            ).join();
+            executor.shutdown();
+            logger.info("Recovered {} guilds: {} punishment expiries, {} votes.",
+                    guilds.size(),
+                    expiries.get(),
+                    votes.get()
+            );
+        });
+        phase("reminders", ReminderHandler.INSTANCE::recover);
+        phase("counters", IndexHandler.INSTANCE::reconcile);
+        phase("role jobs", RoleJobHandler.INSTANCE::recover);
+        logger.info("Recovery finished in {}ms.", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Runs a recovery phase and logs how long it took.
+     * A failing phase is logged and does not stop the following phases.
+     * @param name The name of the phase.
+     * @param phase The phase.
+     */
+    private void phase(String name, Runnable phase) {
+        long start = System.nanoTime();
+        try {
+            phase.run();
+        } catch(RuntimeException exception) {
+            IBai.INSTANCE.getLogger().error("Recovery phase {} failed", name, exception);
+        }
+        IBai.INSTANCE.getLogger().info("Recovery phase {} took {}ms.",
+                name,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+        );
+    }
+
+    /**
+     * Schedules all punishment expiries of a guild that the scheduler does not know yet.
+     * @param guild The guild.
+     * @return The number of expiries scheduled.
+     */
+    private int recoverExpiries(Guild guild) {
+        ExpiryData expiryData = DataContainer.INSTANCE.getGravity().load(new ExpiryData(guild.getId()));
+        int count = 0;
+        for(String key : expiryData.getKeys()) {
+            if(!PunishmentExpiry.INSTANCE.isScheduled(guild, key)) {
+                PunishmentExpiry.INSTANCE.schedule(guild, key, expiryData.get(key).asLong());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Registers and schedules all unfinished votes of a guild.
+     * The vote lists of all ladders and then all vote entries are each read in one batch.
+     * @param guild The guild.
+     * @return The number of votes recovered.
+     */
+    private int recoverVotes(Guild guild) {
+        Gravity gravity = DataContainer.INSTANCE.getGravity();
+        DataProvider provider = new DataProvider();
+        List<String> ladders = gravity.load(new VoteLaddersData(guild.getId())).values().stream()
+                .filter(Objects::nonNull)
+                .map(Property::asString)
+                .collect(Collectors.toList());
+        List<Set<String>> lists = provider.smembers(ladders.stream()
+                .map(ladder -> VoteListData.identifier(guild.getId(), ladder))
+                .collect(Collectors.toList())
+        );
+        List<VoteEntry> entries = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        List<Integer> ladderIndices = new ArrayList<>();
+        for(int i = 0; i < ladders.size(); i++) {
+            for(String id : lists.get(i)) {
+                ladderIndices.add(i);
+                entries.add(new VoteEntry(guild.getId(), ladders.get(i), Long.parseLong(id)));
+                keys.add(VoteEntryData.identifier(guild.getId(), ladders.get(i), Long.parseLong(id)));
+            }
+        }
+        List<Map<String, String>> ladderHashes = provider.hgetall(ladders.stream()
+                .map(ladder -> VoteLadderData.identifier(guild.getId(), ladder))
+                .collect(Collectors.toList())
+        );
+        List<Map<String, String>> hashes = provider.hgetall(keys);
+        int count = 0;
+        for(int i = 0; i < entries.size(); i++) {
+            Map<String, String> hash = hashes.get(i);
+            if(Boolean.parseBoolean(hash.getOrDefault(VoteEntryData.FINISHED, "false"))) {
+                continue;
+            }
+            VoteEntry voteEntry = entries.get(i);
+            Map<String, String> ladderHash = ladderHashes.get(ladderIndices.get(i));
+            voteEntry.load(hash, ladderHash);
+            voteEntry.scheduleStart();
+            long message = Long.parseLong(hash.getOrDefault(VoteEntryData.MESSAGE, "0"));
+            // The persisted tallies may lag behind, so they are corrected from the reactions first. The vote is only
+            // registered after that, as the recount would otherwise overwrite the votes counted in the meantime.
+            TextChannel channel = guild.getTextChannelById(ladderHash.getOrDefault(VoteLadderData.CHANNEL, "0"));
+            if(channel != null && message != 0) {
+                channel.retrieveMessageById(message).queue(object -> {
+                    voteEntry.recount(object.getReactions());
+                    VoteCache.INSTANCE.register(message, voteEntry);
+                }, error -> {
+                    IBai.INSTANCE.getLogger().warn("Could not recount vote {}", message);
+                    VoteCache.INSTANCE.register(message, voteEntry);
+                });
+            } else {
+                VoteCache.INSTANCE.register(message, voteEntry);
+            }
+            count++;
+        }
+        return count;
     }
 
 }
@@ -20,14 +20,18 @@ package com.ibdiscord.odds;
 
 import com.ibdiscord.IBai;
 import com.ibdiscord.command.CommandContext;
+import com.ibdiscord.delivery.DeliveryQueue;
 import com.ibdiscord.i18n.LocaliserHandler;
 import com.ibdiscord.utils.UDatabase;
 import com.ibdiscord.utils.UFormatter;
+import com.ibdiscord.utils.UMember;
 import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.PrivateChannel;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 public enum OddsManager {
@@ -102,9 +106,12 @@ public enum OddsManager {
                 .forEach(bet -> {
 
                     if(!finalValid || finalGuess < 1 || finalGuess > bet.getProbabilityDenominator()) {
-                        channel.sendMessage(LocaliserHandler.INSTANCE.translateWithUser(channel.getUser(),
-                                "error.odds_input",
-                                bet.getProbabilityDenominator())).queue();
+                        DeliveryQueue.INSTANCE.send(userID,
+                                LocaliserHandler.INSTANCE.translateWithUser(channel.getUser(),
+                                        "error.odds_input",
+                                        bet.getProbabilityDenominator()
+                                )
+                        );
                         return;
                     }
 
@@ -116,26 +123,32 @@ public enum OddsManager {
 
                     if(bet.getGuessUserA() != 0 && bet.getGuessUserB() != 0) {
                         Guild guild = IBai.INSTANCE.getJda().getGuildById(bet.getInitialGuild());
-                        String message;
+                        CompletableFuture<String> message;
 
+                        assert guild != null;
                         if(bet.getGuessUserA() == bet.getGuessUserB()) {
-                            message = LocaliserHandler.INSTANCE.translateWithUser(channel.getUser(),
+                            message = CompletableFuture.completedFuture(LocaliserHandler.INSTANCE.translateWithUser(
+                                    channel.getUser(),
                                     "success.odds_match",
                                     finalGuess
-                            );
+                            ));
                         } else {
-                            message = LocaliserHandler.INSTANCE.translateWithUser(channel.getUser(),
-                                    "success.odds_failed",
-                                    UFormatter.formatMember(guild.getMemberById(bet.getUserA()).getUser()),
-                                    bet.getGuessUserA(),
-                                    UFormatter.formatMember(guild.getMemberById(bet.getUserB()).getUser()),
-                                    bet.getGuessUserB());
+                            message = participant(guild, bet.getUserA())
+                                    .thenCombine(participant(guild, bet.getUserB()), (userA, userB) ->
+                                            LocaliserHandler.INSTANCE.translateWithUser(channel.getUser(),
+                                                    "success.odds_failed",
+                                                    format(userA, bet.getUserA()),
+                                                    bet.getGuessUserA(),
+                                                    format(userB, bet.getUserB()),
+                                                    bet.getGuessUserB()
+                                            )
+                                    );
                         }
 
-                        assert guild != null;
-                        guild.getTextChannelById(bet.getInitialChannel())
-                                .sendMessage(message)
-                                .queue();
+                        message.thenAccept(text -> guild.getTextChannelById(bet.getInitialChannel())
+                                .sendMessage(text)
+                                .queue()
+                        );
                         bet.setFulfilled(true);
                     }
                 });
@@ -164,10 +177,36 @@ public enum OddsManager {
             context.replyI18n("error.odds_pending");
         } else {
             pendingBets.removeAll(priorBet);
-            context.replyI18n("success.odds_cancel",
-                    UFormatter.formatMember(context.getGuild().getMemberById(priorBet.get(0).getUserA()).getUser()),
-                    UFormatter.formatMember(context.getGuild().getMemberById(priorBet.get(0).getUserB()).getUser()));
+            Bet bet = priorBet.get(0);
+            participant(context.getGuild(), bet.getUserA())
+                    .thenAcceptBoth(participant(context.getGuild(), bet.getUserB()), (userA, userB) ->
+                            context.replyI18n("success.odds_cancel",
+                                    format(userA, bet.getUserA()),
+                                    format(userB, bet.getUserB())
+                            )
+                    );
         }
     }
 
+    /**
+     * Retrieves a participant of a bet for display.
+     * A failed lookup is treated like an absent member, as the result is only ever shown and never acted upon.
+     * @param guild The guild.
+     * @param id The user ID.
+     * @return A future that completes with the member, or null if they could not be retrieved.
+     */
+    private CompletableFuture<Member> participant(Guild guild, String id) {
+        return UMember.retrieveMember(guild, id).exceptionally(throwable -> null);
+    }
+
+    /**
+     * Formats a participant of a bet.
+     * @param member The member, or null if they are no longer a member of the guild.
+     * @param id The user ID.
+     * @return The formatted member, or the mention of the user if they are not a member.
+     */
+    private String format(Member member, String id) {
+        return member != null ? UFormatter.formatMember(member.getUser()) : "<@" + id + ">";
+    }
+
 }
@@ -0,0 +1,382 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.punish;
+
+import com.ibdiscord.IBai;
+import com.ibdiscord.data.db.DataContainer;
+import com.ibdiscord.data.db.entries.GuildData;
+import com.ibdiscord.utils.scheduler.Scheduler;
+import net.dv8tion.jda.api.audit.ActionType;
+import net.dv8tion.jda.api.audit.AuditLogChange;
+import net.dv8tion.jda.api.audit.AuditLogEntry;
+import net.dv8tion.jda.api.audit.AuditLogKey;
+import net.dv8tion.jda.api.audit.TargetType;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.User;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Correlates member events with the audit log entries that caused them, to log manual punishments.
+ * Events are collected per guild over a short window, after which the audit log is fetched once for the whole batch
+ * and every new entry is matched by target and type. Targets without a matching entry yet are retried a few times,
+ * since entries can show up after the event.
+ */
+public enum AuditCorrelator {
+
+    /**
+     * The singleton instance.
+     */
+    INSTANCE;
+
+    private static final long WINDOW = 3000;
+    private static final long MAX_AGE = 60000;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final Map<Long, Map<Long, Pending>> pending = new HashMap<>();
+    private final Map<Long, Long> lastSeen = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> processed = new ConcurrentHashMap<>();
+    private final AtomicLong fetches = new AtomicLong();
+    private final AtomicLong matched = new AtomicLong();
+    private final AtomicLong unmatched = new AtomicLong();
+    private long totalLag;
+    private long maxLag;
+
+    /**
+     * Expects an audit log entry for a member.
+     * @param guild The guild.
+     * @param target The ID of the member.
+     * @param types The types of entry that could have caused the event.
+     */
+    public void expect(Guild guild, long target, ActionType... types) {
+        Pending expected = new Pending(target, System.currentTimeMillis());
+        expected.types.addAll(Arrays.asList(types));
+        enqueue(guild.getIdLong(), expected);
+    }
+
+    /**
+     * Gets the number of targets waiting for a batch.
+     * @return The count.
+     */
+    public int getPending() {
+        synchronized(pending) {
+            return pending.values().stream()
+                    .mapToInt(Map::size)
+                    .sum();
+        }
+    }
+
+    /**
+     * Gets the number of audit log fetches.
+     * @return The count.
+     */
+    public long getFetches() {
+        return fetches.get();
+    }
+
+    /**
+     * Gets the number of targets that were matched to an entry.
+     * @return The count.
+     */
+    public long getMatched() {
+        return matched.get();
+    }
+
+    /**
+     * Gets the number of targets that were never matched to an entry.
+     * These are usually members that left on their own, or role changes that were not mutes.
+     * @return The count.
+     */
+    public long getUnmatched() {
+        return unmatched.get();
+    }
+
+    /**
+     * Gets the average time between an event and the processing of its entry.
+     * @return The lag in milliseconds.
+     */
+    public synchronized long getAverageLag() {
+        long count = matched.get();
+        return count == 0 ? 0 : totalLag / count;
+    }
+
+    /**
+     * Gets the longest time between an event and the processing of its entry.
+     * @return The lag in milliseconds.
+     */
+    public synchronized long getMaxLag() {
+        return maxLag;
+    }
+
+    /**
+     * Adds a target to the batch of a guild, and makes sure the batch is flushed at the end of its window.
+     * Targets that are already in the batch gain the additional types.
+     * @param guild The guild ID.
+     * @param expected The target.
+     */
+    private void enqueue(long guild, Pending expected) {
+        synchronized(pending) {
+            Map<Long, Pending> batch = pending.computeIfAbsent(guild, id -> new HashMap<>());
+            Pending existing = batch.putIfAbsent(expected.target, expected);
+            if(existing != null) {
+                existing.types.addAll(expected.types);
+            }
+            if(!Scheduler.INSTANCE.isScheduled(key(guild))) {
+                Scheduler.INSTANCE.schedule(key(guild), WINDOW, TimeUnit.MILLISECONDS, () -> flush(guild));
+            }
+        }
+    }
+
+    /**
+     * Fetches the audit log once for the batch of a guild.
+     * Pages are fetched until the last seen entry, or an entry too old to match anything, is reached.
+     * @param guildId The guild ID.
+     */
+    private void flush(long guildId) {
+        Map<Long, Pending> batch;
+        synchronized(pending) {
+            batch = pending.remove(guildId);
+        }
+        Guild guild = IBai.INSTANCE.getJda().getGuildById(guildId);
+        if(batch == null || guild == null) {
+            return;
+        }
+        fetches.incrementAndGet();
+        long watermark = lastSeen.getOrDefault(guildId, 0L);
+        long cutoff = System.currentTimeMillis() - MAX_AGE;
+        List<AuditLogEntry> entries = new ArrayList<>();
+        guild.retrieveAuditLogs().forEachAsync(entry -> {
+            if(entry.getIdLong() <= watermark) {
+                return false;
+            }
+            entries.add(entry);
+            return entry.getTimeCreated().toInstant().toEpochMilli() >= cutoff;
+        }, error -> {
+            IBai.INSTANCE.getLogger().error("Could not retrieve the audit log of {}", guild.getId(), error);
+            retry(guildId, batch.values());
+        }).thenRun(() -> correlate(guild, batch, entries));
+    }
+
+    /**
+     * Matches audit log entries to the targets of a batch.
+     * Entries at or before the last seen entry are skipped outright. Newer entries are remembered once processed,
+     * and the last seen entry advances past them once they are too old to match anything. Batches of the same guild
+     * can overlap, so an entry is only processed by whichever claims it first and the last seen entry never moves
+     * backwards.
+     * @param guild The guild.
+     * @param batch The batch.
+     * @param entries The entries, newest first.
+     */
+    private void correlate(Guild guild, Map<Long, Pending> batch, List<AuditLogEntry> entries) {
+        long now = System.currentTimeMillis();
+        long cutoff = now - MAX_AGE;
+        long watermark = lastSeen.getOrDefault(guild.getIdLong(), 0L);
+        long newWatermark = watermark;
+        Set<Long> done = processed.computeIfAbsent(guild.getIdLong(), id -> ConcurrentHashMap.newKeySet());
+        for(int i = entries.size() - 1; i >= 0; i--) { // Oldest first, so punishments are logged in order.
+            AuditLogEntry entry = entries.get(i);
+            if(entry.getIdLong() <= watermark) {
+                continue;
+            }
+            if(entry.getTimeCreated().toInstant().toEpochMilli() < cutoff) {
+                newWatermark = Math.max(newWatermark, entry.getIdLong());
+                done.remove(entry.getIdLong());
+                continue;
+            }
+            if(entry.getTargetType() != TargetType.MEMBER) {
+                continue;
+            }
+            Pending target = batch.get(entry.getTargetIdLong());
+            if(target == null
+                    || !target.types.contains(entry.getType())) {
+                continue;
+            }
+            if(!done.add(entry.getIdLong())) {
+                continue;
+            }
+            if(!target.matched) {
+                target.matched = true;
+                matched.incrementAndGet();
+                recordLag(now - target.requested);
+            }
+            process(guild, entry);
+        }
+        long finalWatermark = lastSeen.merge(guild.getIdLong(), newWatermark, Math::max);
+        done.removeIf(id -> id <= finalWatermark);
+        List<Pending> remaining = new ArrayList<>();
+        for(Pending target : batch.values()) {
+            if(!target.matched) {
+                remaining.add(target);
+            }
+        }
+        retry(guild.getIdLong(), remaining);
+    }
+
+    /**
+     * Puts unmatched targets in the next batch, or gives up on them after too many attempts.
+     * @param guild The guild ID.
+     * @param targets The targets.
+     */
+    private void retry(long guild, Collection<Pending> targets) {
+        for(Pending target : targets) {
+            target.attempts++;
+            if(target.attempts >= MAX_ATTEMPTS) {
+                unmatched.incrementAndGet();
+            } else {
+                enqueue(guild, target);
+            }
+        }
+    }
+
+    /**
+     * Logs the punishment or revocation an audit log entry stands for.
+     * @param guild The guild.
+     * @param entry The entry.
+     */
+    private void process(Guild guild, AuditLogEntry entry) {
+        guild.getJDA().retrieveUserById(entry.getTargetIdLong()).queue(user -> {
+            User staff = entry.getUser();
+            String reason = entry.getReason();
+            if(user == null
+                    || staff == null) {
+                throw new RuntimeException("user/staff nil");
+            }
+            boolean redacted = false;
+            if(reason != null
+                    && (reason.toLowerCase().contains("-redacted")
+                    || reason.toLowerCase().contains("-redact"))) {
+                redacted = true;
+            }
+            Punishment punishment = new Punishment(null,
+                    user.getAsTag(),
+                    user.getId(),
+                    staff.getAsTag(),
+                    staff.getId(),
+                    reason,
+                    redacted
+            );
+            PunishmentHandler handler = new PunishmentHandler(guild, punishment);
+            switch(entry.getType()) {
+                case KICK:
+                    punishment.setType(PunishmentType.KICK);
+                    handler.onPunish();
+                    break;
+                case MEMBER_ROLE_UPDATE:
+                    AuditLogChange rolesAddedRaw = entry.getChangeByKey(AuditLogKey.MEMBER_ROLES_ADD);
+                    AuditLogChange rolesRemovedRaw = entry.getChangeByKey(AuditLogKey.MEMBER_ROLES_REMOVE);
+                    if(rolesAddedRaw != null) {
+                        if(staff.getIdLong() == guild.getJDA().getSelfUser().getIdLong()) {
+                            IBai.INSTANCE.getLogger().info("Ignored adding role since it was sent by user {} (self)",
+                                    staff.getIdLong()
+                            );
+                            return;
+                        }
+                        List<Map<String, String>> roles = rolesAddedRaw.getNewValue();
+                        if(isNotMute(guild, roles)) {
+                            return;
+                        }
+                        punishment.setType(PunishmentType.MUTE);
+                        handler.onPunish();
+                    }
+                    if(rolesRemovedRaw != null) {
+                        List<Map<String, String>> roles = rolesRemovedRaw.getNewValue();
+                        if(isNotMute(guild, roles)) {
+                            return;
+                        }
+                        punishment.setType(PunishmentType.MUTE);
+                        handler.onRevocation();
+                    }
+                    break;
+                case BAN:
+                    punishment.setType(PunishmentType.BAN);
+                    handler.onPunish();
+                    break;
+                case UNBAN:
+                    punishment.setType(PunishmentType.BAN);
+                    handler.onRevocation();
+                    break;
+                default:
+                    break;
+            }
+        });
+    }
+
+    /**
+     * Whether or not a list of role IDs contains the muted role for the guild.
+     * @param guild The guild.
+     * @param roles A list of roles.
+     * @return True if it does, false otherwise.
+     */
+    private boolean isNotMute(Guild guild, List<Map<String, String>> roles) {
+        if(roles == null) {
+            return false;
+        }
+        String id = DataContainer.INSTANCE.getGravity().load(new GuildData(guild.getId())).get(GuildData.MUTE)
+                .defaulting("")
+                .asString();
+        for(Map<String, String> entry : roles) {
+            if(entry.get("id").equalsIgnoreCase(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records the lag of a matched target.
+     * @param lag The lag in milliseconds.
+     */
+    private synchronized void recordLag(long lag) {
+        totalLag += lag;
+        maxLag = Math.max(maxLag, lag);
+    }
+
+    /**
+     * Gets the scheduler key of the batch of a guild.
+     * @param guild The guild ID.
+     * @return The key.
+     */
+    private static String key(long guild) {
+        return "audit:" + guild;
+    }
+
+    private static final class Pending {
+
+        private final long target;
+        private final long requested;
+        private final Set<ActionType> types = EnumSet.noneOf(ActionType.class);
+        private int attempts;
+        private boolean matched;
+
+        /**
+         * Creates a pending target.
+         * @param target The ID of the member.
+         * @param requested When the event happened.
+         */
+        private Pending(long target, long requested) {
+            this.target = target;
+            this.requested = requested;
+        }
+
+    }
+
+}
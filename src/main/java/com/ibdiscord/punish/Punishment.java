@@ -19,7 +19,9 @@
 package com.ibdiscord.punish;
 
 import com.ibdiscord.data.db.DataContainer;
+import com.ibdiscord.data.db.DataProvider;
 import com.ibdiscord.data.db.entries.punish.PunishmentData;
+import com.ibdiscord.data.db.entries.punish.PunishmentUserData;
 import com.ibdiscord.data.db.entries.punish.PunishmentsData;
 import com.ibdiscord.utils.UDatabase;
 import de.arraying.gravity.Gravity;
@@ -27,6 +29,11 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.utils.TimeUtil;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static com.ibdiscord.data.db.entries.punish.PunishmentData.*;
 
@@ -35,6 +42,7 @@ import static com.ibdiscord.data.db.entries.punish.PunishmentData.*;
 public final class Punishment {
 
     private static final String DEFAULT_REASON = "Use `%sreason %d <reason>` to specify a reason.";
+    private static final String INDEXED = "punishments_user_indexed_";
 
     @Setter private PunishmentType type;
     private final String userDisplay;
@@ -63,6 +71,83 @@ public final class Punishment {
         );
     }
 
+    /**
+     * Gets a punishment wrapper from an already read hash.
+     * @param data The hash, as stored in {@link PunishmentData}.
+     * @return A valid punishment wrapper.
+     */
+    public static Punishment of(Map<String, String> data) {
+        return new Punishment(
+                fromString(data.getOrDefault(TYPE, "")),
+                data.get(USER_DISPLAY),
+                data.get(USER_ID),
+                data.get(STAFF_DISPLAY),
+                data.get(STAFF_ID),
+                data.get(REASON),
+                Boolean.parseBoolean(data.getOrDefault(REDACTED, "false"))
+        );
+    }
+
+    /**
+     * Gets the time a case was created at from an already read hash.
+     * Cases created before the timestamp was stored fall back to the creation time of their log message.
+     * @param data The hash, as stored in {@link PunishmentData}.
+     * @return The time in milliseconds, or 0 if it is unknown.
+     */
+    public static long getTimestamp(Map<String, String> data) {
+        try {
+            if(data.containsKey(TIMESTAMP)) {
+                return Long.parseLong(data.get(TIMESTAMP));
+            }
+            if(data.containsKey(MESSAGE)) {
+                return TimeUtil.getTimeCreated(Long.parseLong(data.get(MESSAGE))).toInstant().toEpochMilli();
+            }
+        } catch(NumberFormatException ignored) {
+            // Falls through to unknown.
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the case numbers of a user, in ascending order.
+     * Cases are indexed per user when they are created. Guilds with cases from before that are indexed on first use.
+     * @param guild The guild ID.
+     * @param user The user ID.
+     * @return The case numbers.
+     */
+    public static List<Long> getCases(String guild, String user) {
+        DataProvider provider = new DataProvider();
+        if(provider.get(INDEXED + guild) == null) {
+            index(provider, guild);
+        }
+        return provider.smembers(PunishmentUserData.identifier(guild, user)).stream()
+                .map(Long::valueOf)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Indexes all cases of a guild per user.
+     * Adding a case again is harmless, so this can run alongside new cases being created.
+     * @param provider The data provider.
+     * @param guild The guild ID.
+     */
+    private static void index(DataProvider provider, String guild) {
+        provider.sscan(PunishmentsData.identifier(guild), 500, caseIds -> {
+            List<Map<String, String>> hashes = provider.hgetall(caseIds.stream()
+                    .map(caseId -> PunishmentData.identifier(guild, caseId))
+                    .collect(Collectors.toList())
+            );
+            for(int i = 0; i < caseIds.size(); i++) {
+                String user = hashes.get(i).get(USER_ID);
+                if(user != null) {
+                    provider.sadd(PunishmentUserData.identifier(guild, user), caseIds.get(i));
+                }
+            }
+        });
+        provider.set(INDEXED + guild, "true");
+    }
+
     /**
      * Catches exception and returns unknown PunishmentType.
      * @param string The punishment type as string.
@@ -91,11 +176,15 @@ public final class Punishment {
         punishment.set(STAFF_ID, staffId);
         punishment.set(REASON, reason == null ? getDefaultReason(guild, caseNumber) : reason);
         punishment.set(REDACTED, redacted);
+        punishment.set(TIMESTAMP, System.currentTimeMillis());
         gravity.save(punishment);
 
-        PunishmentsData list = gravity.load(new PunishmentsData(guild.getId()));
-        list.add(caseNumber);
-        gravity.save(list);
+        // A single SADD each, so that concurrent punishments do not overwrite each other's registry entries.
+        DataProvider provider = new DataProvider();
+        provider.sadd(PunishmentsData.identifier(guild.getId()), String.valueOf(caseNumber));
+        if(userId != null) {
+            provider.sadd(PunishmentUserData.identifier(guild.getId(), userId), String.valueOf(caseNumber));
+        }
     }
 
     /**
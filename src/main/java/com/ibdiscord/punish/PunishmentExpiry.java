@@ -18,69 +18,99 @@
 
 package com.ibdiscord.punish;
 
+import com.ibdiscord.IBai;
 import com.ibdiscord.data.db.DataContainer;
 import com.ibdiscord.data.db.entries.GuildData;
 import com.ibdiscord.data.db.entries.punish.ExpiryData;
+import com.ibdiscord.utils.UMember;
+import com.ibdiscord.utils.scheduler.Scheduler;
 import de.arraying.gravity.Gravity;
 import net.dv8tion.jda.api.entities.Guild;
-import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Role;
 
-import java.util.Map;
-import java.util.concurrent.*;
-
 public enum PunishmentExpiry {
 
     INSTANCE;
 
-    private final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
-    private final Map<String, ScheduledFuture<?>> schedules = new ConcurrentHashMap<>();
+    /**
+     * The scheduler job type.
+     */
+    public static final String TYPE = "punishment_expiry";
 
     /**
-     * Gets a schedule for a given case number.
-     * @param caseNumber The case number to get the schedule for
-     * @return The schedule corresponding to the given case number
+     * Registers the job type with the scheduler.
      */
-    public ScheduledFuture<?> getFor(String caseNumber) {
-        return schedules.get(caseNumber);
+    public void register() {
+        Scheduler.INSTANCE.register(TYPE, this::run);
     }
 
     /**
-     * Schedules a punishment expiration.
+     * Whether an expiration is scheduled for a case.
      * @param guild The guild.
      * @param caseNumber The case number.
-     * @param delay The delay until the expiration.
-     * @param punishment The punishment.
+     * @return True if it is.
      */
-    public void schedule(Guild guild, String caseNumber, long delay, Punishment punishment) {
-        schedules.put(caseNumber, executorService.schedule(
-            () -> expire(guild, caseNumber, punishment), delay, TimeUnit.MILLISECONDS)
+    public boolean isScheduled(Guild guild, String caseNumber) {
+        return Scheduler.INSTANCE.isScheduled(key(guild.getId(), caseNumber));
+    }
+
+    /**
+     * Schedules a punishment expiration, replacing any previous expiration of the case.
+     * If the time has already passed, the punishment expires right away.
+     * @param guild The guild.
+     * @param caseNumber The case number.
+     * @param expires The time of expiration, in epoch milliseconds.
+     */
+    public void schedule(Guild guild, String caseNumber, long expires) {
+        Scheduler.INSTANCE.scheduleDurable(TYPE,
+                key(guild.getId(), caseNumber),
+                expires,
+                guild.getId() + ";" + caseNumber
         );
     }
 
+    /**
+     * Runs a scheduled expiration.
+     * @param payload The guild ID and case number.
+     */
+    private void run(String payload) {
+        String[] data = payload.split(";", 2);
+        Guild guild = IBai.INSTANCE.getJda().getGuildById(data[0]);
+        if(guild == null) {
+            return;
+        }
+        expire(guild, data[1], Punishment.of(guild, data[1]));
+    }
+
     /**
      * Expires a punishment.
      * @param guild The guild.
      * @param caseNumber The case number.
      * @param punishment The punishment.
      */
-    public void expire(Guild guild, String caseNumber, Punishment punishment) {
+    private void expire(Guild guild, String caseNumber, Punishment punishment) {
         Gravity gravity = DataContainer.INSTANCE.getGravity();
         ExpiryData expiryData = gravity.load(new ExpiryData(guild.getId()));
         expiryData.unset(caseNumber);
         gravity.save(expiryData);
         switch(punishment.getType()) {
             case MUTE:
-                Member member = guild.getMemberById(punishment.getUserId());
-                if(member == null) {
-                    return;
-                }
                 GuildData guildData = DataContainer.INSTANCE.getGravity().load(new GuildData(guild.getId()));
                 Role role = guild.getRoleById(guildData.get(GuildData.MUTE).defaulting(0L).asLong());
                 if(role == null) {
                     return;
                 }
-                guild.removeRoleFromMember(member, role).queue();
+                UMember.retrieveMember(guild, punishment.getUserId()).whenComplete((member, error) -> {
+                    if(error != null) {
+                        IBai.INSTANCE.getLogger().error("Could not unmute {} in {}",
+                                punishment.getUserId(),
+                                guild.getId(),
+                                error
+                        );
+                    } else if(member != null) {
+                        guild.removeRoleFromMember(member, role).queue();
+                    }
+                });
                 break;
             case BAN:
                 guild.unban(punishment.getUserId()).queue();
@@ -90,4 +120,14 @@ public enum PunishmentExpiry {
         }
     }
 
+    /**
+     * Gets the scheduler key of a case.
+     * @param guild The guild ID.
+     * @param caseNumber The case number.
+     * @return The key.
+     */
+    private String key(String guild, String caseNumber) {
+        return TYPE + ":" + guild + ":" + caseNumber;
+    }
+
 }
@@ -18,7 +18,9 @@
 
 package com.ibdiscord.punish;
 
+import com.ibdiscord.IBai;
 import com.ibdiscord.data.db.DataContainer;
+import com.ibdiscord.data.db.DataProvider;
 import com.ibdiscord.data.db.entries.GuildData;
 import com.ibdiscord.data.db.entries.punish.PunishmentData;
 import com.ibdiscord.data.db.entries.punish.PunishmentsData;
@@ -38,8 +40,14 @@ public final class PunishmentHandler {
      */
     public void onPunish() {
         Gravity gravity = DataContainer.INSTANCE.getGravity();
-        long caseNumber = gravity.load(new PunishmentsData(guild.getId())).size() + 1;
-        punishment.dump(guild, caseNumber);
+        long caseNumber = nextCaseNumber();
+        if(caseNumber == 0) { // Dumping it would overwrite another case.
+            IBai.INSTANCE.getLogger().error("Could not allocate a case number in {}, the punishment was not logged",
+                    guild.getId()
+            );
+            return;
+        }
+        PunishmentStats.INSTANCE.record(guild, punishment, () -> punishment.dump(guild, caseNumber));
         TextChannel channel = getLogChannel();
         if(channel == null) {
             return;
@@ -57,12 +65,30 @@ public final class PunishmentHandler {
      * The only required data is the type, user display/id, staff display/id.
      */
     public void onRevocation() {
+        PunishmentStats.INSTANCE.recordRevocation(guild, punishment);
         TextChannel channel = getLogChannel();
         if(channel != null) {
             channel.sendMessage(punishment.getLogRevocation()).queue();
         }
     }
 
+    /**
+     * Allocates the next case number.
+     * The counter is incremented atomically, so that concurrent punishments never get the same number.
+     * Guilds with cases from before the counter existed start counting from their number of cases.
+     * @return The case number, or 0 if it could not be allocated.
+     */
+    private long nextCaseNumber() {
+        DataProvider provider = new DataProvider();
+        String key = "punishments_counter_" + guild.getId();
+        if(provider.get(key) == null) {
+            provider.setnx(key, String.valueOf(DataContainer.INSTANCE.getGravity()
+                    .load(new PunishmentsData(guild.getId()))
+                    .size()));
+        }
+        return provider.incr(key);
+    }
+
     /**
      * Gets the log channel.
      * @return The possibly null log channel.
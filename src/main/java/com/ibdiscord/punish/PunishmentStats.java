@@ -0,0 +1,281 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.punish;
+
+import com.ibdiscord.data.db.DataContainer;
+import com.ibdiscord.data.db.DataProvider;
+import com.ibdiscord.data.db.entries.punish.PunishmentData;
+import com.ibdiscord.data.db.entries.punish.PunishmentsData;
+import de.arraying.gravity.data.property.Property;
+import net.dv8tion.jda.api.entities.Guild;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.IsoFields;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps moderation statistics as aggregates that are updated whenever a case is created or a punishment is revoked,
+ * so that they can be read without going through every case.
+ * Per guild, a hash holds the counters per type, moderator and week, and a sorted set holds the offenders by their
+ * number of cases.
+ */
+public enum PunishmentStats {
+
+    /**
+     * The singleton instance.
+     */
+    INSTANCE;
+
+    /**
+     * The field of the total number of cases.
+     */
+    public static final String TOTAL = "total";
+
+    /**
+     * The prefix of the fields of the cases per type.
+     */
+    public static final String TYPE = "type:";
+
+    /**
+     * The prefix of the fields of the cases per moderator.
+     */
+    public static final String STAFF = "staff:";
+
+    /**
+     * The prefix of the fields of the cases per ISO week.
+     */
+    public static final String WEEK = "week:";
+
+    /**
+     * The prefix of the fields of the revocations per type.
+     */
+    public static final String REVOKED = "revoked:";
+
+    /**
+     * The prefix of the fields of the revocations per moderator.
+     */
+    public static final String REVOKED_STAFF = "revoked_staff:";
+
+    private static final String BACKFILL = "_backfill";
+
+    private final Map<String, ReadWriteLock> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Stores and records a new case.
+     * Both happen under the same lock, so that a backfill either counts the stored case or runs before it is stored.
+     * @param guild The guild.
+     * @param punishment The punishment.
+     * @param store Stores the case.
+     */
+    void record(Guild guild, Punishment punishment, Runnable store) {
+        Lock lock = lockOf(guild).readLock();
+        lock.lock();
+        try {
+            store.run();
+            DataProvider provider = new DataProvider();
+            String key = countersKey(guild.getId());
+            provider.hincrby(key, TOTAL, 1);
+            provider.hincrby(key, TYPE + punishment.getType(), 1);
+            provider.hincrby(key, STAFF + punishment.getStaffId(), 1);
+            provider.hincrby(key, WEEK + week(System.currentTimeMillis()), 1);
+            provider.zincrby(offendersKey(guild.getId()), 1, punishment.getUserId());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records a revocation.
+     * @param guild The guild.
+     * @param punishment The revoked punishment.
+     */
+    void recordRevocation(Guild guild, Punishment punishment) {
+        Lock lock = lockOf(guild).readLock();
+        lock.lock();
+        try {
+            DataProvider provider = new DataProvider();
+            String key = countersKey(guild.getId());
+            provider.hincrby(key, REVOKED + punishment.getType(), 1);
+            provider.hincrby(key, REVOKED_STAFF + punishment.getStaffId(), 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets all counters of a guild.
+     * @param guild The guild.
+     * @return A map of field to count.
+     */
+    public Map<String, Long> getCounters(Guild guild) {
+        Map<String, Long> counters = new HashMap<>();
+        new DataProvider().hgetall(countersKey(guild.getId())).forEach((field, value) -> {
+            try {
+                counters.put(field, Long.parseLong(value));
+            } catch(NumberFormatException ignored) {
+                // Not a counter.
+            }
+        });
+        return counters;
+    }
+
+    /**
+     * Gets the offenders with the most cases.
+     * @param guild The guild.
+     * @param count The maximum number of offenders.
+     * @return An ordered map of user ID to number of cases, highest first.
+     */
+    public Map<String, Long> getOffenders(Guild guild, int count) {
+        Map<String, Long> offenders = new LinkedHashMap<>();
+        new DataProvider().zrevrangeWithScores(offendersKey(guild.getId()), count)
+                .forEach((user, score) -> offenders.put(user, score.longValue()));
+        return offenders;
+    }
+
+    /**
+     * Rebuilds the aggregates of a guild from all of its cases.
+     * The cases are read in one batch. Revocations are not stored with the cases, so their counters are kept.
+     * The aggregates are built under temporary keys and renamed into place, so readers never see them half built.
+     * Cases and revocations of the guild are not recorded until then, as they would be lost in the rename.
+     * @param guild The guild.
+     * @return The number of cases counted.
+     */
+    public int backfill(Guild guild) {
+        Lock lock = lockOf(guild).writeLock();
+        lock.lock();
+        try {
+            return rebuild(guild);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the aggregates of a guild, while no cases are being recorded for it.
+     * @param guild The guild.
+     * @return The number of cases counted.
+     */
+    private int rebuild(Guild guild) {
+        DataProvider provider = new DataProvider();
+        String guildId = guild.getId();
+        List<String> keys = DataContainer.INSTANCE.getGravity().load(new PunishmentsData(guildId)).values().stream()
+                .map(Property::asString)
+                .map(caseId -> PunishmentData.identifier(guildId, caseId))
+                .collect(Collectors.toList());
+        Map<String, Long> counters = new HashMap<>();
+        Map<String, Long> offenders = new HashMap<>();
+        for(Map<String, String> data : provider.hgetall(keys)) {
+            if(data.isEmpty()) {
+                continue;
+            }
+            Punishment punishment = Punishment.of(data);
+            if(punishment.getUserId() == null || punishment.getStaffId() == null) {
+                continue;
+            }
+            counters.merge(TOTAL, 1L, Long::sum);
+            counters.merge(TYPE + punishment.getType(), 1L, Long::sum);
+            counters.merge(STAFF + punishment.getStaffId(), 1L, Long::sum);
+            long timestamp = Punishment.getTimestamp(data);
+            if(timestamp != 0) {
+                counters.merge(WEEK + week(timestamp), 1L, Long::sum);
+            }
+            offenders.merge(punishment.getUserId(), 1L, Long::sum);
+        }
+        getCounters(guild).forEach((field, value) -> {
+            if(field.startsWith(REVOKED) || field.startsWith(REVOKED_STAFF)) {
+                counters.put(field, value);
+            }
+        });
+        String countersTemp = countersKey(guildId) + BACKFILL;
+        String offendersTemp = offendersKey(guildId) + BACKFILL;
+        provider.del(countersTemp);
+        provider.del(offendersTemp);
+        provider.hmset(countersTemp, counters.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> String.valueOf(entry.getValue())))
+        );
+        offenders.forEach((user, cases) -> provider.zadd(offendersTemp, cases, user));
+        replace(provider, countersTemp, countersKey(guildId), counters.isEmpty());
+        replace(provider, offendersTemp, offendersKey(guildId), offenders.isEmpty());
+        return counters.getOrDefault(TOTAL, 0L).intValue();
+    }
+
+    /**
+     * Gets the lock that keeps cases from being recorded during a backfill.
+     * @param guild The guild.
+     * @return The lock.
+     */
+    private ReadWriteLock lockOf(Guild guild) {
+        return locks.computeIfAbsent(guild.getId(), id -> new ReentrantReadWriteLock());
+    }
+
+    /**
+     * Moves a rebuilt aggregate into place.
+     * Empty aggregates were never written, and renaming a key that does not exist fails, so the old one is deleted.
+     * @param provider The data provider.
+     * @param temp The key it was built under.
+     * @param key The key it replaces.
+     * @param empty Whether the aggregate is empty.
+     */
+    private static void replace(DataProvider provider, String temp, String key, boolean empty) {
+        if(empty) {
+            provider.del(key);
+        } else {
+            provider.rename(temp, key);
+        }
+    }
+
+    /**
+     * Gets the ISO week of a time.
+     * @param millis The time in milliseconds.
+     * @return The week, for example 2020-W07.
+     */
+    public static String week(long millis) {
+        ZonedDateTime time = Instant.ofEpochMilli(millis).atZone(ZoneOffset.UTC);
+        return String.format("%d-W%02d",
+                time.get(IsoFields.WEEK_BASED_YEAR),
+                time.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR)
+        );
+    }
+
+    /**
+     * Gets the key of the counters of a guild.
+     * @param guild The guild ID.
+     * @return The key.
+     */
+    private static String countersKey(String guild) {
+        return "punishment_stats_" + guild;
+    }
+
+    /**
+     * Gets the key of the offenders of a guild.
+     * @param guild The guild ID.
+     * @return The key.
+     */
+    private static String offendersKey(String guild) {
+        return "punishment_offenders_" + guild;
+    }
+
+}
@@ -0,0 +1,64 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.react;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * A compiled cassowary: a group of mutually exclusive roles.
+ * A cassowary with an anchor role is a penguin, where the anchor role locks the other roles.
+ */
+public final class Cassowary {
+
+    @Getter private final String label;
+    @Getter private final long[] roles;
+    @Getter private final long anchor;
+
+    /**
+     * Creates a cassowary.
+     * @param label The label.
+     * @param roles The sorted role IDs.
+     * @param anchor The anchor role ID, or 0 if this is not a penguin.
+     */
+    Cassowary(String label, long[] roles, long anchor) {
+        this.label = label;
+        this.roles = roles;
+        this.anchor = anchor;
+    }
+
+    /**
+     * Whether the cassowary is a penguin.
+     * @return True if there is an anchor role, false otherwise.
+     */
+    public boolean isPenguin() {
+        return anchor != 0;
+    }
+
+    /**
+     * Checks whether a role is part of the cassowary.
+     * @param role The role ID.
+     * @return True if it is, false otherwise.
+     */
+    public boolean contains(long role) {
+        return Arrays.binarySearch(roles, role) >= 0;
+    }
+
+}
@@ -0,0 +1,203 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.react;
+
+import com.ibdiscord.utils.objects.LongHashSet;
+import com.ibdiscord.utils.scheduler.Scheduler;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffers the role changes caused by reaction roles per member.
+ * All changes within a short window are merged into one net set of roles to add and remove, which is then sent as
+ * a single request, so a member clicking several reactions does not cause a burst of conflicting requests.
+ */
+public enum ReactionRoleBuffer {
+
+    /**
+     * The singleton instance.
+     */
+    INSTANCE;
+
+    private static final long WINDOW = 1500;
+
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+
+    /**
+     * Buffers a role change of a member.
+     * Removals are applied before additions, so a role that is both removed and added ends up added.
+     * @param member The member.
+     * @param add The role IDs to add.
+     * @param remove The role IDs to remove.
+     */
+    public void submit(Member member, long[] add, long[] remove) {
+        updates.incrementAndGet();
+        String key = key(member);
+        while(true) {
+            Pending entry = pending.computeIfAbsent(key, id -> new Pending(member));
+            synchronized(entry) {
+                if(entry.flushed) {
+                    continue; // Lost the race against the flush, it will be gone from the map by now.
+                }
+                entry.member = member;
+                for(long role : remove) {
+                    entry.add.remove(role);
+                    entry.remove.add(role);
+                }
+                for(long role : add) {
+                    entry.remove.remove(role);
+                    entry.add.add(role);
+                }
+                break;
+            }
+        }
+        if(!Scheduler.INSTANCE.isScheduled(key)) {
+            Scheduler.INSTANCE.schedule(key, WINDOW, TimeUnit.MILLISECONDS, () -> flush(key));
+        }
+    }
+
+    /**
+     * Gets the roles a member will have once their buffered changes have been sent.
+     * @param member The member.
+     * @return The sorted role IDs.
+     */
+    public long[] getRoles(Member member) {
+        LongHashSet roles = new LongHashSet();
+        for(Role role : member.getRoles()) {
+            roles.add(role.getIdLong());
+        }
+        Pending entry = pending.get(key(member));
+        if(entry != null) {
+            synchronized(entry) {
+                for(long role : entry.remove.toArray()) {
+                    roles.remove(role);
+                }
+                for(long role : entry.add.toArray()) {
+                    roles.add(role);
+                }
+            }
+        }
+        long[] sorted = roles.toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Gets the number of role changes caused by reactions.
+     * @return The count.
+     */
+    public long getUpdates() {
+        return updates.get();
+    }
+
+    /**
+     * Gets the number of requests that were sent for them.
+     * @return The count.
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Sends the net role changes of a member.
+     * Roles the member already has, or already lacks, are left out, and nothing is sent if no change remains.
+     * @param key The key.
+     */
+    private void flush(String key) {
+        Pending entry = pending.remove(key);
+        if(entry == null) {
+            return;
+        }
+        Member member;
+        long[] add;
+        long[] remove;
+        synchronized(entry) {
+            entry.flushed = true;
+            member = entry.member;
+            add = entry.add.toArray();
+            remove = entry.remove.toArray();
+        }
+        Guild guild = member.getGuild();
+        List<Role> current = member.getRoles();
+        Collection<Role> rolesToAdd = resolve(guild, add);
+        rolesToAdd.removeAll(current);
+        Collection<Role> rolesToRemove = resolve(guild, remove);
+        rolesToRemove.retainAll(current);
+        if(rolesToAdd.isEmpty() && rolesToRemove.isEmpty()) {
+            return; // The changes cancelled each other out.
+        }
+        requests.incrementAndGet();
+        guild.modifyMemberRoles(member, rolesToAdd, rolesToRemove).queue();
+    }
+
+    /**
+     * Resolves role IDs, skipping roles that no longer exist.
+     * @param guild The guild.
+     * @param roles The role IDs.
+     * @return A mutable collection of roles.
+     */
+    private Collection<Role> resolve(Guild guild, long[] roles) {
+        Collection<Role> resolved = new HashSet<>();
+        for(long id : roles) {
+            Role role = guild.getRoleById(id);
+            if(role != null) {
+                resolved.add(role);
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Gets the key of a member.
+     * @param member The member.
+     * @return The key, which is also used for the scheduler.
+     */
+    private static String key(Member member) {
+        return "reaction_roles:" + member.getGuild().getId() + ":" + member.getId();
+    }
+
+    /**
+     * The buffered changes of a single member.
+     */
+    private static final class Pending {
+
+        private final LongHashSet add = new LongHashSet();
+        private final LongHashSet remove = new LongHashSet();
+        private Member member;
+        private boolean flushed;
+
+        /**
+         * Creates the buffer.
+         * @param member The member.
+         */
+        private Pending(Member member) {
+            this.member = member;
+        }
+
+    }
+
+}
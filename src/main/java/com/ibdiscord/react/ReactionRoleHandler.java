@@ -0,0 +1,299 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.react;
+
+import com.ibdiscord.IBai;
+import com.ibdiscord.data.db.DataContainer;
+import com.ibdiscord.data.db.DataProvider;
+import com.ibdiscord.data.db.entries.cassowary.CassowariesData;
+import com.ibdiscord.data.db.entries.cassowary.CassowaryData;
+import com.ibdiscord.data.db.entries.cassowary.CassowaryPenguinData;
+import com.ibdiscord.data.db.entries.react.EmoteData;
+import com.ibdiscord.data.db.entries.react.ReactionData;
+import com.ibdiscord.data.db.entries.react.ReactionMessagesData;
+import com.ibdiscord.utils.objects.LongHashSet;
+import de.arraying.gravity.Gravity;
+import de.arraying.gravity.data.property.Property;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Knows which messages are reaction role messages, so that reactions on any other message are ignored without
+ * touching the database.
+ * The reaction roles and cassowaries themselves are compiled into in memory tables, so that handling a reaction
+ * does not need any database lookups either.
+ */
+public enum ReactionRoleHandler {
+
+    /**
+     * The singleton instance.
+     */
+    INSTANCE;
+
+    private static final String INDEXED = "reaction_messages_indexed";
+
+    private final Map<Long, LongHashSet> messages = new ConcurrentHashMap<>();
+    private final Map<Long, Map<String, ReactionRule>> rules = new ConcurrentHashMap<>();
+    private final Map<Long, Map<Long, List<Cassowary>>> cassowaries = new ConcurrentHashMap<>();
+    private final AtomicLong skipped = new AtomicLong();
+    private volatile boolean loaded;
+
+    /**
+     * Loads the reaction role messages on startup.
+     * Messages that were set up before the message index existed are indexed once.
+     */
+    public void load() {
+        DataProvider provider = new DataProvider();
+        Gravity gravity = DataContainer.INSTANCE.getGravity();
+        ReactionMessagesData reactionMessagesData = gravity.load(new ReactionMessagesData());
+        if(provider.get(INDEXED) == null) {
+            for(String key : provider.scan("react_*")) {
+                String[] parts = key.split("_");
+                if(parts.length == 3 && parts[1].matches("\\d+") && parts[2].matches("\\d+")) {
+                    reactionMessagesData.add(parts[1] + "_" + parts[2]);
+                }
+            }
+            gravity.save(reactionMessagesData);
+            provider.set(INDEXED, "true");
+        }
+        for(Property property : reactionMessagesData.values()) {
+            String[] parts = property.asString().split("_");
+            long guild = Long.parseLong(parts[0]);
+            long message = Long.parseLong(parts[1]);
+            add(guild, message);
+            rules.put(message, compile(gravity.load(new ReactionData(parts[0], message))));
+        }
+        for(long guild : messages.keySet()) {
+            cassowaries.put(guild, compile(guild));
+        }
+        loaded = true;
+        IBai.INSTANCE.getLogger().info("Loaded {} reaction role messages.", reactionMessagesData.values().size());
+    }
+
+    /**
+     * Checks whether a message may be a reaction role message.
+     * Until the messages have been loaded on startup, every message may be one.
+     * @param guild The guild ID.
+     * @param message The message ID.
+     * @return False if the message is certainly not a reaction role message, true otherwise.
+     */
+    public boolean isReactionMessage(long guild, long message) {
+        if(!loaded) {
+            return true;
+        }
+        LongHashSet set = messages.get(guild);
+        boolean present;
+        if(set == null) {
+            present = false;
+        } else {
+            synchronized(set) {
+                present = set.contains(message);
+            }
+        }
+        if(!present) {
+            skipped.incrementAndGet();
+        }
+        return present;
+    }
+
+    /**
+     * Gets the compiled reaction role rule for an emote on a message.
+     * Until the rules have been loaded on startup, they are compiled on demand.
+     * @param guild The guild ID.
+     * @param message The message ID.
+     * @param emote The emote.
+     * @return The rule, or null if the emote does not give any roles.
+     */
+    public ReactionRule getRule(long guild, long message, String emote) {
+        Map<String, ReactionRule> table = rules.get(message);
+        if(table == null) {
+            if(loaded) {
+                return null;
+            }
+            ReactionData data = new ReactionData(String.valueOf(guild), message);
+            table = compile(DataContainer.INSTANCE.getGravity().load(data));
+        }
+        return table.get(emote);
+    }
+
+    /**
+     * Gets the cassowaries a role is part of.
+     * The cassowaries of a guild are compiled on first use and kept until they change.
+     * @param guild The guild ID.
+     * @param role The role ID.
+     * @return A never null list of cassowaries.
+     */
+    public List<Cassowary> getCassowaries(long guild, long role) {
+        Map<Long, List<Cassowary>> index = cassowaries.get(guild);
+        if(index == null) {
+            index = compile(guild);
+            cassowaries.put(guild, index);
+        }
+        return index.getOrDefault(role, Collections.emptyList());
+    }
+
+    /**
+     * Drops the compiled cassowaries of a guild, after they were changed.
+     * @param guild The guild ID.
+     */
+    public void invalidateCassowaries(long guild) {
+        cassowaries.remove(guild);
+    }
+
+    /**
+     * Records the reactions of a message after they were changed.
+     * @param guild The guild ID.
+     * @param message The message ID.
+     * @param data The saved reaction data.
+     */
+    public void update(long guild, long message, ReactionData data) {
+        DataProvider provider = new DataProvider();
+        if(!data.getKeys().isEmpty()) {
+            provider.sadd(ReactionMessagesData.identifier(), guild + "_" + message);
+            add(guild, message);
+            rules.put(message, compile(data));
+        } else {
+            provider.srem(ReactionMessagesData.identifier(), guild + "_" + message);
+            rules.remove(message);
+            LongHashSet set = messages.get(guild);
+            if(set != null) {
+                synchronized(set) {
+                    set.remove(message);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of reaction role messages.
+     * @return The count.
+     */
+    public int getMessages() {
+        int count = 0;
+        for(LongHashSet set : messages.values()) {
+            synchronized(set) {
+                count += set.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of reactions that were ignored because they were not on a reaction role message.
+     * @return The count.
+     */
+    public long getSkipped() {
+        return skipped.get();
+    }
+
+    /**
+     * Adds a message to the in memory set.
+     * @param guild The guild ID.
+     * @param message The message ID.
+     */
+    private void add(long guild, long message) {
+        LongHashSet set = messages.computeIfAbsent(guild, id -> new LongHashSet());
+        synchronized(set) {
+            set.add(message);
+        }
+    }
+
+    /**
+     * Compiles the reaction roles of a message.
+     * @param data The reaction data.
+     * @return A map of emote to rule.
+     */
+    private Map<String, ReactionRule> compile(ReactionData data) {
+        Map<String, ReactionRule> table = new HashMap<>();
+        for(String emote : data.getKeys()) {
+            EmoteData emoteData = DataContainer.INSTANCE.getGravity().load(new EmoteData(data.get(emote).asString()));
+            List<Long> positive = new ArrayList<>();
+            List<Long> negative = new ArrayList<>();
+            for(Property property : emoteData.contents()) {
+                String role = property.asString();
+                if(role.startsWith("!")) {
+                    negative.add(parse(role.replace("!", "")));
+                } else {
+                    positive.add(parse(role));
+                }
+            }
+            table.put(emote, new ReactionRule(toSortedArray(positive), toSortedArray(negative)));
+        }
+        return table;
+    }
+
+    /**
+     * Compiles the cassowaries of a guild into an index of role to cassowaries.
+     * @param guild The guild ID.
+     * @return The index.
+     */
+    private Map<Long, List<Cassowary>> compile(long guild) {
+        Gravity gravity = DataContainer.INSTANCE.getGravity();
+        String guildId = String.valueOf(guild);
+        CassowariesData cassowariesData = gravity.load(new CassowariesData(guildId));
+        CassowaryPenguinData cassowaryPenguins = gravity.load(new CassowaryPenguinData(guildId));
+        Map<Long, List<Cassowary>> index = new HashMap<>();
+        for(Property property : cassowariesData.values()) {
+            String label = property.asString();
+            CassowaryData cassowaryData = gravity.load(new CassowaryData(guildId, label));
+            List<Long> roles = new ArrayList<>();
+            for(Property role : cassowaryData.values()) {
+                roles.add(parse(role.asString()));
+            }
+            long anchor = cassowaryPenguins.getKeys().contains(label.toLowerCase())
+                    ? parse(cassowaryPenguins.get(label.toLowerCase()).asString())
+                    : 0L;
+            Cassowary cassowary = new Cassowary(label, toSortedArray(roles), anchor);
+            for(long role : cassowary.getRoles()) {
+                index.computeIfAbsent(role, id -> new ArrayList<>()).add(cassowary);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Parses a role ID.
+     * @param role The role ID as a string.
+     * @return The role ID, or 0 if it is not a valid ID.
+     */
+    private long parse(String role) {
+        try {
+            return Long.parseLong(role.trim());
+        } catch(NumberFormatException exception) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Converts role IDs into a sorted array without duplicates or invalid IDs.
+     * @param roles The role IDs.
+     * @return The array.
+     */
+    private long[] toSortedArray(List<Long> roles) {
+        return roles.stream()
+                .mapToLong(Long::longValue)
+                .filter(role -> role != 0)
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+}
@@ -0,0 +1,42 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.react;
+
+import lombok.Getter;
+
+/**
+ * A compiled reaction role rule: the roles a single emote on a message grants and takes away.
+ * Both arrays are sorted, so membership checks are a binary search.
+ */
+public final class ReactionRule {
+
+    @Getter private final long[] positive;
+    @Getter private final long[] negative;
+
+    /**
+     * Creates a rule.
+     * @param positive The sorted role IDs that are added on reaction.
+     * @param negative The sorted role IDs that are removed on reaction.
+     */
+    ReactionRule(long[] positive, long[] negative) {
+        this.positive = positive;
+        this.negative = negative;
+    }
+
+}
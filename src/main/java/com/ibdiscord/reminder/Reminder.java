@@ -19,19 +19,41 @@
 package com.ibdiscord.reminder;
 
 import com.ibdiscord.data.db.DataContainer;
+import com.ibdiscord.data.db.DataProvider;
+import com.ibdiscord.data.db.entries.reminder.ReminderData;
 import com.ibdiscord.data.db.entries.reminder.ReminderUserData;
+import com.ibdiscord.data.db.entries.reminder.ReminderUserList;
+import com.ibdiscord.utils.scheduler.Scheduler;
 import de.arraying.gravity.Gravity;
 import lombok.AllArgsConstructor;
 
 import java.util.Date;
+import java.util.Map;
 
 
 @AllArgsConstructor
 public final class Reminder {
 
     private final int id;
+    private final String user;
     private final long time;
     private final String reminder;
+    private volatile boolean completed;
+
+    /**
+     * Creates a reminder from its persisted hash.
+     * @param id The ID.
+     * @param data The hash, as stored in {@link ReminderUserData}.
+     * @return The reminder.
+     */
+    public static Reminder of(int id, Map<String, String> data) {
+        return new Reminder(id,
+                data.getOrDefault(ReminderUserData.USER, "0"),
+                Long.parseLong(data.getOrDefault(ReminderUserData.TIME, "0")),
+                data.getOrDefault(ReminderUserData.TEXT, "oops, an error occurred"),
+                Boolean.parseBoolean(data.getOrDefault(ReminderUserData.COMPLETED, "false"))
+        );
+    }
 
     /**
      * Gets the ID.
@@ -41,25 +63,40 @@ public final class Reminder {
         return id;
     }
 
+    /**
+     * Gets the ID of the user that created the reminder.
+     * @return The user ID.
+     */
+    public String getUser() {
+        return user;
+    }
+
     /**
      * Whether or not the reminder is completed.
      * @return True if it is, false otherwise.
      */
     public boolean isCompleted() {
-        return DataContainer.INSTANCE.getGravity().load(new ReminderUserData(id)).get(ReminderUserData.COMPLETED)
-                .defaulting(false)
-                .asBoolean();
+        return completed;
     }
 
     /**
      * Sets the reminder's completed value.
+     * A completed reminder is removed from the due index and the user's list, and is unscheduled.
      * @param completed True if it is, false otherwise.
      */
     public void setCompleted(boolean completed) {
+        this.completed = completed;
         Gravity gravity = DataContainer.INSTANCE.getGravity();
         ReminderUserData userData = gravity.load(new ReminderUserData(id));
         userData.set(ReminderUserData.COMPLETED, completed);
         gravity.save(userData);
+        if(completed) {
+            new DataProvider().zrem(ReminderData.DUE, String.valueOf(id));
+            Scheduler.INSTANCE.cancel(ReminderHandler.key(id));
+            ReminderUserList userList = gravity.load(new ReminderUserList(user));
+            userList.remove(id);
+            gravity.save(userList);
+        }
     }
 
     /**
@@ -20,18 +20,21 @@ package com.ibdiscord.reminder;
 
 import com.ibdiscord.IBai;
 import com.ibdiscord.data.db.DataContainer;
+import com.ibdiscord.data.db.DataProvider;
 import com.ibdiscord.data.db.entries.reminder.ReminderData;
 import com.ibdiscord.data.db.entries.reminder.ReminderUserData;
 import com.ibdiscord.data.db.entries.reminder.ReminderUserList;
+import com.ibdiscord.delivery.DeliveryQueue;
+import com.ibdiscord.utils.scheduler.Scheduler;
 import de.arraying.gravity.Gravity;
 import de.arraying.gravity.data.property.Property;
 import net.dv8tion.jda.api.entities.User;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 public enum ReminderHandler {
 
@@ -40,39 +43,46 @@ public enum ReminderHandler {
      */
     INSTANCE;
 
-    private final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
+    private static final String INDEXED = "reminders_due_indexed";
+    private static final String REFILL = "reminder_refill";
 
     /**
-     * Gets all reminders for the user.
+     * Gets all pending reminders for the user.
+     * The reminders are read in one batch. IDs that no longer refer to a pending reminder of the user are pruned
+     * from the user's list, so the list does not grow with the user's history.
      * @param user The user.
      * @return A list of reminders, can be empty.
      */
     public List<Reminder> getFor(User user) {
         Gravity gravity = DataContainer.INSTANCE.getGravity();
         ReminderUserList userList = gravity.load(new ReminderUserList(user.getId()));
-        List<Reminder> list = new ArrayList<>();
-        userList.values().stream()
+        List<Integer> ids = userList.values().stream()
                 .map(Property::asInt)
-                .forEach(it -> {
-                    ReminderUserData reminderUserData = gravity.load(new ReminderUserData(it));
-                    if(reminderUserData.get(ReminderUserData.USER)
-                            .defaulting(0L)
-                            .asLong() == user.getIdLong()) {
-                        Reminder reminder = new Reminder(it,
-                                reminderUserData.get(ReminderUserData.TIME)
-                                        .defaulting(0L)
-                                        .asLong(),
-                                reminderUserData.get(ReminderUserData.TEXT)
-                                        .defaulting("oops, an error occurred")
-                                        .asString());
-                        list.add(reminder);
-                    }
-                });
+                .sorted()
+                .collect(Collectors.toList());
+        List<Reminder> reminders = load(ids);
+        List<Reminder> list = new ArrayList<>();
+        boolean pruned = false;
+        for(int i = 0; i < ids.size(); i++) {
+            Reminder reminder = reminders.get(i);
+            if(reminder == null
+                    || reminder.isCompleted()
+                    || !reminder.getUser().equals(user.getId())) {
+                userList.remove(ids.get(i));
+                pruned = true;
+            } else {
+                list.add(reminder);
+            }
+        }
+        if(pruned) {
+            gravity.save(userList);
+        }
         return list;
     }
 
     /**
      * Creates a reminder for a user.
+     * The reminder is only scheduled right away if it is due within the horizon, otherwise a later refill loads it.
      * @param user The user.
      * @param time The time.
      * @param text The text.
@@ -93,33 +103,128 @@ public enum ReminderHandler {
         ReminderUserList reminderUserList = gravity.load(new ReminderUserList(user.getId()));
         reminderUserList.add(newId);
         gravity.save(reminderUserList);
-        Reminder reminder = new Reminder(newId, time, text);
-        schedule(reminder, user);
+        new DataProvider().zadd(ReminderData.DUE, time, String.valueOf(newId));
+        if(time <= horizon()) {
+            schedule(new Reminder(newId, user.getId(), time, text, false));
+        }
+    }
+
+    /**
+     * Recovers reminders on startup.
+     * Reminders created before the due index existed are indexed once, then the reminders within the horizon are
+     * scheduled and periodic refills are started.
+     */
+    public void recover() {
+        DataProvider provider = new DataProvider();
+        if(provider.get(INDEXED) == null) {
+            index(provider);
+            provider.set(INDEXED, "true");
+        }
+        refill();
+    }
+
+    /**
+     * Gets the scheduler key of a reminder.
+     * @param id The reminder ID.
+     * @return The key.
+     */
+    static String key(int id) {
+        return "reminder:" + id;
+    }
+
+    /**
+     * Schedules all pending reminders that are due within the horizon and are not scheduled yet.
+     * Always schedules the next refill, at half the horizon so that no reminder is loaded late.
+     */
+    private void refill() {
+        try {
+            List<Integer> ids = new DataProvider().zrangebyscore(ReminderData.DUE,
+                    Double.NEGATIVE_INFINITY,
+                    horizon()
+            ).stream()
+                    .map(Integer::valueOf)
+                    .filter(id -> !Scheduler.INSTANCE.isScheduled(key(id)))
+                    .collect(Collectors.toList());
+            int loaded = 0;
+            for(Reminder reminder : load(ids)) {
+                if(reminder != null && !reminder.isCompleted()) {
+                    schedule(reminder);
+                    loaded++;
+                }
+            }
+            IBai.INSTANCE.getLogger().info("Loaded {} reminders due within the horizon.", loaded);
+        } finally {
+            long interval = Math.max(1, IBai.INSTANCE.getConfig().getReminderHorizon() / 2);
+            Scheduler.INSTANCE.schedule(REFILL, interval, TimeUnit.MINUTES, this::refill);
+        }
+    }
+
+    /**
+     * Adds every reminder that is not completed to the due index.
+     * @param provider The data provider.
+     */
+    private void index(DataProvider provider) {
+        Gravity gravity = DataContainer.INSTANCE.getGravity();
+        int last = gravity.load(new ReminderData()).get()
+                .defaulting(0)
+                .asInt();
+        int indexed = 0;
+        for(int i = 1; i <= last; i++) {
+            ReminderUserData reminderUserData = gravity.load(new ReminderUserData(i));
+            if(reminderUserData.get(ReminderUserData.COMPLETED).defaulting(false).asBoolean()) {
+                continue;
+            }
+            provider.zadd(ReminderData.DUE,
+                    reminderUserData.get(ReminderUserData.TIME).defaulting(0L).asLong(),
+                    String.valueOf(i)
+            );
+            indexed++;
+        }
+        IBai.INSTANCE.getLogger().info("Indexed {} pending reminders.", indexed);
+    }
+
+    /**
+     * Loads reminders in one batch.
+     * @param ids The reminder IDs.
+     * @return A list of reminders in the order of the IDs, an element is null if the reminder does not exist.
+     */
+    private List<Reminder> load(List<Integer> ids) {
+        List<Map<String, String>> hashes = new DataProvider().hgetall(ids.stream()
+                .map(ReminderUserData::identifier)
+                .collect(Collectors.toList())
+        );
+        List<Reminder> reminders = new ArrayList<>();
+        for(int i = 0; i < ids.size(); i++) {
+            Map<String, String> hash = hashes.get(i);
+            reminders.add(hash.isEmpty() ? null : Reminder.of(ids.get(i), hash));
+        }
+        return reminders;
     }
 
     /**
      * Schedules a reminder.
+     * A refill can schedule a reminder again while it is being sent, so it is claimed by removing it from the due
+     * index first, and only the job that removed it sends it.
      * @param reminder The reminder.
-     * @param user The user.
      */
-    public void schedule(Reminder reminder, User user) {
-        if(reminder.isCompleted()) {
-            return;
-        }
-        long now = System.currentTimeMillis();
-        long end = reminder.getTime();
-        long diff = end - now;
-        long schedule = diff > 0 ? diff : 0;
-        executorService.schedule(() -> {
-            if(reminder.isCompleted()) {
+    private void schedule(Reminder reminder) {
+        Scheduler.INSTANCE.scheduleAt(key(reminder.getId()), reminder.getTime(), () -> {
+            if(reminder.isCompleted()
+                    || !new DataProvider().zrem(ReminderData.DUE, String.valueOf(reminder.getId()))) {
                 return;
             }
-            user.openPrivateChannel().queue(channel -> channel.sendMessage("Reminder! You asked me to remind "
-                        + "you of: " + reminder.getReminder())
-                    .queue());
+            DeliveryQueue.INSTANCE.send(reminder.getUser(), "Reminder! You asked me to remind you of: "
+                    + reminder.getReminder());
             reminder.setCompleted(true);
-        }, schedule, TimeUnit.MILLISECONDS);
-        IBai.INSTANCE.getLogger().info("Scheduled reminder #{}.", reminder.getId());
+        });
+    }
+
+    /**
+     * Gets the end of the horizon.
+     * @return The time in epoch milliseconds.
+     */
+    private long horizon() {
+        return System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(IBai.INSTANCE.getConfig().getReminderHorizon());
     }
 
 }
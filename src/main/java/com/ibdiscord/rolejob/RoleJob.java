@@ -0,0 +1,201 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.rolejob;
+
+import lombok.Getter;
+import lombok.Setter;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+
+import java.util.Arrays;
+import java.util.List;
+
+public final class RoleJob {
+
+    @Getter private final String guild;
+    @Getter private final int id;
+    @Getter private final RoleJobType type;
+    @Getter private final String source;
+    @Getter private final String target;
+    @Getter private final int total;
+    @Getter @Setter private volatile RoleJobState state;
+    @Getter private volatile long cursor;
+    @Getter private volatile int done;
+    @Getter private volatile int failed;
+    private long[] members;
+    private int position;
+    private long resumed;
+    private int doneSinceResumed;
+
+    /**
+     * Creates a job.
+     * @param guild The guild ID.
+     * @param id The ID of the job within the guild.
+     * @param type The type.
+     * @param source The ID of the role whose members are processed.
+     * @param target The ID of the role that is given.
+     * @param total The number of members when the job was created.
+     * @param state The state.
+     * @param cursor The ID of the last processed member, members are processed in order of ID.
+     * @param done The number of processed members.
+     * @param failed The number of members that could not be processed.
+     */
+    RoleJob(String guild, int id, RoleJobType type, String source, String target, int total, RoleJobState state,
+            long cursor, int done, int failed) {
+        this.guild = guild;
+        this.id = id;
+        this.type = type;
+        this.source = source;
+        this.target = target;
+        this.total = total;
+        this.state = state;
+        this.cursor = cursor;
+        this.done = done;
+        this.failed = failed;
+    }
+
+    /**
+     * Parses a persisted job.
+     * @param key The key, the guild ID and the job ID separated by a colon.
+     * @param raw The persisted value.
+     * @return The job, or null if the value is malformed.
+     */
+    static RoleJob parse(String key, String raw) {
+        String[] ids = key.split(":");
+        String[] data = raw.split(";");
+        if(ids.length != 2 || data.length != 8) {
+            return null;
+        }
+        try {
+            return new RoleJob(ids[0],
+                    Integer.parseInt(ids[1]),
+                    RoleJobType.valueOf(data[0]),
+                    data[1],
+                    data[2],
+                    Integer.parseInt(data[3]),
+                    RoleJobState.valueOf(data[4]),
+                    Long.parseLong(data[5]),
+                    Integer.parseInt(data[6]),
+                    Integer.parseInt(data[7])
+            );
+        } catch(IllegalArgumentException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the key the job is persisted under.
+     * @return The key.
+     */
+    String key() {
+        return guild + ":" + id;
+    }
+
+    /**
+     * Serializes the job for persistence.
+     * @return The persisted value.
+     */
+    String serialize() {
+        return String.join(";", type.name(), source, target, String.valueOf(total), state.name(),
+                String.valueOf(cursor), String.valueOf(done), String.valueOf(failed));
+    }
+
+    /**
+     * Takes a snapshot of the members with the source role that come after the cursor.
+     * This is done whenever the job starts or resumes, so members that gain the role later are not included.
+     * @param guild The guild.
+     */
+    void snapshot(Guild guild) {
+        Role role = guild.getRoleById(source);
+        List<Member> withRole = role == null ? List.of() : guild.getMembersWithRoles(role);
+        long[] ids = new long[withRole.size()];
+        int count = 0;
+        for(Member member : withRole) {
+            if(member.getIdLong() > cursor) {
+                ids[count++] = member.getIdLong();
+            }
+        }
+        members = Arrays.copyOf(ids, count);
+        Arrays.sort(members);
+        position = 0;
+        resumed = System.currentTimeMillis();
+        doneSinceResumed = 0;
+    }
+
+    /**
+     * Whether the snapshot has been taken since the job was loaded or resumed.
+     * @return True if it has.
+     */
+    boolean hasSnapshot() {
+        return members != null;
+    }
+
+    /**
+     * Drops the snapshot, so it is taken again when the job resumes.
+     */
+    void dropSnapshot() {
+        members = null;
+    }
+
+    /**
+     * Gets the next member to process.
+     * @return The user ID, or 0 if every member has been processed.
+     */
+    long next() {
+        return position < members.length ? members[position] : 0;
+    }
+
+    /**
+     * Advances past a member.
+     * @param member The user ID of the member.
+     * @param success Whether the member was processed successfully.
+     */
+    void advance(long member, boolean success) {
+        position++;
+        cursor = member;
+        doneSinceResumed++;
+        if(success) {
+            done++;
+        } else {
+            failed++;
+        }
+    }
+
+    /**
+     * Gets the number of members left in the current run.
+     * @return The count.
+     */
+    public int getRemaining() {
+        return members == null ? Math.max(0, total - done - failed) : members.length - position;
+    }
+
+    /**
+     * Estimates how long the job will still take, based on the pace since it last started or resumed.
+     * @return The estimate in milliseconds, or -1 if there is nothing to base it on yet.
+     */
+    public long getEta() {
+        if(doneSinceResumed == 0) {
+            return -1;
+        }
+        long perMember = (System.currentTimeMillis() - resumed) / doneSinceResumed;
+        return perMember * getRemaining();
+    }
+
+}
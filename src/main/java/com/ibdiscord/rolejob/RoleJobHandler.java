@@ -0,0 +1,352 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.rolejob;
+
+import com.ibdiscord.IBai;
+import com.ibdiscord.data.db.DataContainer;
+import com.ibdiscord.data.db.entries.RoleJobData;
+import com.ibdiscord.utils.scheduler.Scheduler;
+import de.arraying.gravity.Gravity;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.requests.RestAction;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Processes bulk role changes one member at a time.
+ * At most one request is in flight across all jobs, and requests are spaced out, so a large job never floods the
+ * rate limit queue and other requests keep flowing. Jobs take turns, and their progress is persisted after every
+ * member so that they continue where they left off after a restart.
+ */
+public enum RoleJobHandler {
+
+    /**
+     * The singleton instance.
+     */
+    INSTANCE;
+
+    private static final String PUMP = "role_job_pump";
+    private static final long RETENTION = 1;
+
+    private final Map<String, RoleJob> jobs = new LinkedHashMap<>();
+    private boolean inFlight;
+    private int turn;
+
+    /**
+     * Checks whether jobs can run.
+     * Jobs go through the cached members of a role, so they need the member cache, without which they would
+     * see no members and finish right away.
+     * @return True if the member cache is enabled, false otherwise.
+     */
+    public boolean isAvailable() {
+        return IBai.INSTANCE.getConfig().isFeatureMemberCache();
+    }
+
+    /**
+     * Creates and starts a job.
+     * @param guild The guild.
+     * @param type The type.
+     * @param source The role whose members are processed.
+     * @param target The role that is given.
+     * @return The job.
+     */
+    public RoleJob create(Guild guild, RoleJobType type, Role source, Role target) {
+        RoleJob job;
+        synchronized(this) {
+            int id = jobs.values().stream()
+                    .filter(it -> it.getGuild().equals(guild.getId()))
+                    .mapToInt(RoleJob::getId)
+                    .max()
+                    .orElse(0) + 1;
+            job = new RoleJob(guild.getId(), id, type, source.getId(), target.getId(),
+                    guild.getMembersWithRoles(source).size(), RoleJobState.RUNNING, 0, 0, 0);
+            jobs.put(job.key(), job);
+            persist(job);
+        }
+        wake();
+        return job;
+    }
+
+    /**
+     * Gets the jobs of a guild, including jobs that finished within the last hour.
+     * @param guild The guild.
+     * @return The jobs, in order of creation.
+     */
+    public synchronized List<RoleJob> getJobs(Guild guild) {
+        return jobs.values().stream()
+                .filter(it -> it.getGuild().equals(guild.getId()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Cancels a running job. Its progress is kept, so it can be resumed.
+     * @param guild The guild.
+     * @param id The ID of the job.
+     * @return True if the job was cancelled, false if there is no running job with the ID.
+     */
+    public synchronized boolean cancel(Guild guild, int id) {
+        RoleJob job = jobs.get(guild.getId() + ":" + id);
+        if(job == null || job.getState() != RoleJobState.RUNNING) {
+            return false;
+        }
+        job.setState(RoleJobState.CANCELLED);
+        job.dropSnapshot();
+        persist(job);
+        return true;
+    }
+
+    /**
+     * Resumes a cancelled job from where it left off.
+     * @param guild The guild.
+     * @param id The ID of the job.
+     * @return True if the job was resumed, false if there is no cancelled job with the ID.
+     */
+    public boolean resume(Guild guild, int id) {
+        synchronized(this) {
+            RoleJob job = jobs.get(guild.getId() + ":" + id);
+            if(job == null || job.getState() != RoleJobState.CANCELLED) {
+                return false;
+            }
+            job.setState(RoleJobState.RUNNING);
+            persist(job);
+        }
+        wake();
+        return true;
+    }
+
+    /**
+     * Restores all persisted jobs. Running jobs continue from their cursor.
+     * Without the member cache, jobs are left persisted until it is enabled again.
+     */
+    public void recover() {
+        if(!isAvailable()) {
+            IBai.INSTANCE.getLogger().warn("Not recovering role jobs, they need the member cache.");
+            return;
+        }
+        RoleJobData roleJobData = DataContainer.INSTANCE.getGravity().load(new RoleJobData());
+        int restored = 0;
+        synchronized(this) {
+            for(String key : roleJobData.getKeys()) {
+                RoleJob job = RoleJob.parse(key, roleJobData.get(key).asString());
+                if(job == null) {
+                    continue;
+                }
+                jobs.put(job.key(), job);
+                restored++;
+            }
+        }
+        IBai.INSTANCE.getLogger().info("Recovered {} role jobs.", restored);
+        wake();
+    }
+
+    /**
+     * Makes sure the pump runs, unless it is already scheduled or waiting for a request.
+     */
+    private void wake() {
+        synchronized(this) {
+            if(inFlight || Scheduler.INSTANCE.isScheduled(PUMP)) {
+                return;
+            }
+        }
+        Scheduler.INSTANCE.schedule(PUMP, 0, TimeUnit.MILLISECONDS, this::pump);
+    }
+
+    /**
+     * Sends the request for the next member of the next running job.
+     */
+    private void pump() {
+        RoleJob job;
+        long member;
+        RestAction<Void> action;
+        synchronized(this) {
+            if(inFlight) {
+                return;
+            }
+            do { // Skipped members need no request, so move on to the next right away.
+                job = nextJob();
+                if(job == null) {
+                    return;
+                }
+                member = job.next();
+                action = request(job, member);
+            } while(action == null);
+            inFlight = true;
+        }
+        RoleJob finalJob = job;
+        long finalMember = member;
+        action.queue(success -> complete(finalJob, finalMember, null),
+                error -> complete(finalJob, finalMember, error)
+        );
+    }
+
+    /**
+     * Picks the next running job in turn, finishing jobs that have no members left and failing jobs whose roles
+     * were deleted.
+     * @return The job, or null if no job is running.
+     */
+    private RoleJob nextJob() {
+        while(true) {
+            List<RoleJob> running = jobs.values().stream()
+                    .filter(it -> it.getState() == RoleJobState.RUNNING)
+                    .collect(Collectors.toList());
+            if(running.isEmpty()) {
+                return null;
+            }
+            RoleJob job = running.get(turn++ % running.size());
+            Guild guild = IBai.INSTANCE.getJda().getGuildById(job.getGuild());
+            if(guild == null) {
+                job.setState(RoleJobState.CANCELLED); // The guild is gone or unavailable, it can be resumed later.
+                persist(job);
+                continue;
+            }
+            if(guild.getRoleById(job.getSource()) == null
+                    || guild.getRoleById(job.getTarget()) == null) {
+                finish(job, RoleJobState.FAILED);
+                continue;
+            }
+            if(!job.hasSnapshot()) {
+                job.snapshot(guild);
+            }
+            if(job.next() == 0) {
+                finish(job, RoleJobState.DONE);
+                continue;
+            }
+            return job;
+        }
+    }
+
+    /**
+     * Creates the request for a member of a job.
+     * Members that left, or that no longer need the change, are skipped right away.
+     * The roles were checked by {@link #nextJob()} right before this, under the same lock.
+     * @param job The job.
+     * @param id The user ID of the member.
+     * @return The request, or null if the member was skipped.
+     */
+    private RestAction<Void> request(RoleJob job, long id) {
+        Guild guild = IBai.INSTANCE.getJda().getGuildById(job.getGuild());
+        Member member = guild.getMemberById(id);
+        Role source = guild.getRoleById(job.getSource());
+        Role target = guild.getRoleById(job.getTarget());
+        if(member == null) {
+            job.advance(id, false);
+            return null;
+        }
+        try {
+            switch(job.getType()) {
+                case GIVE:
+                    if(member.getRoles().contains(target)) {
+                        job.advance(id, true);
+                        return null;
+                    }
+                    return guild.addRoleToMember(member, target);
+                case SWAP:
+                    if(!member.getRoles().contains(source)) {
+                        job.advance(id, true);
+                        return null;
+                    }
+                    return guild.modifyMemberRoles(member, Collections.singletonList(target),
+                            Collections.singletonList(source));
+                default:
+                    job.advance(id, false);
+                    return null;
+            }
+        } catch(RuntimeException exception) { // Missing permissions or hierarchy.
+            job.advance(id, false);
+            return null;
+        }
+    }
+
+    /**
+     * Records the outcome of a request and schedules the next one.
+     * @param job The job.
+     * @param member The user ID of the member.
+     * @param error The error, or null if the request succeeded.
+     */
+    private void complete(RoleJob job, long member, Throwable error) {
+        synchronized(this) {
+            inFlight = false;
+            job.advance(member, error == null);
+            if(job.getState() == RoleJobState.RUNNING || job.getState() == RoleJobState.CANCELLED) {
+                persist(job);
+            }
+        }
+        if(error != null) {
+            IBai.INSTANCE.getLogger().warn("Role job {} failed for member {}: {}",
+                    job.key(),
+                    member,
+                    error.getMessage()
+            );
+        }
+        Scheduler.INSTANCE.schedule(PUMP,
+                IBai.INSTANCE.getConfig().getRoleJobInterval(),
+                TimeUnit.MILLISECONDS,
+                this::pump
+        );
+    }
+
+    /**
+     * Finishes a job, and forgets it after the retention period.
+     * @param job The job.
+     * @param state The final state.
+     */
+    private void finish(RoleJob job, RoleJobState state) {
+        job.setState(state);
+        job.dropSnapshot();
+        unpersist(job);
+        IBai.INSTANCE.getLogger().info("Role job {} {}, {} done, {} failed.",
+                job.key(),
+                state == RoleJobState.DONE ? "finished" : "failed",
+                job.getDone(),
+                job.getFailed()
+        );
+        Scheduler.INSTANCE.schedule("role_job_retention:" + job.key(), RETENTION, TimeUnit.HOURS, () -> {
+            synchronized(this) {
+                jobs.remove(job.key(), job);
+            }
+        });
+    }
+
+    /**
+     * Persists a job.
+     * @param job The job.
+     */
+    private void persist(RoleJob job) {
+        Gravity gravity = DataContainer.INSTANCE.getGravity();
+        RoleJobData roleJobData = gravity.load(new RoleJobData());
+        roleJobData.set(job.key(), job.serialize());
+        gravity.save(roleJobData);
+    }
+
+    /**
+     * Removes a persisted job.
+     * @param job The job.
+     */
+    private void unpersist(RoleJob job) {
+        Gravity gravity = DataContainer.INSTANCE.getGravity();
+        RoleJobData roleJobData = gravity.load(new RoleJobData());
+        roleJobData.unset(job.key());
+        gravity.save(roleJobData);
+    }
+
+}
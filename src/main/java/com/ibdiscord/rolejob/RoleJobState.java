@@ -0,0 +1,43 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.rolejob;
+
+public enum RoleJobState {
+
+    /**
+     * The job is being processed.
+     */
+    RUNNING,
+
+    /**
+     * The job was cancelled, it can be resumed.
+     */
+    CANCELLED,
+
+    /**
+     * Every member has been processed.
+     */
+    DONE,
+
+    /**
+     * The source or target role was deleted, so the job cannot continue.
+     */
+    FAILED
+
+}
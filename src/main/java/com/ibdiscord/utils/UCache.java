@@ -0,0 +1,116 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.utils;
+
+import com.ibdiscord.data.LocalConfig;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.utils.ChunkingFilter;
+import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
+
+import java.util.EnumSet;
+
+public final class UCache {
+
+    /**
+     * A rough estimate of the heap a cached member takes up, including its user.
+     */
+    private static final long MEMBER_BYTES = 1024;
+
+    /**
+     * A rough estimate of the heap the presence of a member takes up, including its activities.
+     */
+    private static final long PRESENCE_BYTES = 512;
+
+    /**
+     * Gets the gateway intents the enabled features need.
+     * @param config The config.
+     * @return The intents.
+     */
+    public static EnumSet<GatewayIntent> getIntents(LocalConfig config) {
+        EnumSet<GatewayIntent> intents = EnumSet.of(GatewayIntent.GUILD_MEMBERS,
+                GatewayIntent.GUILD_BANS,
+                GatewayIntent.GUILD_EMOJIS,
+                GatewayIntent.GUILD_MESSAGES,
+                GatewayIntent.GUILD_MESSAGE_REACTIONS,
+                GatewayIntent.DIRECT_MESSAGES
+        );
+        if(config.isFeaturePresences()) {
+            intents.add(GatewayIntent.GUILD_PRESENCES);
+        }
+        return intents;
+    }
+
+    /**
+     * Gets the cache flags no enabled feature needs.
+     * @param config The config.
+     * @return The flags to disable.
+     */
+    public static EnumSet<CacheFlag> getDisabledFlags(LocalConfig config) {
+        EnumSet<CacheFlag> flags = EnumSet.of(CacheFlag.VOICE_STATE);
+        if(!config.isFeaturePresences()) {
+            flags.add(CacheFlag.ACTIVITY);
+            flags.add(CacheFlag.CLIENT_STATUS);
+        }
+        return flags;
+    }
+
+    /**
+     * Gets the member cache policy.
+     * Without the full member cache, only owners are cached and other members are retrieved through
+     * {@link UMember#getMember(Guild, String)}.
+     * @param config The config.
+     * @return The policy.
+     */
+    public static MemberCachePolicy getMemberCachePolicy(LocalConfig config) {
+        return config.isFeatureMemberCache() ? MemberCachePolicy.ALL : MemberCachePolicy.OWNER;
+    }
+
+    /**
+     * Gets the chunking filter, all members are only requested on startup if the full member cache is used.
+     * @param config The config.
+     * @return The filter.
+     */
+    public static ChunkingFilter getChunkingFilter(LocalConfig config) {
+        return config.isFeatureMemberCache() ? ChunkingFilter.ALL : ChunkingFilter.NONE;
+    }
+
+    /**
+     * Estimates how much heap is saved compared to caching every member with their presence.
+     * @param jda The JDA instance.
+     * @param config The config.
+     * @return The estimate in bytes.
+     */
+    public static long estimateSaved(JDA jda, LocalConfig config) {
+        long members = 0;
+        long cached = 0;
+        for(Guild guild : jda.getGuilds()) {
+            members += guild.getMemberCount();
+            cached += guild.getMemberCache().size();
+        }
+        long saved = Math.max(0, members - cached) * MEMBER_BYTES;
+        if(!config.isFeaturePresences()) {
+            saved += members * PRESENCE_BYTES;
+        }
+        return saved;
+    }
+
+}
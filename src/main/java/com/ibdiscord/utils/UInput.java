@@ -18,13 +18,16 @@
 
 package com.ibdiscord.utils;
 
+import com.ibdiscord.index.GuildIndex;
+import com.ibdiscord.index.IndexHandler;
 import net.dv8tion.jda.api.entities.*;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.LongFunction;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
-import java.util.stream.Stream;
 
 public final class UInput {
 
@@ -72,6 +75,8 @@ public final class UInput {
 
     /**
      * Gets the member corresponding to the given user input.
+     * Members that are not cached are retrieved, which waits for Discord if the member cache is disabled. This must
+     * therefore not be called from a JDA callback.
      * @param guild The guild.
      * @param input The input.
      * @return A Member object, or null if the input is invalid.
@@ -79,15 +84,12 @@ public final class UInput {
     public static Member getMember(Guild guild, String input) {
         if(ID_PATTERN.matcher(input).find()
                 || MEMBER_MENTION_PATTERN.matcher(input).find()) {
-            return guild.getMemberById(input.replaceAll("\\D", "")); // Remove all non-digits.
+            return UMember.retrieveMember(guild, input.replaceAll("\\D", "")).join(); // Remove all non-digits.
         } else if(NAME_PATTERN.matcher(input).find()) {
-            String name = input.substring(0, input.indexOf("#"));
-            String discriminator = input.substring(input.indexOf("#") + 1);
-            return guild.getMembers().stream()
-                    .filter(user -> user.getUser().getName().equalsIgnoreCase(name)
-                            && user.getUser().getDiscriminator().equals(discriminator))
-                    .findFirst()
-                    .orElse(null);
+            return first(IndexHandler.INSTANCE.get(guild).getMembers(input),
+                    id -> UMember.retrieveMember(guild, String.valueOf(id)).join(),
+                    null
+            );
         } else {
             return null;
         }
@@ -104,10 +106,10 @@ public final class UInput {
                 || ROLE_MENTION_PATTERN.matcher(input).find()) {
             return guild.getRoleById(input.replaceAll("\\D", "")); // Remove all non-digits.
         } else {
-            return guild.getRoles().stream()
-                    .filter(role -> role.getName().equalsIgnoreCase(input))
-                    .findFirst()
-                    .orElse(null);
+            return first(IndexHandler.INSTANCE.get(guild).getRoles(input),
+                    guild::getRoleById,
+                    Comparator.reverseOrder()
+            );
         }
     }
 
@@ -122,10 +124,10 @@ public final class UInput {
                 || CHANNEL_MENTION_PATTERN.matcher(input).find()) {
             return guild.getTextChannelById(input.replaceAll("\\D", "")); // Remove all non-digits.
         } else {
-            return guild.getTextChannels().stream()
-                    .filter(channel -> channel.getName().equalsIgnoreCase(input))
-                    .findFirst()
-                    .orElse(null);
+            return first(IndexHandler.INSTANCE.get(guild).getTextChannels(input),
+                    guild::getTextChannelById,
+                    Comparator.naturalOrder()
+            );
         }
     }
 
@@ -140,10 +142,10 @@ public final class UInput {
                 || CHANNEL_MENTION_PATTERN.matcher(input).find()) {
             return guild.getCategoryById(input.replaceAll("\\D", "")); // Remove all non-digits.
         } else {
-            return guild.getCategories().stream()
-                    .filter(category -> category.getName().equalsIgnoreCase(input))
-                    .findFirst()
-                    .orElse(null);
+            return first(IndexHandler.INSTANCE.get(guild).getCategories(input),
+                    guild::getCategoryById,
+                    Comparator.naturalOrder()
+            );
         }
     }
 
@@ -162,17 +164,38 @@ public final class UInput {
         if(ID_PATTERN.matcher(input).find()) {
             return guild.getGuildChannelById(input.replaceAll("\\D", ""));
         } else {
-            Stream<GuildChannel> stream = guild.getChannels().stream()
-                .filter(channel -> channel.getName().equalsIgnoreCase(input));
-            if(strictVoiceText) {
-                // This only looks for voice channels because of a text channel has been found this conditional
-                // will not be called in the first place.
-                stream = stream.filter(channel -> channel.getType() == ChannelType.VOICE);
+            // Text channels have already been looked up, so only voice channels and categories remain.
+            GuildIndex index = IndexHandler.INSTANCE.get(guild);
+            GuildChannel channel = first(index.getVoiceChannels(input),
+                    guild::getVoiceChannelById,
+                    Comparator.naturalOrder()
+            );
+            if(channel != null || strictVoiceText) {
+                return channel;
             }
-            return stream.findFirst().orElse(null);
+            return first(index.getCategories(input), guild::getCategoryById, Comparator.naturalOrder());
         }
     }
 
+    /**
+     * Resolves indexed IDs and picks the entity that comes first.
+     * @param ids The IDs.
+     * @param resolver The function to get an entity by ID.
+     * @param order The order of the entities, or null if any entity will do.
+     * @param <T> The type of entity.
+     * @return The entity, or null if none of the IDs resolve.
+     */
+    private static <T> T first(List<Long> ids, LongFunction<T> resolver, Comparator<? super T> order) {
+        T first = null;
+        for(long id : ids) {
+            T entity = resolver.apply(id);
+            if(entity != null && (first == null || (order != null && order.compare(entity, first) < 0))) {
+                first = entity;
+            }
+        }
+        return first;
+    }
+
     /**
      * Checks whether a String matches the Discord ID pattern.
      * @param input The value to check.
@@ -0,0 +1,118 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.utils;
+
+import com.ibdiscord.IBai;
+import com.ibdiscord.utils.objects.LruCache;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.ErrorResponse;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+public final class UMember {
+
+    /**
+     * Members that were retrieved because they were not in the member cache.
+     */
+    private static final LruCache<String, Member> RETRIEVED = new LruCache<>(
+            IBai.INSTANCE.getConfig().getMemberLruSize()
+    );
+
+    /**
+     * Gets a member by ID from the member cache or the retrieved members.
+     * This never calls Discord, so it returns null for members that were not retrieved yet.
+     * @param guild The guild.
+     * @param id The user ID.
+     * @return The member, or null if it is not cached.
+     */
+    public static Member getMember(Guild guild, String id) {
+        Member member = guild.getMemberById(id);
+        return member != null ? member : RETRIEVED.get(guild.getId() + ":" + id);
+    }
+
+    /**
+     * Retrieves a member by ID.
+     * If the member cache is enabled it holds every member, so only members that are not cached are retrieved from
+     * Discord when it is disabled. Retrieved members are kept in a bounded cache.
+     * @param guild The guild.
+     * @param id The user ID.
+     * @return A future that completes with the member, or null if the user is not a member of the guild. Any other
+     * failure to retrieve the member completes it exceptionally, so that callers never mistake it for an absence.
+     */
+    public static CompletableFuture<Member> retrieveMember(Guild guild, String id) {
+        Member member = getMember(guild, id);
+        if(member != null || IBai.INSTANCE.getConfig().isFeatureMemberCache()) {
+            return CompletableFuture.completedFuture(member);
+        }
+        return guild.retrieveMemberById(id).submit()
+                .thenApply(retrieved -> {
+                    RETRIEVED.put(guild.getId() + ":" + id, retrieved);
+                    return retrieved;
+                })
+                .exceptionally(throwable -> {
+                    Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                    if(cause instanceof ErrorResponseException
+                            && (((ErrorResponseException) cause).getErrorResponse() == ErrorResponse.UNKNOWN_MEMBER
+                            || ((ErrorResponseException) cause).getErrorResponse() == ErrorResponse.UNKNOWN_USER)) {
+                        return null;
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
+
+    /**
+     * Loads every member of a guild.
+     * If the member cache is disabled, the members are requested from Discord and are not kept afterwards, so this
+     * is costly on large guilds and should only be used where every member is really needed.
+     * @param guild The guild.
+     * @return A future that completes with the members.
+     */
+    public static CompletableFuture<List<Member>> loadMembers(Guild guild) {
+        if(IBai.INSTANCE.getConfig().isFeatureMemberCache()) {
+            return CompletableFuture.completedFuture(guild.getMembers());
+        }
+        CompletableFuture<List<Member>> future = new CompletableFuture<>();
+        guild.loadMembers()
+                .onSuccess(future::complete)
+                .onError(future::completeExceptionally);
+        return future;
+    }
+
+    /**
+     * Removes a retrieved member, for example because its roles changed.
+     * @param guild The guild.
+     * @param id The user ID.
+     */
+    public static void invalidate(Guild guild, String id) {
+        RETRIEVED.remove(guild.getId() + ":" + id);
+    }
+
+    /**
+     * Gets the number of retrieved members that are kept.
+     * @return The count.
+     */
+    public static int getRetrievedCount() {
+        return RETRIEVED.size();
+    }
+
+}
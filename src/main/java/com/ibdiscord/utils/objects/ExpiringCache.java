@@ -18,16 +18,15 @@
 
 package com.ibdiscord.utils.objects;
 
+import com.ibdiscord.utils.scheduler.Scheduler;
+
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 public class ExpiringCache<K, V> {
 
     private final Map<K, V> internal = new ConcurrentHashMap<>();
-    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
     private final long time;
     private final TimeUnit unit;
 
@@ -48,7 +47,7 @@ public class ExpiringCache<K, V> {
      */
     public void put(K key, V value) {
         internal.put(key, value);
-        executor.schedule(() -> internal.remove(key), time, unit);
+        Scheduler.INSTANCE.schedule(time, unit, () -> internal.remove(key));
     }
 
     /**
@@ -0,0 +1,199 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.utils.objects;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An order statistics tree over (timestamp, ID) pairs.
+ * Insertion, removal and rank queries are O(log n) expected, it is implemented as a treap with subtree sizes.
+ */
+public final class JoinOrder {
+
+    private Node root;
+
+    /**
+     * Adds an entry. Adding an entry that is already present does nothing.
+     * @param time The timestamp.
+     * @param id The ID, which breaks ties between equal timestamps.
+     */
+    public void add(long time, long id) {
+        if(contains(time, id)) {
+            return;
+        }
+        Node[] parts = split(root, time, id);
+        root = merge(merge(parts[0], new Node(time, id)), parts[1]);
+    }
+
+    /**
+     * Removes an entry.
+     * @param time The timestamp.
+     * @param id The ID.
+     */
+    public void remove(long time, long id) {
+        Node[] lower = split(root, time, id);
+        Node[] upper = split(lower[1], time, id + 1);
+        root = merge(lower[0], upper[1]);
+    }
+
+    /**
+     * Checks whether an entry is present.
+     * @param time The timestamp.
+     * @param id The ID.
+     * @return True if it is, false otherwise.
+     */
+    public boolean contains(long time, long id) {
+        Node node = root;
+        while(node != null) {
+            int comparison = compare(time, id, node);
+            if(comparison == 0) {
+                return true;
+            }
+            node = comparison < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of entries that come before the given entry.
+     * The entry itself does not need to be present.
+     * @param time The timestamp.
+     * @param id The ID.
+     * @return The zero based rank.
+     */
+    public int rank(long time, long id) {
+        int rank = 0;
+        Node node = root;
+        while(node != null) {
+            if(compare(time, id, node) > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Gets the number of entries.
+     * @return The size.
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Splits a subtree into the entries before the key and the entries at or after the key.
+     * @param node The subtree.
+     * @param time The timestamp of the key.
+     * @param id The ID of the key.
+     * @return An array of the two subtrees.
+     */
+    private static Node[] split(Node node, long time, long id) {
+        if(node == null) {
+            return new Node[2];
+        }
+        if(compare(time, id, node) > 0) {
+            Node[] parts = split(node.right, time, id);
+            node.right = parts[0];
+            node.update();
+            parts[0] = node;
+            return parts;
+        }
+        Node[] parts = split(node.left, time, id);
+        node.left = parts[1];
+        node.update();
+        parts[1] = node;
+        return parts;
+    }
+
+    /**
+     * Merges two subtrees, where every entry of the first comes before every entry of the second.
+     * @param first The first subtree.
+     * @param second The second subtree.
+     * @return The merged subtree.
+     */
+    private static Node merge(Node first, Node second) {
+        if(first == null) {
+            return second;
+        }
+        if(second == null) {
+            return first;
+        }
+        if(first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            first.update();
+            return first;
+        }
+        second.left = merge(first, second.left);
+        second.update();
+        return second;
+    }
+
+    /**
+     * Compares a key to a node.
+     * @param time The timestamp of the key.
+     * @param id The ID of the key.
+     * @param node The node.
+     * @return A negative number, zero or a positive number if the key comes before, is equal to or comes after the node.
+     */
+    private static int compare(long time, long id, Node node) {
+        int comparison = Long.compare(time, node.time);
+        return comparison != 0 ? comparison : Long.compare(id, node.id);
+    }
+
+    /**
+     * Gets the size of a subtree.
+     * @param node The subtree.
+     * @return The size.
+     */
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node {
+
+        private final long time;
+        private final long id;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        /**
+         * Creates a node.
+         * @param time The timestamp.
+         * @param id The ID.
+         */
+        private Node(long time, long id) {
+            this.time = time;
+            this.id = id;
+        }
+
+        /**
+         * Recomputes the size after the children changed.
+         */
+        private void update() {
+            size = 1 + JoinOrder.size(left) + JoinOrder.size(right);
+        }
+
+    }
+
+}
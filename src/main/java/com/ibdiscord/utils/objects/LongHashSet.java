@@ -0,0 +1,135 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.utils.objects;
+
+/**
+ * A set of primitive longs, backed by an open addressing table with linear probing.
+ * 0 is used to mark empty slots and can not be stored, which is fine for Discord IDs.
+ * This is not thread safe.
+ */
+public final class LongHashSet {
+
+    private long[] table = new long[16];
+    private int size;
+
+    /**
+     * Adds a value.
+     * @param value The value, not 0.
+     * @return True if the value was added, false if it was already present.
+     */
+    public boolean add(long value) {
+        if(value == 0) {
+            throw new IllegalArgumentException("0 can not be stored");
+        }
+        int slot = find(table, value);
+        if(table[slot] == value) {
+            return false;
+        }
+        table[slot] = value;
+        if(++size * 2 > table.length) {
+            resize();
+        }
+        return true;
+    }
+
+    /**
+     * Removes a value.
+     * @param value The value.
+     * @return True if the value was removed, false if it was not present.
+     */
+    public boolean remove(long value) {
+        int slot = find(table, value);
+        if(value == 0 || table[slot] != value) {
+            return false;
+        }
+        table[slot] = 0;
+        size--;
+        int mask = table.length - 1;
+        int next = (slot + 1) & mask;
+        while(table[next] != 0) { // Re-insert the rest of the cluster so that lookups do not stop at the gap.
+            long moved = table[next];
+            table[next] = 0;
+            table[find(table, moved)] = moved;
+            next = (next + 1) & mask;
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a value is present.
+     * @param value The value.
+     * @return True if it is, false otherwise.
+     */
+    public boolean contains(long value) {
+        return value != 0 && table[find(table, value)] == value;
+    }
+
+    /**
+     * Gets the number of values.
+     * @return The size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Copies the values into an array.
+     * @return The values, in no particular order.
+     */
+    public long[] toArray() {
+        long[] values = new long[size];
+        int index = 0;
+        for(long value : table) {
+            if(value != 0) {
+                values[index++] = value;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Doubles the table.
+     */
+    private void resize() {
+        long[] resized = new long[table.length * 2];
+        for(long value : table) {
+            if(value != 0) {
+                resized[find(resized, value)] = value;
+            }
+        }
+        table = resized;
+    }
+
+    /**
+     * Finds the slot of a value, or the empty slot it would go in.
+     * @param table The table, its length is a power of two.
+     * @param value The value.
+     * @return The slot.
+     */
+    private static int find(long[] table, long value) {
+        int mask = table.length - 1;
+        long hash = value * 0x9E3779B97F4A7C15L;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while(table[slot] != 0 && table[slot] != value) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+}
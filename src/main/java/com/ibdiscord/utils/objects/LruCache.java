@@ -0,0 +1,75 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.utils.objects;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class LruCache<K, V> {
+
+    private final Map<K, V> internal;
+
+    /**
+     * Creates a least recently used cache.
+     * @param capacity The maximum number of entries, the least recently used entry is evicted beyond this.
+     */
+    public LruCache(int capacity) {
+        this.internal = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Gets a value by key.
+     * @param key The key.
+     * @return The value, or null if it is not cached.
+     */
+    public synchronized V get(K key) {
+        return internal.get(key);
+    }
+
+    /**
+     * Adds a value to the cache.
+     * @param key The key.
+     * @param value The value.
+     */
+    public synchronized void put(K key, V value) {
+        internal.put(key, value);
+    }
+
+    /**
+     * Removes a value from the cache.
+     * @param key The key.
+     */
+    public synchronized void remove(K key) {
+        internal.remove(key);
+    }
+
+    /**
+     * Gets the number of cached values.
+     * @return The size.
+     */
+    public synchronized int size() {
+        return internal.size();
+    }
+
+}
@@ -0,0 +1,62 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.utils.objects;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+public final class PhaseTimer {
+
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private final long start = System.nanoTime();
+    private long last = start;
+
+    /**
+     * Ends the current phase.
+     * The phase is timed from the previous mark, or from the creation of the timer.
+     * @param phase The name of the phase.
+     */
+    public void mark(String phase) {
+        long now = System.nanoTime();
+        phases.put(phase, TimeUnit.NANOSECONDS.toMillis(now - last));
+        last = now;
+    }
+
+    /**
+     * Gets the time from the creation of the timer to the last mark.
+     * @return The time in milliseconds.
+     */
+    public long getTotal() {
+        return TimeUnit.NANOSECONDS.toMillis(last - start);
+    }
+
+    /**
+     * Formats all phases.
+     * @return The phases and their durations, in order.
+     */
+    @Override
+    public String toString() {
+        return phases.entrySet().stream()
+                .map(entry -> entry.getKey() + " " + entry.getValue() + "ms")
+                .collect(Collectors.joining(", "));
+    }
+
+}
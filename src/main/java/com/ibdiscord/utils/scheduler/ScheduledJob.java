@@ -0,0 +1,98 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.utils.scheduler;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public final class ScheduledJob {
+
+    @Getter private final String key;
+    @Getter private final String type;
+    @Getter private final long due;
+    @Getter private final Runnable task;
+    private final AtomicBoolean done = new AtomicBoolean();
+    private long target;
+
+    /**
+     * Creates a job.
+     * @param key The key, null for anonymous jobs.
+     * @param type The job type, null for jobs that are not persisted.
+     * @param due The time the job is due at, in epoch milliseconds.
+     * @param task The task.
+     */
+    ScheduledJob(String key, String type, long due, Runnable task) {
+        this.key = key;
+        this.type = type;
+        this.due = due;
+        this.task = task;
+    }
+
+    /**
+     * Cancels the job.
+     * @return True if the job was cancelled, false if it already ran or was cancelled before.
+     */
+    public boolean cancel() {
+        return Scheduler.INSTANCE.cancel(this);
+    }
+
+    /**
+     * Whether the job ran or was cancelled.
+     * @return True if it did.
+     */
+    public boolean isDone() {
+        return done.get();
+    }
+
+    /**
+     * Whether the job is persisted.
+     * @return True if it is.
+     */
+    boolean isDurable() {
+        return type != null;
+    }
+
+    /**
+     * Claims the job, either to run it or to cancel it.
+     * @return True if this was the first claim.
+     */
+    boolean claim() {
+        return done.compareAndSet(false, true);
+    }
+
+    /**
+     * Gets the tick of the wheel the job fires on.
+     * Only accessed by the wheel thread.
+     * @return The tick.
+     */
+    long getTarget() {
+        return target;
+    }
+
+    /**
+     * Sets the tick of the wheel the job fires on.
+     * Only accessed by the wheel thread.
+     * @param target The tick.
+     */
+    void setTarget(long target) {
+        this.target = target;
+    }
+
+}
@@ -0,0 +1,315 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.utils.scheduler;
+
+import com.ibdiscord.IBai;
+import com.ibdiscord.data.db.DataContainer;
+import com.ibdiscord.data.db.DataProvider;
+import com.ibdiscord.data.db.entries.SchedulerData;
+import com.ibdiscord.utils.objects.NamedThreadFactory;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * The scheduler every subsystem schedules its delayed work on.
+ * Jobs are kept on a single timing wheel and run on a small pool of workers once due.
+ * Durable jobs are persisted with their type and payload, and are restored by {@link #recover()}, which runs all
+ * jobs that became due while the bot was offline right away. Their handlers may block on Discord or the database,
+ * so they run on a separate pool and cannot hold up the short jobs everything else schedules.
+ */
+public enum Scheduler {
+
+    /**
+     * The singleton instance.
+     */
+    INSTANCE;
+
+    private static final long TICK = 100;
+    private static final int WORKERS = 2;
+    private static final int BLOCKING_WORKERS = 4;
+
+    private final Map<String, ScheduledJob> keyed = new ConcurrentHashMap<>();
+    private final Map<String, Consumer<String>> types = new ConcurrentHashMap<>();
+    private final TimingWheel wheel = new TimingWheel(TICK, this::dispatch);
+    private final ExecutorService workers = Executors.newFixedThreadPool(WORKERS,
+            new NamedThreadFactory("Scheduler-Worker")
+    );
+    private final ExecutorService blockingWorkers = Executors.newFixedThreadPool(BLOCKING_WORKERS,
+            new NamedThreadFactory("Scheduler-Blocking")
+    );
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong executed = new AtomicLong();
+    private long totalLateness;
+    private long maxLateness;
+
+    /**
+     * Starts the wheel.
+     */
+    Scheduler() {
+        new NamedThreadFactory("Scheduler-Wheel").newThread(wheel).start();
+    }
+
+    /**
+     * Registers a durable job type.
+     * Types must be registered before {@link #recover()} is called.
+     * @param type The type name.
+     * @param handler The handler, which receives the payload of the job.
+     */
+    public void register(String type, Consumer<String> handler) {
+        types.put(type, handler);
+    }
+
+    /**
+     * Schedules an anonymous job.
+     * @param delay The delay.
+     * @param unit The unit of the delay.
+     * @param task The task.
+     * @return The job.
+     */
+    public ScheduledJob schedule(long delay, TimeUnit unit, Runnable task) {
+        return submit(new ScheduledJob(null, null, System.currentTimeMillis() + unit.toMillis(delay), task));
+    }
+
+    /**
+     * Schedules a job by key, replacing any job with the same key.
+     * @param key The key.
+     * @param delay The delay.
+     * @param unit The unit of the delay.
+     * @param task The task.
+     * @return The job.
+     */
+    public ScheduledJob schedule(String key, long delay, TimeUnit unit, Runnable task) {
+        return scheduleAt(key, System.currentTimeMillis() + unit.toMillis(delay), task);
+    }
+
+    /**
+     * Schedules a job by key for a point in time, replacing any job with the same key.
+     * @param key The key.
+     * @param at The time in epoch milliseconds, if this has passed the job runs right away.
+     * @param task The task.
+     * @return The job.
+     */
+    public ScheduledJob scheduleAt(String key, long at, Runnable task) {
+        return submit(new ScheduledJob(key, null, at, task));
+    }
+
+    /**
+     * Schedules a durable job, replacing any job with the same key.
+     * The job is persisted until it has run or is cancelled.
+     * @param type The registered type.
+     * @param key The key.
+     * @param at The time in epoch milliseconds, if this has passed the job runs right away.
+     * @param payload The payload passed to the handler of the type.
+     * @return The job.
+     */
+    public ScheduledJob scheduleDurable(String type, String key, long at, String payload) {
+        new DataProvider().hset(SchedulerData.identifier(), key, type + ";" + at + ";" + payload);
+        return submit(durable(type, key, at, payload));
+    }
+
+    /**
+     * Cancels a job by key.
+     * @param key The key.
+     * @return True if a job was cancelled.
+     */
+    public boolean cancel(String key) {
+        ScheduledJob job = keyed.get(key);
+        return job != null && cancel(job);
+    }
+
+    /**
+     * Cancels a job.
+     * @param job The job.
+     * @return True if the job was cancelled, false if it already ran or was cancelled before.
+     */
+    boolean cancel(ScheduledJob job) {
+        if(!job.claim()) {
+            return false;
+        }
+        pending.decrementAndGet();
+        if(job.getKey() != null) {
+            keyed.remove(job.getKey(), job);
+            if(job.isDurable()) {
+                unpersist(job.getKey());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether a job with the key is pending.
+     * @param key The key.
+     * @return True if it is.
+     */
+    public boolean isScheduled(String key) {
+        return keyed.containsKey(key);
+    }
+
+    /**
+     * Restores all persisted durable jobs.
+     * Jobs that are overdue run right away.
+     */
+    public void recover() {
+        SchedulerData schedulerData = DataContainer.INSTANCE.getGravity().load(new SchedulerData());
+        int restored = 0;
+        int overdue = 0;
+        long now = System.currentTimeMillis();
+        for(String key : schedulerData.getKeys()) {
+            if(keyed.containsKey(key)) {
+                continue;
+            }
+            String[] data = schedulerData.get(key).asString().split(";", 3);
+            if(data.length != 3) {
+                IBai.INSTANCE.getLogger().warn("Discarding malformed job {}", key);
+                continue;
+            }
+            long at = Long.parseLong(data[1]);
+            submit(durable(data[0], key, at, data[2]));
+            restored++;
+            if(at <= now) {
+                overdue++;
+            }
+        }
+        IBai.INSTANCE.getLogger().info("Recovered {} scheduled jobs, {} of which are overdue", restored, overdue);
+    }
+
+    /**
+     * Gets the number of jobs waiting to run.
+     * @return The count.
+     */
+    public int getPending() {
+        return pending.get();
+    }
+
+    /**
+     * Gets the number of jobs that ran.
+     * @return The count.
+     */
+    public long getExecuted() {
+        return executed.get();
+    }
+
+    /**
+     * Gets the average time jobs started after they were due.
+     * @return The time in milliseconds.
+     */
+    public synchronized long getAverageLateness() {
+        long count = executed.get();
+        return count == 0 ? 0 : totalLateness / count;
+    }
+
+    /**
+     * Gets the longest time a job started after it was due.
+     * @return The time in milliseconds.
+     */
+    public synchronized long getMaxLateness() {
+        return maxLateness;
+    }
+
+    /**
+     * Submits a job to the wheel.
+     * @param job The job.
+     * @return The job.
+     */
+    private ScheduledJob submit(ScheduledJob job) {
+        pending.incrementAndGet();
+        if(job.getKey() != null) {
+            ScheduledJob previous = keyed.put(job.getKey(), job);
+            if(previous != null && previous.claim()) {
+                pending.decrementAndGet();
+            }
+        }
+        wheel.add(job);
+        return job;
+    }
+
+    /**
+     * Creates a durable job.
+     * The persisted entry is removed after the handler ran, unless the job was replaced in the meantime.
+     * @param type The type.
+     * @param key The key.
+     * @param at The due time.
+     * @param payload The payload.
+     * @return The job.
+     */
+    private ScheduledJob durable(String type, String key, long at, String payload) {
+        return new ScheduledJob(key, type, at, () -> {
+            Consumer<String> handler = types.get(type);
+            if(handler == null) {
+                IBai.INSTANCE.getLogger().warn("No handler for job {} of type {}", key, type);
+                return;
+            }
+            try {
+                handler.accept(payload);
+            } finally {
+                if(!keyed.containsKey(key)) {
+                    unpersist(key);
+                }
+            }
+        });
+    }
+
+    /**
+     * Hands a due job to the workers, or the blocking workers if it is durable.
+     * Invoked on the wheel thread.
+     * @param job The job.
+     */
+    private void dispatch(ScheduledJob job) {
+        if(!job.claim()) {
+            return;
+        }
+        pending.decrementAndGet();
+        if(job.getKey() != null) {
+            keyed.remove(job.getKey(), job);
+        }
+        ExecutorService executor = job.isDurable() ? blockingWorkers : workers;
+        executor.execute(() -> {
+            record(System.currentTimeMillis() - job.getDue());
+            try {
+                job.getTask().run();
+            } catch(Throwable throwable) {
+                IBai.INSTANCE.getLogger().error("Scheduled job {} failed", job.getKey(), throwable);
+            }
+        });
+    }
+
+    /**
+     * Records the lateness of a job.
+     * @param lateness The lateness in milliseconds.
+     */
+    private synchronized void record(long lateness) {
+        long value = Math.max(0, lateness);
+        executed.incrementAndGet();
+        totalLateness += value;
+        maxLateness = Math.max(maxLateness, value);
+    }
+
+    /**
+     * Removes a persisted durable job.
+     * @param key The key.
+     */
+    private void unpersist(String key) {
+        new DataProvider().hdel(SchedulerData.identifier(), key);
+    }
+
+}
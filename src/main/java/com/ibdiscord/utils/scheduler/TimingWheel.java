@@ -0,0 +1,113 @@
+/* Copyright 2017-2020 Arraying
+ *
+ * This file is part of IB.ai.
+ *
+ * IB.ai is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * IB.ai is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with IB.ai. If not, see http://www.gnu.org/licenses/.
+ */
+
+package com.ibdiscord.utils.scheduler;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * A hashed timing wheel.
+ * Jobs are hashed into buckets by the tick they are due on, so adding a job and advancing a tick are constant time
+ * regardless of how many jobs are pending. Jobs further away than one revolution stay in their bucket until the
+ * wheel has come around often enough.
+ */
+final class TimingWheel implements Runnable {
+
+    private static final int SIZE = 512;
+
+    private final List<Deque<ScheduledJob>> buckets = new ArrayList<>(SIZE);
+    private final Queue<ScheduledJob> incoming = new ConcurrentLinkedQueue<>();
+    private final long tickMillis;
+    private final Consumer<ScheduledJob> dispatcher;
+    private final long origin = System.currentTimeMillis();
+    private long tick;
+
+    /**
+     * Creates a timing wheel.
+     * @param tickMillis The duration of one tick in milliseconds.
+     * @param dispatcher The dispatcher, invoked on the wheel thread for every job that is due.
+     */
+    TimingWheel(long tickMillis, Consumer<ScheduledJob> dispatcher) {
+        this.tickMillis = tickMillis;
+        this.dispatcher = dispatcher;
+        for(int i = 0; i < SIZE; i++) {
+            buckets.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Adds a job, it is placed into its bucket on the next tick.
+     * @param job The job.
+     */
+    void add(ScheduledJob job) {
+        incoming.add(job);
+    }
+
+    /**
+     * Advances the wheel until the thread is interrupted.
+     * If the wheel falls behind, ticks are processed without sleeping until it has caught up.
+     */
+    @Override
+    public void run() {
+        while(!Thread.currentThread().isInterrupted()) {
+            long sleep = origin + tick * tickMillis - System.currentTimeMillis();
+            if(sleep > 0) {
+                try {
+                    Thread.sleep(sleep);
+                } catch(InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            place();
+            Iterator<ScheduledJob> iterator = buckets.get((int) (tick & (SIZE - 1))).iterator();
+            while(iterator.hasNext()) {
+                ScheduledJob job = iterator.next();
+                if(job.isDone()) {
+                    iterator.remove();
+                } else if(job.getTarget() <= tick) {
+                    iterator.remove();
+                    dispatcher.accept(job);
+                }
+            }
+            tick++;
+        }
+    }
+
+    /**
+     * Moves all newly added jobs into their buckets, dispatching jobs that are already due.
+     */
+    private void place() {
+        ScheduledJob job;
+        while((job = incoming.poll()) != null) {
+            if(job.isDone()) {
+                continue;
+            }
+            long target = Math.floorDiv(job.getDue() - origin + tickMillis - 1, tickMillis);
+            if(target <= tick) {
+                dispatcher.accept(job);
+                continue;
+            }
+            job.setTarget(target);
+            buckets.get((int) (target & (SIZE - 1))).add(job);
+        }
+    }
+
+}
@@ -18,9 +18,15 @@
 
 package com.ibdiscord.vote;
 
+import com.ibdiscord.utils.scheduler.Scheduler;
+
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Holds the running votes by message ID, and writes their tallies behind on an interval.
+ */
 public enum VoteCache {
 
     /**
@@ -28,6 +34,9 @@ public enum VoteCache {
      */
     INSTANCE;
 
+    private static final String FLUSH_KEY = "vote_flush";
+    private static final long FLUSH_INTERVAL = 10;
+
     private final Map<Long, VoteEntry> votes = new ConcurrentHashMap<>();
 
     /**
@@ -37,6 +46,9 @@ public enum VoteCache {
      */
     public void register(long id, VoteEntry entry) {
         votes.put(id, entry);
+        if(!Scheduler.INSTANCE.isScheduled(FLUSH_KEY)) {
+            Scheduler.INSTANCE.schedule(FLUSH_KEY, FLUSH_INTERVAL, TimeUnit.SECONDS, this::flushAndReschedule);
+        }
     }
 
     /**
@@ -48,4 +60,45 @@ public enum VoteCache {
         return votes.get(id);
     }
 
+    /**
+     * Reloads the ladder settings of the running votes of a ladder, after they were changed.
+     * @param guild The guild ID.
+     * @param ladder The name of the ladder.
+     */
+    public void reloadLadder(String guild, String ladder) {
+        for(VoteEntry vote : votes.values()) {
+            if(vote.belongsTo(guild, ladder)) {
+                vote.reloadLadder();
+            }
+        }
+    }
+
+    /**
+     * Saves the changed tallies of all votes, and forgets votes that have finished.
+     * @return The number of votes saved.
+     */
+    public int flush() {
+        int saved = 0;
+        for(Map.Entry<Long, VoteEntry> entry : votes.entrySet()) {
+            VoteEntry vote = entry.getValue();
+            if(vote.flush()) {
+                saved++;
+            }
+            if(vote.isFinished()) {
+                votes.remove(entry.getKey(), vote);
+            }
+        }
+        return saved;
+    }
+
+    /**
+     * Flushes the votes, and keeps flushing on the interval while there are running votes.
+     */
+    private void flushAndReschedule() {
+        flush();
+        if(!votes.isEmpty()) {
+            Scheduler.INSTANCE.schedule(FLUSH_KEY, FLUSH_INTERVAL, TimeUnit.SECONDS, this::flushAndReschedule);
+        }
+    }
+
 }
@@ -20,71 +20,177 @@ package com.ibdiscord.vote;
 
 import com.ibdiscord.IBai;
 import com.ibdiscord.data.db.DataContainer;
-import com.ibdiscord.data.db.DataProvider;
 import com.ibdiscord.data.db.entries.voting.VoteEntryData;
 import com.ibdiscord.data.db.entries.voting.VoteLadderData;
+import com.ibdiscord.utils.scheduler.ScheduledJob;
+import com.ibdiscord.utils.scheduler.Scheduler;
 import de.arraying.gravity.Gravity;
 import lombok.RequiredArgsConstructor;
+import net.dv8tion.jda.api.entities.MessageReaction;
 import net.dv8tion.jda.api.entities.TextChannel;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
-import java.util.function.Consumer;
+import java.util.Map;
 
+/**
+ * A running vote.
+ * The tallies and the ladder settings are kept in memory, so that votes are counted and checked without touching
+ * the database. Changed tallies are written behind by {@link VoteCache#flush()}, and right away once the vote finishes.
+ */
 @RequiredArgsConstructor
 public final class VoteEntry {
 
-    private static ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
-
     private final String guild;
     private final String ladder;
     private final long id;
     private long expiry;
     private boolean finished;
-    private ScheduledFuture<?> future;
+    private int yes;
+    private int no;
+    private int threshold;
+    private long channel;
+    private boolean dirty;
+    private ScheduledJob job;
 
     /**
      * Loads the data from the database.
      */
     public void load() {
-        withData(entry -> {
+        Gravity gravity = DataContainer.INSTANCE.getGravity();
+        VoteEntryData entry = gravity.load(new VoteEntryData(guild, ladder, id));
+        VoteLadderData ladderData = gravity.load(new VoteLadderData(guild, ladder));
+        synchronized(this) {
             expiry = entry.get(VoteEntryData.EXPIRY)
                     .defaulting(0)
                     .asLong();
             finished = entry.get(VoteEntryData.FINISHED)
                     .defaulting(false)
                     .asBoolean();
-        });
+            yes = entry.get(VoteEntryData.POSITIVE)
+                    .defaulting(0)
+                    .asInt();
+            no = entry.get(VoteEntryData.NEGATIVE)
+                    .defaulting(0)
+                    .asInt();
+            threshold = ladderData.get(VoteLadderData.THRESHOLD)
+                    .defaulting(Integer.MAX_VALUE)
+                    .asInt();
+            channel = ladderData.get(VoteLadderData.CHANNEL)
+                    .defaulting(0)
+                    .asLong();
+        }
+    }
+
+    /**
+     * Loads the data from already read hashes.
+     * @param data The hash, as stored in {@link VoteEntryData}.
+     * @param ladderData The hash of the ladder, as stored in {@link VoteLadderData}.
+     */
+    public synchronized void load(Map<String, String> data, Map<String, String> ladderData) {
+        expiry = Long.parseLong(data.getOrDefault(VoteEntryData.EXPIRY, "0"));
+        finished = Boolean.parseBoolean(data.getOrDefault(VoteEntryData.FINISHED, "false"));
+        yes = Integer.parseInt(data.getOrDefault(VoteEntryData.POSITIVE, "0"));
+        no = Integer.parseInt(data.getOrDefault(VoteEntryData.NEGATIVE, "0"));
+        threshold = Integer.parseInt(ladderData.getOrDefault(VoteLadderData.THRESHOLD,
+                String.valueOf(Integer.MAX_VALUE)));
+        channel = Long.parseLong(ladderData.getOrDefault(VoteLadderData.CHANNEL, "0"));
+    }
+
+    /**
+     * Reloads the ladder settings after they were changed, and checks whether the vote is now decided.
+     */
+    public void reloadLadder() {
+        VoteLadderData ladderData = DataContainer.INSTANCE.getGravity().load(new VoteLadderData(guild, ladder));
+        synchronized(this) {
+            threshold = ladderData.get(VoteLadderData.THRESHOLD)
+                    .defaulting(Integer.MAX_VALUE)
+                    .asInt();
+            channel = ladderData.get(VoteLadderData.CHANNEL)
+                    .defaulting(0)
+                    .asLong();
+        }
+        meetsFinalCriteria();
     }
 
     /**
      * Saves the current data.
      */
     public void save() {
-        withData(entry -> {
+        Gravity gravity = DataContainer.INSTANCE.getGravity();
+        VoteEntryData entry = gravity.load(new VoteEntryData(guild, ladder, id));
+        synchronized(this) {
             entry.set(VoteEntryData.EXPIRY, expiry);
             entry.set(VoteEntryData.FINISHED, finished);
-            entry.save(new DataProvider());
-        });
+            entry.set(VoteEntryData.POSITIVE, yes);
+            entry.set(VoteEntryData.NEGATIVE, no);
+            dirty = false;
+        }
+        gravity.save(entry);
+    }
+
+    /**
+     * Saves the tallies if they changed since the last save.
+     * @return True if anything was saved, false otherwise.
+     */
+    public boolean flush() {
+        synchronized(this) {
+            if(!dirty) {
+                return false;
+            }
+        }
+        save();
+        return true;
+    }
+
+    /**
+     * Recounts the tallies from the reactions on the vote message, in case votes came in while the bot was offline
+     * or before the last tallies were written.
+     * The reactions of the bot itself are not counted.
+     * @param reactions The reactions on the message.
+     */
+    public void recount(Iterable<MessageReaction> reactions) {
+        int counted = 0;
+        int countedNo = 0;
+        for(MessageReaction reaction : reactions) {
+            int count = reaction.getCount() - (reaction.isSelf() ? 1 : 0);
+            switch(reaction.getReactionEmote().getName()) {
+                case "\uD83D\uDC4D": // thumbs up
+                    counted = count;
+                    break;
+                case "\uD83D\uDC4E": // thumbs down
+                    countedNo = count;
+                    break;
+                default:
+                    break;
+            }
+        }
+        synchronized(this) {
+            if(finished) {
+                return;
+            }
+            dirty |= counted != yes || countedNo != no;
+            yes = counted;
+            no = countedNo;
+        }
+        meetsFinalCriteria();
     }
 
     /**
      * Starts the expiration scheduler.
      */
     public void scheduleStart() {
-        long difference = expiry - System.currentTimeMillis();
-        difference = difference < 0 ? 0 : difference; // So that if the bot is offline there won't be any tasks missed.
-        future = scheduledExecutorService.schedule(this::meetsFinalCriteria, difference, TimeUnit.MILLISECONDS);
+        // If the expiry has passed while the bot was offline, this runs right away so that no tasks are missed.
+        job = Scheduler.INSTANCE.scheduleAt("vote:" + guild + ":" + ladder + ":" + id,
+                expiry,
+                this::meetsFinalCriteria
+        );
     }
 
     /**
      * Cancels the expiration scheduler.
      */
     private void scheduleStop() {
-        if(future != null) {
-            future.cancel(true);
+        if(job != null) {
+            job.cancel();
         }
     }
 
@@ -96,85 +202,98 @@ public final class VoteEntry {
         return id;
     }
 
+    /**
+     * Whether the vote belongs to a ladder.
+     * @param guild The guild ID.
+     * @param ladder The name of the ladder.
+     * @return True if it does.
+     */
+    public boolean belongsTo(String guild, String ladder) {
+        return this.guild.equals(guild) && this.ladder.equals(ladder);
+    }
+
+    /**
+     * Whether the vote has finished.
+     * @return True if it has, false otherwise.
+     */
+    public synchronized boolean isFinished() {
+        return finished;
+    }
+
     /**
      * Adds a yes vote.
      */
     public void voteYes() {
-        withData(entry -> entry.offsetYes(new DataProvider(), 1));
-        meetsFinalCriteria();
+        offset(1, 0);
     }
 
     /**
      * Removes a yes vote.
      */
     public void unvoteYes() {
-        withData(entry -> entry.offsetYes(new DataProvider(), -1));
-        meetsFinalCriteria();
+        offset(-1, 0);
     }
 
     /**
      * Adds a no vote.
      */
     public void voteNo() {
-        withData(entry -> entry.offsetNo(new DataProvider(), 1));
-        meetsFinalCriteria();
+        offset(0, 1);
     }
 
     /**
      * Removes a no vote.
      */
     public void unvoteNo() {
-        withData(entry -> entry.offsetNo(new DataProvider(), -1));
-        meetsFinalCriteria();
+        offset(0, -1);
     }
 
     /**
-     * Checks whether or no the final criteria is met.
+     * Offsets the tallies in memory and checks the final criteria.
+     * @param yesOffset The offset of the yes votes.
+     * @param noOffset The offset of the no votes.
      */
-    private synchronized void meetsFinalCriteria() {
-        VoteLadderData ladderData = DataContainer.INSTANCE.getGravity().load(new VoteLadderData(guild, ladder));
-        withData(entry -> {
-            if(entry.get(VoteEntryData.FINISHED).defaulting(false).asBoolean()) {
+    private void offset(int yesOffset, int noOffset) {
+        synchronized(this) {
+            if(finished) {
                 return;
             }
-            int yes = entry.get(VoteEntryData.POSITIVE)
-                    .defaulting(0)
-                    .asInt();
-            int no = entry.get(VoteEntryData.NEGATIVE)
-                    .defaulting(0)
-                    .asInt();
-            int threshold = ladderData.get(VoteLadderData.THRESHOLD)
-                    .asInt();
-            if(yes >= threshold || no >= threshold || System.currentTimeMillis() > expiry) {
-                long channel = ladderData.get(VoteLadderData.CHANNEL)
-                        .defaulting(0)
-                        .asLong();
-                TextChannel textChannel = IBai.INSTANCE.getJda().getTextChannelById(channel);
-                String text;
-                if(yes > no) {
-                    text = "passed";
-                } else if(no > yes) {
-                    text = "failed";
-                } else {
-                    text = "drew";
-                }
-                if(textChannel != null) {
-                    textChannel.sendMessage("Update on vote `"  + ladder + "/" + id + "`: " + text + ".").queue();
-                }
-                entry.set(VoteEntryData.FINISHED, true);
-                entry.save(new DataProvider());
-                scheduleStop();
-            }
-        });
+            yes += yesOffset;
+            no += noOffset;
+            dirty = true;
+        }
+        meetsFinalCriteria();
     }
 
     /**
-     * Gets the vote entry data and does something.
-     * @param consumer The consumer.
+     * Checks whether or no the final criteria is met.
+     * Once it is, the result is announced and the vote is saved straight away.
      */
-    private void withData(Consumer<VoteEntryData> consumer) {
-        Gravity gravity = DataContainer.INSTANCE.getGravity();
-        consumer.accept(gravity.load(new VoteEntryData(guild, ladder, id)));
+    private void meetsFinalCriteria() {
+        String text;
+        synchronized(this) {
+            if(finished) {
+                return;
+            }
+            if(yes < threshold && no < threshold && System.currentTimeMillis() <= expiry) {
+                return;
+            }
+            if(yes > no) {
+                text = "passed";
+            } else if(no > yes) {
+                text = "failed";
+            } else {
+                text = "drew";
+            }
+            finished = true;
+            dirty = true;
+        }
+        TextChannel textChannel = IBai.INSTANCE.getJda().getTextChannelById(channel);
+        if(textChannel != null) {
+            textChannel.sendMessage("Update on vote `"  + ladder + "/" + id + "`: " + text + ".").queue();
+        }
+        save();
+        scheduleStop();
     }
 
 }
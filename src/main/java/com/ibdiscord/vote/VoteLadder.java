@@ -19,14 +19,17 @@
 package com.ibdiscord.vote;
 
 import com.ibdiscord.data.db.DataContainer;
+import com.ibdiscord.data.db.DataProvider;
 import com.ibdiscord.data.db.entries.voting.VoteEntryData;
 import com.ibdiscord.data.db.entries.voting.VoteLadderData;
 import com.ibdiscord.data.db.entries.voting.VoteListData;
 import de.arraying.gravity.Gravity;
 import net.dv8tion.jda.api.entities.Guild;
-import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.TextChannel;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 public final class VoteLadder {
 
     private final Guild guild;
@@ -44,39 +47,65 @@ public final class VoteLadder {
 
     /**
      * Creates a new vote for that ladder.
+     * The vote is only persisted once its message has been sent, together with the message ID, and it is registered
+     * before the voting reactions are added, so that no vote cast through them is missed.
      * @param text The text.
-     * @return The vote entry as an object.
+     * @return A future of the vote entry as an object, completing with null if there is no ladder channel or the vote
+     * could not be created.
      */
-    public synchronized VoteEntry createVote(String text) {
+    public CompletableFuture<VoteEntry> createVote(String text) {
         Gravity gravity = DataContainer.INSTANCE.getGravity();
-        VoteListData voteListData = gravity.load(new VoteListData(guild.getId(), name));
-        long newId = voteListData.size() + 1;
         VoteLadderData voteLadderData = gravity.load(new VoteLadderData(guild.getId(), name));
         TextChannel channel = guild.getTextChannelById(voteLadderData.get(VoteLadderData.CHANNEL)
                 .defaulting(0)
                 .asLong());
         if(channel == null) {
-            return null;
+            return CompletableFuture.completedFuture(null);
+        }
+        long newId = nextId();
+        if(newId == 0) {
+            return CompletableFuture.completedFuture(null);
         }
         long expiry = (voteLadderData.get(VoteLadderData.TIMEOUT)
                 .defaulting(12 * 60 * 60 * 1000) // 12 hours
                 .asLong())
                 + System.currentTimeMillis();
-        Message messageObject = channel.sendMessage(newId + ") " + text).complete();
-        messageObject.addReaction("\uD83D\uDC4D").queue();
-        messageObject.addReaction("\uD83D\uDC4E").queue();
-        long message = messageObject.getIdLong();
-        VoteEntryData voteEntryData = gravity.load(new VoteEntryData(guild.getId(), name, newId));
-        voteEntryData.set(VoteEntryData.EXPIRY, expiry);
-        voteEntryData.set(VoteEntryData.MESSAGE, message);
-        gravity.save(voteEntryData);
-        voteListData.add(newId);
-        gravity.save(voteListData);
-        VoteEntry entry = new VoteEntry(guild.getId(), name, newId);
-        entry.load();
-        entry.scheduleStart();
-        VoteCache.INSTANCE.register(message, entry);
-        return entry;
+        return channel.sendMessage(newId + ") " + text).submit().handle((messageObject, error) -> {
+            if(error != null) {
+                return null; // Nothing was persisted, the ID is skipped.
+            }
+            long message = messageObject.getIdLong();
+            DataProvider provider = new DataProvider();
+            provider.hmset(VoteEntryData.identifier(guild.getId(), name, newId), Map.of(
+                    VoteEntryData.EXPIRY, String.valueOf(expiry),
+                    VoteEntryData.MESSAGE, String.valueOf(message)
+            ));
+            provider.sadd(VoteListData.identifier(guild.getId(), name), String.valueOf(newId));
+            VoteEntry entry = new VoteEntry(guild.getId(), name, newId);
+            entry.load();
+            entry.scheduleStart();
+            VoteCache.INSTANCE.register(message, entry);
+            messageObject.addReaction("\uD83D\uDC4D").queue();
+            messageObject.addReaction("\uD83D\uDC4E").queue();
+            return entry;
+        });
+    }
+
+    /**
+     * Allocates the next vote ID.
+     * The counter is incremented atomically, so that concurrent votes never get the same ID.
+     * Ladders with votes from before the counter existed start counting from their number of votes.
+     * @return The vote ID, or 0 if it could not be allocated.
+     */
+    private long nextId() {
+        DataProvider provider = new DataProvider();
+        String key = "vote_counter_" + guild.getId() + "_" + name;
+        if(provider.get(key) == null) {
+            provider.setnx(key, String.valueOf(DataContainer.INSTANCE.getGravity()
+                    .load(new VoteListData(guild.getId(), name))
+                    .size()));
+        }
+        return provider.incr(key);
     }
 
 }